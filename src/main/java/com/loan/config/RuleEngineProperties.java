@@ -0,0 +1,259 @@
+package com.loan.config;
+
+import lombok.Data;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tuning options for the rule engine, bound from the {@code rule-engine.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rule-engine")
+public class RuleEngineProperties {
+
+    private ScriptCache scriptCache = new ScriptCache();
+    private ScriptCompiler scriptCompiler = new ScriptCompiler();
+    private DecisionTableCache decisionTableCache = new DecisionTableCache();
+    private Executor executor = new Executor();
+    private Retry retry = new Retry();
+    private Bulkhead bulkhead = new Bulkhead();
+    private AdaptiveLimit adaptiveLimit = new AdaptiveLimit();
+    private Hedging hedging = new Hedging();
+    private Deadline deadline = new Deadline();
+    private Veto veto = new Veto();
+    private RuleOrder ruleOrder = new RuleOrder();
+    private MicroBatch microBatch = new MicroBatch();
+
+    @Data
+    public static class ScriptCache {
+        /**
+         * Maximum number of parsed SCRIPT expressions kept in memory.
+         */
+        private int maxSize = 512;
+    }
+
+    @Data
+    public static class ScriptCompiler {
+        /**
+         * OFF keeps SCRIPT rules interpreted; IMMEDIATE compiles after the first evaluation;
+         * MIXED compiles once an expression has been interpreted {@code mixedThreshold} times.
+         */
+        private SpelCompilerMode mode = SpelCompilerMode.OFF;
+
+        private int mixedThreshold = 100;
+
+        /**
+         * Evaluate the arithmetic/boolean subset of SpEL with the native rule-expression compiler,
+         * falling back to SpEL for everything else.
+         */
+        private boolean nativeEnabled = false;
+    }
+
+    @Data
+    public static class DecisionTableCache {
+        /**
+         * Maximum number of compiled decision tables kept in memory.
+         */
+        private int maxSize = 256;
+    }
+
+    @Data
+    public static class Executor {
+        /**
+         * Strategy for rules that select none: {@code cpu}, {@code io} or {@code virtual}.
+         */
+        private String defaultStrategy = "cpu";
+
+        /**
+         * Strategy per rule type, for example {@code CREDIT_SCORE_CHECK: io}. {@code @RuleClass(executor)} wins.
+         */
+        private Map<String, String> ruleTypes = new HashMap<>();
+
+        /**
+         * Upper bound of the elastic I/O pool.
+         */
+        private int ioMaxThreads = 200;
+
+        /**
+         * Tasks that wait for an I/O thread once all are busy; beyond that they are rejected.
+         */
+        private int ioMaxQueue = 1000;
+
+        private Duration ioKeepAlive = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Retry {
+        /**
+         * Retries all rules of one parallel execution may use together, so a failing dependency
+         * cannot multiply a request's load.
+         */
+        private int budgetPerRequest = 10;
+
+        /**
+         * Factor between consecutive retry delays.
+         */
+        private double multiplier = 2.0;
+
+        private Duration maxDelay = Duration.ofSeconds(10);
+
+        /**
+         * Fraction of each retry delay that is randomized.
+         */
+        private double jitter = 0.5;
+    }
+
+    @Data
+    public static class Bulkhead {
+        /**
+         * Bulkheads shared by all rules naming them in {@code @RuleClass(bulkhead)}, one per external endpoint.
+         */
+        private Map<String, Limits> endpoints = new HashMap<>();
+
+        /**
+         * Bulkhead per {@code @RuleClass} name.
+         */
+        private Map<String, Limits> ruleClasses = new HashMap<>();
+
+        /**
+         * Bulkhead per rule type, matched against the rule definition's type and then the rule class's.
+         */
+        private Map<String, Limits> ruleTypes = new HashMap<>();
+
+        @Data
+        public static class Limits {
+            private int maxConcurrent = 25;
+
+            /**
+             * Rules that may wait for a slot before further ones are rejected.
+             */
+            private int maxQueue = 0;
+        }
+    }
+
+    @Data
+    public static class AdaptiveLimit {
+        /**
+         * Limit in-flight API and DATABASE rule calls per dependency from their observed latency. Calls over
+         * the limit wait for a permit until the request's deadline.
+         */
+        private boolean enabled = false;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+
+        /**
+         * How many times the best observed round trip the smoothed one may reach before the limit shrinks.
+         */
+        private double tolerance = 2.0;
+
+        /**
+         * Weight of each new limit estimate, between 0 and 1.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Factor applied to the limit when a call times out or fails with an overload error.
+         */
+        private double backoffRatio = 0.9;
+
+        private int minRttResetSamples = 1000;
+    }
+
+    @Data
+    public static class Hedging {
+        private boolean enabled = false;
+
+        /**
+         * Dependencies to hedge, named {@code api:host[:port]} or {@code database}, with the delay before
+         * the second attempt; zero hedges at the observed p95. List only idempotent dependencies.
+         */
+        private Map<String, Duration> dependencies = new HashMap<>();
+
+        /**
+         * Hedges each call earns, so at most this fraction of calls is sent twice.
+         */
+        private double budgetRatio = 0.05;
+
+        /**
+         * Calls observed before the p95 is used as the hedge delay.
+         */
+        private int minSamples = 100;
+
+        private int maxBurst = 10;
+    }
+
+    @Data
+    public static class Deadline {
+        /**
+         * Budget of a request that arrives without a deadline of its own.
+         */
+        private Duration defaultTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Veto {
+        /**
+         * Stop a step at the first rule failure that rejects it, for steps not configured below.
+         */
+        private boolean shortCircuit = true;
+
+        /**
+         * Policy per step code.
+         */
+        private Map<String, Step> steps = new HashMap<>();
+
+        @Data
+        public static class Step {
+            private boolean shortCircuit = true;
+
+            /**
+             * Rules whose failure is reported but does not reject the step.
+             */
+            private List<String> advisoryRules = new ArrayList<>();
+        }
+    }
+
+    @Data
+    public static class RuleOrder {
+        /**
+         * Run the rules of sequential steps by expected cost per rejection instead of execution order.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Assumed duration per rule type of rules that have not run yet.
+         */
+        private Map<String, Duration> typeCosts = new HashMap<>();
+
+        private Duration defaultCost = Duration.ofMillis(1);
+    }
+
+    @Data
+    public static class MicroBatch {
+        private boolean enabled = false;
+
+        /**
+         * Dependencies whose lookups are batched across requests, named {@code database} or
+         * {@code credit-score}, with how long a batch collects lookups before it is sent. Of the
+         * DATABASE rules only those declaring a {@link com.loan.rule.batch.KeyedQuery} are batched.
+         */
+        private Map<String, Duration> dependencies = new HashMap<>();
+
+        /**
+         * Distinct lookups after which a batch is sent without waiting for the rest of its window.
+         */
+        private int maxBatchSize = 50;
+    }
+}
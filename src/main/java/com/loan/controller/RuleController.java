@@ -19,6 +19,18 @@ public class RuleController {
     private final RuleEngineService ruleEngineService;
     private final WorkflowService workflowService;
 
+    @GetMapping("/scripts/compilation")
+    public ResponseEntity<?> getScriptCompilationReports() {
+        return ResponseEntity.ok(ruleEngineService.getScriptCompilationReports());
+    }
+
+    @GetMapping("/{ruleId}/variables")
+    public ResponseEntity<?> getRuleVariables(@PathVariable Long ruleId) {
+        return ruleEngineService.getRuleVariables(ruleId)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{ruleId}/test")
     public ResponseEntity<?> testRule(
             @PathVariable Long ruleId,
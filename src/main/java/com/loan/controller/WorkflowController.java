@@ -1,6 +1,7 @@
 package com.loan.controller;
 
 import com.loan.domain.Workflow;
+import com.loan.rule.Deadline;
 import com.loan.service.WorkflowService;
 import com.loan.service.SchedulerService;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Slf4j
@@ -34,9 +36,14 @@ public class WorkflowController {
     public ResponseEntity<?> executeWorkflowStep(
             @PathVariable String productCode,
             @PathVariable String stepCode,
+            @RequestHeader(value = "X-Request-Timeout", required = false) Long timeoutMs,
             @RequestBody Map<String, Object> context) {
         try {
-            var result = workflowService.executeWorkflowStep(productCode, stepCode, context);
+            // The client's own timeout, in milliseconds, bounds every rule of the step
+            var result = timeoutMs != null
+                ? workflowService.executeWorkflowStep(productCode, stepCode, context,
+                    Deadline.after(Duration.ofMillis(timeoutMs)))
+                : workflowService.executeWorkflowStep(productCode, stepCode, context);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Error executing workflow step: {} for product: {}", stepCode, productCode, e);
@@ -4,5 +4,6 @@ public enum RuleType {
     SCRIPT,      // Rule defined by script (SpEL)
     API,         // Rule that calls external API
     DATABASE,    // Rule that queries database
-    COMPOSITE    // Rule that combines multiple rules
+    COMPOSITE,   // Rule that combines multiple rules
+    DECISION_TABLE // Rule defined by an indexed decision table (JSON)
 } 
\ No newline at end of file
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -34,4 +35,9 @@ public class Workflow {
 
     @Column(name = "description")
     private String description;
+
+    // Maintained by the database like rules.updated_at, so the workflow cache sees edits made outside the service
+    @Column(name = "updated_at", insertable = false, updatable = false,
+        columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
+    private LocalDateTime updatedAt;
 } 
\ No newline at end of file
@@ -5,6 +5,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -19,8 +22,11 @@ public class WorkflowStep {
     @SequenceGenerator(name = "workflow_step_seq", sequenceName = "workflow_step_seq", allocationSize = 1)
     private Long id;
 
+    // Back-reference to the owning workflow, whose equals and toString already cover its steps
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "workflow_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Workflow workflow;
 
     @Column(name = "step_code", nullable = false)
@@ -53,6 +59,11 @@ public class WorkflowStep {
     @Column(name = "parallel_execution", nullable = false)
     private boolean parallelExecution = false;
 
+    // Maintained by the database like rules.updated_at, so the workflow cache sees edits made outside the service
+    @Column(name = "updated_at", insertable = false, updatable = false,
+        columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
+    private LocalDateTime updatedAt;
+
     public boolean isParallelExecution() {
         return parallelExecution;
     }
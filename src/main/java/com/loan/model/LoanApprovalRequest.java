@@ -23,6 +23,9 @@ public class LoanApprovalRequest {
     private String workflowStep;
     private Map<String, Object> data;
 
+    // Epoch milliseconds by which the producer needs the result; null uses the default budget
+    private Long deadline;
+
     // Customer Information
     @NotBlank(message = "Customer ID is required")
     private String customerId;
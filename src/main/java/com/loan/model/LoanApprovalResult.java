@@ -20,6 +20,8 @@ public class LoanApprovalResult {
     private Object data;
     private Map<String, Object> resultData;
     private List<RuleResult> ruleResults;
+    // Names of the rules of a sequential step in the order they were run, for auditing
+    private List<String> ruleOrder;
     private Long timestamp;
     @Builder.Default
     private boolean approved = false;
@@ -5,12 +5,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WorkflowRepository extends JpaRepository<Workflow, Long> {
     Optional<Workflow> findByProductCodeAndIsActiveTrue(String productCode);
 
+    List<Workflow> findByIsActiveTrue();
+
     @Query("SELECT w FROM Workflow w " +
            "LEFT JOIN FETCH w.steps s " +
            "LEFT JOIN FETCH s.rules " +
@@ -19,5 +22,19 @@ public interface WorkflowRepository extends JpaRepository<Workflow, Long> {
     Optional<Workflow> findActiveWorkflowWithStepsAndRules(
         @Param("productCode") String productCode);
 
+    // Links between steps and rules carry no timestamp, so their count and rule ids stand in for it
+    @Query(value = "SELECT w.product_code AS productCode, w.updated_at AS workflowUpdatedAt, " +
+                   "MAX(s.updated_at) AS stepsUpdatedAt, COUNT(DISTINCT s.id) AS steps, " +
+                   "MAX(r.updated_at) AS rulesUpdatedAt, COUNT(r.id) AS ruleLinks, " +
+                   "COALESCE(SUM(r.id), 0) AS ruleIds " +
+                   "FROM workflows w " +
+                   "LEFT JOIN workflow_steps s ON s.workflow_id = w.id " +
+                   "LEFT JOIN workflow_step_rules sr ON sr.step_id = s.id " +
+                   "LEFT JOIN rules r ON r.id = sr.rule_id " +
+                   "WHERE w.is_active = true " +
+                   "GROUP BY w.id, w.product_code, w.updated_at",
+           nativeQuery = true)
+    List<WorkflowRevision> findActiveWorkflowRevisions();
+
     boolean existsByProductCode(String productCode);
 } 
\ No newline at end of file
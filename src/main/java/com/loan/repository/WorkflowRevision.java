@@ -0,0 +1,24 @@
+package com.loan.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What changes when an active workflow, one of its steps or one of their rules is edited, added or
+ * removed; read for all products in one query so an unchanged workflow is not reloaded.
+ */
+public interface WorkflowRevision {
+
+    String getProductCode();
+
+    LocalDateTime getWorkflowUpdatedAt();
+
+    LocalDateTime getStepsUpdatedAt();
+
+    Long getSteps();
+
+    LocalDateTime getRulesUpdatedAt();
+
+    Long getRuleLinks();
+
+    Long getRuleIds();
+}
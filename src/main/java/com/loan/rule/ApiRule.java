@@ -3,23 +3,42 @@ package com.loan.rule;
 import com.loan.domain.Rule;
 import com.loan.domain.ExecutionStatus;
 import com.loan.model.RuleResult;
+import com.loan.rule.resilience.AdaptiveLimiter;
+import com.loan.rule.resilience.Hedger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 @Slf4j
 public class ApiRule extends BaseRule {
     private final RestTemplate restTemplate;
+    private final AdaptiveLimiter limiter;
+    private final Hedger hedger;
 
     public ApiRule(Rule rule) {
+        this(rule, null, null);
+    }
+
+    /**
+     * @param limiter Adaptive concurrency limit of the endpoint's host; null for no limit
+     * @param hedger Hedges slow calls to an endpoint opted in as idempotent; null for none
+     */
+    public ApiRule(Rule rule, AdaptiveLimiter limiter, Hedger hedger) {
         super(rule);
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = new RestTemplate(new DeadlineRequestFactory());
+        this.limiter = limiter;
+        this.hedger = hedger;
     }
 
     @Override
@@ -31,6 +50,18 @@ public class ApiRule extends BaseRule {
             .status(ExecutionStatus.SUCCESS)
             .build();
 
+        Deadline deadline = Deadline.from(context);
+        if (deadline != null && deadline.isExpired()) {
+            result.setStatus(ExecutionStatus.ERROR);
+            result.setErrorMessage("Deadline exceeded before calling the endpoint");
+            return result;
+        }
+        if (limiter != null && !acquire(deadline)) {
+            result.setStatus(ExecutionStatus.ERROR);
+            result.setErrorMessage("Deadline exceeded waiting for the concurrency limit of " + limiter.getName());
+            return result;
+        }
+        long callStart = System.nanoTime();
         try {
             if (!StringUtils.hasText(rule.getRuleScript())) {
                 throw new IllegalArgumentException("API endpoint is not specified");
@@ -49,25 +80,50 @@ public class ApiRule extends BaseRule {
             HttpEntity<Object> requestEntity = new HttpEntity<>(context.get("body"), headers);
 
             // Make API call
-            ResponseEntity<Object> response = restTemplate.exchange(
+            Callable<ResponseEntity<Object>> call = CallTimeout.bound(deadline, () -> restTemplate.exchange(
                 rule.getRuleScript(), // Using ruleScript field to store API endpoint
                 HttpMethod.POST,
                 requestEntity,
                 Object.class
-            );
+            ));
+            ResponseEntity<Object> response = hedger != null ? hedger.call(call) : call.call();
 
             result.setResult(response.getBody());
+            if (limiter != null) {
+                limiter.onSuccess(System.nanoTime() - callStart);
+            }
 
         } catch (Exception e) {
             log.error("Error executing API rule: {}", rule.getName(), e);
             result.setStatus(ExecutionStatus.ERROR);
             result.setErrorMessage(e.getMessage());
+            if (limiter != null) {
+                // Timeouts and connection failures mean the endpoint is overloaded; error responses do not
+                if (e instanceof ResourceAccessException) {
+                    limiter.onDropped();
+                } else {
+                    limiter.onIgnored();
+                }
+            }
         }
 
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
 
+    /**
+     * Waits for a permit until the deadline, so capacity alone never fails the rule before the request
+     * runs out of time.
+     */
+    private boolean acquire(Deadline deadline) {
+        try {
+            return limiter.acquire(deadline != null ? deadline.remainingNanos() : Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     @Override
     public boolean validateInput(Map<String, Object> context) {
         if (context == null) {
@@ -81,4 +137,21 @@ public class ApiRule extends BaseRule {
     public String getRuleType() {
         return "API";
     }
-} 
\ No newline at end of file
+
+    /**
+     * Connects and reads with the timeout of the current call, so a slow endpoint gives the thread back at
+     * the deadline.
+     */
+    private static class DeadlineRequestFactory extends SimpleClientHttpRequestFactory {
+
+        @Override
+        protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+            super.prepareConnection(connection, httpMethod);
+            int timeout = CallTimeout.millis();
+            if (timeout > 0) {
+                connection.setConnectTimeout(timeout);
+                connection.setReadTimeout(timeout);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.loan.rule;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounds an outbound call of a rule by what is left of the request's deadline. Cancelling the future of a
+ * rule does not interrupt a socket read or a running statement, so the HTTP client and the JDBC statement
+ * read the timeout set here for the thread making the call and give the thread back at the deadline.
+ */
+final class CallTimeout {
+
+    private static final ThreadLocal<Duration> CURRENT = new ThreadLocal<>();
+
+    private CallTimeout() {
+    }
+
+    /**
+     * The remaining time is read when the call starts, so a hedged copy started later gets what is left then.
+     *
+     * @param deadline The request's deadline; null leaves the call unbounded, as every entry point sets one
+     */
+    static <T> Callable<T> bound(Deadline deadline, Callable<T> call) {
+        if (deadline == null) {
+            return call;
+        }
+        return () -> {
+            if (deadline.isExpired()) {
+                throw new TimeoutException("Deadline exceeded before the call");
+            }
+            CURRENT.set(deadline.remaining());
+            try {
+                return call.call();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * @return The timeout of the current call in milliseconds, at least 1 since 0 means none; -1 if unbounded
+     */
+    static int millis() {
+        Duration timeout = CURRENT.get();
+        return timeout != null ? (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout.toMillis())) : -1;
+    }
+
+    /**
+     * @return The timeout of the current call rounded up to whole seconds, as JDBC counts them; -1 if unbounded
+     */
+    static int seconds() {
+        int millis = millis();
+        return millis > 0 ? (int) Math.ceil(millis / 1000.0) : -1;
+    }
+}
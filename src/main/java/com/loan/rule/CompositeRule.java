@@ -14,12 +14,12 @@ import java.util.Map;
 @Slf4j
 public class CompositeRule extends BaseRule {
     private final RuleRepository ruleRepository;
-    private final RuleFactory ruleFactory;
+    private final RuleRegistry ruleRegistry;
 
-    public CompositeRule(Rule rule, RuleRepository ruleRepository, RuleFactory ruleFactory) {
+    public CompositeRule(Rule rule, RuleRepository ruleRepository, RuleRegistry ruleRegistry) {
         super(rule);
         this.ruleRepository = ruleRepository;
-        this.ruleFactory = ruleFactory;
+        this.ruleRegistry = ruleRegistry;
     }
 
     @Override
@@ -42,10 +42,10 @@ public class CompositeRule extends BaseRule {
 
             // Execute each sub-rule
             for (Long ruleId : ruleIds) {
-                Rule subRule = ruleRepository.findById(ruleId)
-                    .orElseThrow(() -> new IllegalArgumentException("Sub-rule not found: " + ruleId));
-
-                BaseRule ruleInstance = ruleFactory.createRule(subRule);
+                // Sub-rules missing from the registry snapshot are loaded and registered on first use
+                BaseRule ruleInstance = ruleRegistry.get(ruleId)
+                    .orElseGet(() -> ruleRegistry.get(ruleRepository.findById(ruleId)
+                        .orElseThrow(() -> new IllegalArgumentException("Sub-rule not found: " + ruleId))));
                 RuleResult subResult = ruleInstance.execute(context);
                 subResults.add(subResult);
 
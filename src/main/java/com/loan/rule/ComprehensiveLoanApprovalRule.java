@@ -5,6 +5,7 @@ import com.loan.domain.ExecutionStatus;
 import com.loan.model.RuleResult;
 import com.loan.rule.annotation.RuleClass;
 import com.loan.rule.annotation.RuleExecution;
+import com.loan.rule.plan.DerivedValue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -16,7 +17,9 @@ import java.util.Map;
 @RuleClass(
     name = "ComprehensiveLoanApproval",
     description = "Comprehensive rule for loan approval that combines multiple checks",
-    timeout = 10000
+    timeout = 10000,
+    derivedValues = {DerivedValue.MONTHLY_LOAN_PAYMENT, DerivedValue.TOTAL_MONTHLY_OBLIGATIONS, DerivedValue.DEBT_TO_INCOME_RATIO},
+    inputs = {"customerId", "creditScore", "monthlyIncome", "loanAmount", "loanTermMonths", "downPayment", "employmentStatus"}
 )
 @RuleExecution(
     maxRetries = 3,
@@ -26,7 +29,7 @@ import java.util.Map;
     fallbackEnabled = true,
     fallbackMethod = "fallbackCheck"
 )
-public class ComprehensiveLoanApprovalRule extends BaseRule {
+public class ComprehensiveLoanApprovalRule implements StatelessRule {
 
     private static final BigDecimal MIN_CREDIT_SCORE = new BigDecimal("600");
     private static final BigDecimal MIN_INCOME_MULTIPLIER = new BigDecimal("0.3");
@@ -34,18 +37,16 @@ public class ComprehensiveLoanApprovalRule extends BaseRule {
     private static final BigDecimal MIN_DOWN_PAYMENT_PERCENTAGE = new BigDecimal("0.2");
 
     public ComprehensiveLoanApprovalRule() {
-        super();
     }
 
     @Override
-    public RuleResult execute(Map<String, Object> context) {
+    public RuleResult execute(Rule rule, Map<String, Object> context) {
         log.info("Executing comprehensive loan approval check for customer: {}", context.get("customerId"));
 
         // Extract input values
         BigDecimal creditScore = (BigDecimal) context.get("creditScore");
         BigDecimal monthlyIncome = (BigDecimal) context.get("monthlyIncome");
         BigDecimal loanAmount = (BigDecimal) context.get("loanAmount");
-        BigDecimal monthlyDebtPayments = (BigDecimal) context.get("monthlyDebtPayments");
         Integer loanTermMonths = (Integer) context.get("loanTermMonths");
         BigDecimal downPayment = (BigDecimal) context.get("downPayment");
         String employmentStatus = (String) context.get("employmentStatus");
@@ -65,14 +66,9 @@ public class ComprehensiveLoanApprovalRule extends BaseRule {
         boolean meetsCreditScore = creditScore.compareTo(MIN_CREDIT_SCORE) >= 0;
 
         // Check income requirements
-        BigDecimal monthlyLoanPayment = loanAmount
-            .divide(new BigDecimal(loanTermMonths), 2, BigDecimal.ROUND_HALF_UP);
-        BigDecimal totalMonthlyObligations = monthlyLoanPayment;
-        if (monthlyDebtPayments != null) {
-            totalMonthlyObligations = totalMonthlyObligations.add(monthlyDebtPayments);
-        }
-        BigDecimal debtToIncomeRatio = totalMonthlyObligations
-            .divide(monthlyIncome, 4, BigDecimal.ROUND_HALF_UP);
+        BigDecimal monthlyLoanPayment = DerivedValue.MONTHLY_LOAN_PAYMENT.get(context);
+        BigDecimal totalMonthlyObligations = DerivedValue.TOTAL_MONTHLY_OBLIGATIONS.get(context);
+        BigDecimal debtToIncomeRatio = DerivedValue.DEBT_TO_INCOME_RATIO.get(context);
         boolean meetsIncomeRequirements = monthlyIncome
             .multiply(MIN_INCOME_MULTIPLIER)
             .compareTo(monthlyLoanPayment) >= 0;
@@ -116,7 +112,7 @@ public class ComprehensiveLoanApprovalRule extends BaseRule {
     }
 
     @Override
-    public boolean validateInput(Map<String, Object> context) {
+    public boolean validateInput(Rule rule, Map<String, Object> context) {
         return context.containsKey("customerId") 
             && context.containsKey("creditScore")
             && context.containsKey("monthlyIncome")
@@ -126,7 +122,7 @@ public class ComprehensiveLoanApprovalRule extends BaseRule {
             && context.containsKey("employmentStatus");
     }
 
-    public RuleResult fallbackCheck(Map<String, Object> context) {
+    public RuleResult fallbackCheck(Rule rule, Map<String, Object> context) {
         log.warn("Using fallback for comprehensive loan approval check for customer: {}", 
             context.get("customerId"));
         
@@ -16,7 +16,8 @@ import java.util.Map;
 @RuleClass(
     name = "CreditCardLimit",
     description = "Calculates credit card limit based on income, credit score, employment type and payment history",
-    timeout = 5000
+    timeout = 5000,
+    inputs = {"customerId", "monthlyIncome", "creditScore", "employmentType", "latePayments"}
 )
 @RuleExecution(
     maxRetries = 3,
@@ -26,7 +27,7 @@ import java.util.Map;
     fallbackEnabled = true,
     fallbackMethod = "fallbackCheck"
 )
-public class CreditCardLimitRule extends BaseRule {
+public class CreditCardLimitRule implements StatelessRule {
     
     private static final BigDecimal BASE_INCOME_MULTIPLIER = new BigDecimal("3.0");
     private static final BigDecimal HIGH_CREDIT_SCORE_THRESHOLD = new BigDecimal("750.0");
@@ -42,11 +43,10 @@ public class CreditCardLimitRule extends BaseRule {
     private static final int MAX_LATE_PAYMENTS = 2;
 
     public CreditCardLimitRule() {
-        super();
     }
 
     @Override
-    public RuleResult execute(Map<String, Object> context) {
+    public RuleResult execute(Rule rule, Map<String, Object> context) {
         log.info("Executing credit card limit calculation for customer: {}", context.get("customerId"));
 
         // Extract input values
@@ -124,7 +124,7 @@ public class CreditCardLimitRule extends BaseRule {
     }
 
     @Override
-    public boolean validateInput(Map<String, Object> context) {
+    public boolean validateInput(Rule rule, Map<String, Object> context) {
         return context.containsKey("customerId") 
             && context.containsKey("monthlyIncome")
             && context.containsKey("creditScore")
@@ -132,7 +132,7 @@ public class CreditCardLimitRule extends BaseRule {
             && context.containsKey("latePayments");
     }
 
-    public RuleResult fallbackCheck(Map<String, Object> context) {
+    public RuleResult fallbackCheck(Rule rule, Map<String, Object> context) {
         log.warn("Using fallback for credit card limit calculation for customer: {}", 
             context.get("customerId"));
         
@@ -16,7 +16,8 @@ import java.util.Map;
 @RuleClass(
     name = "CreditScoreBasedLimit",
     description = "Calculates loan limit based on credit score and income",
-    timeout = 5000
+    timeout = 5000,
+    inputs = {"customerId", "creditScore", "monthlyIncome"}
 )
 @RuleExecution(
     maxRetries = 3,
@@ -26,7 +27,7 @@ import java.util.Map;
     fallbackEnabled = true,
     fallbackMethod = "fallbackCheck"
 )
-public class CreditScoreBasedLimitRule extends BaseRule {
+public class CreditScoreBasedLimitRule implements StatelessRule {
 
     private static final BigDecimal EXCELLENT_CREDIT_SCORE = new BigDecimal("800");
     private static final BigDecimal GOOD_CREDIT_SCORE = new BigDecimal("700");
@@ -38,11 +39,10 @@ public class CreditScoreBasedLimitRule extends BaseRule {
     private static final BigDecimal DEFAULT_MULTIPLIER = new BigDecimal("0.5");
 
     public CreditScoreBasedLimitRule() {
-        super();
     }
 
     @Override
-    public RuleResult execute(Map<String, Object> context) {
+    public RuleResult execute(Rule rule, Map<String, Object> context) {
         log.info("Executing credit score based limit calculation for customer: {}", 
             context.get("customerId"));
 
@@ -98,13 +98,13 @@ public class CreditScoreBasedLimitRule extends BaseRule {
     }
 
     @Override
-    public boolean validateInput(Map<String, Object> context) {
+    public boolean validateInput(Rule rule, Map<String, Object> context) {
         return context.containsKey("customerId") 
             && context.containsKey("creditScore")
             && context.containsKey("monthlyIncome");
     }
 
-    public RuleResult fallbackCheck(Map<String, Object> context) {
+    public RuleResult fallbackCheck(Rule rule, Map<String, Object> context) {
         log.warn("Using fallback for credit score based limit calculation for customer: {}", 
             context.get("customerId"));
         
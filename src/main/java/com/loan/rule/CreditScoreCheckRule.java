@@ -18,7 +18,10 @@ import java.util.Map;
 @RuleClass(
     name = "CreditScoreCheck",
     description = "Checks if customer's credit score meets minimum requirements",
-    timeout = 5000
+    timeout = 5000,
+    inputs = {"customerId"},
+    executor = "io",
+    bulkhead = "credit-bureau"
 )
 @RuleExecution(
     maxRetries = 3,
@@ -28,7 +31,7 @@ import java.util.Map;
     fallbackEnabled = true,
     fallbackMethod = "fallbackCheck"
 )
-public class CreditScoreCheckRule extends BaseRule {
+public class CreditScoreCheckRule implements StatelessRule {
 
     private static final BigDecimal MIN_CREDIT_SCORE = new BigDecimal("600");
     private static final BigDecimal GOOD_CREDIT_SCORE = new BigDecimal("700");
@@ -38,16 +41,11 @@ public class CreditScoreCheckRule extends BaseRule {
 
     @Autowired
     public CreditScoreCheckRule(CreditScoreService creditScoreService) {
-        super();
         this.creditScoreService = creditScoreService;
     }
 
-    public void setRule(Rule rule) {
-        this.rule = rule;
-    }
-
     @Override
-    public RuleResult execute(Map<String, Object> context) {
+    public RuleResult execute(Rule rule, Map<String, Object> context) {
         log.info("Executing credit score check for customer: {}", context.get("customerId"));
 
         String customerId = (String) context.get("customerId");
@@ -62,7 +60,7 @@ public class CreditScoreCheckRule extends BaseRule {
 
         try {
             // Get credit score from service
-            BigDecimal creditScore = creditScoreService.getCreditScore(customerId);
+            BigDecimal creditScore = creditScoreService.getCreditScore(customerId, Deadline.from(context));
             
             if (creditScore == null) {
                 return RuleResult.builder()
@@ -112,11 +110,11 @@ public class CreditScoreCheckRule extends BaseRule {
     }
 
     @Override
-    public boolean validateInput(Map<String, Object> context) {
+    public boolean validateInput(Rule rule, Map<String, Object> context) {
         return context.containsKey("customerId");
     }
 
-    public RuleResult fallbackCheck(Map<String, Object> context) {
+    public RuleResult fallbackCheck(Rule rule, Map<String, Object> context) {
         log.warn("Using fallback for credit score check for customer: {}", context.get("customerId"));
         
         return RuleResult.builder()
@@ -3,23 +3,60 @@ package com.loan.rule;
 import com.loan.domain.Rule;
 import com.loan.domain.ExecutionStatus;
 import com.loan.model.RuleResult;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.analysis.RuleVariables;
+import com.loan.rule.batch.KeyedQuery;
+import com.loan.rule.batch.MicroBatcher;
+import com.loan.rule.resilience.AdaptiveLimiter;
+import com.loan.rule.resilience.Hedger;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.util.StringUtils;
 
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 public class DatabaseRule extends BaseRule {
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final RuleVariableAnalyzer variableAnalyzer;
+    private final AdaptiveLimiter limiter;
+    private final Hedger hedger;
+    private final MicroBatcher<KeyedQuery.Lookup, Object> batcher;
+    private final KeyedQuery keyedQuery;
 
-    public DatabaseRule(Rule rule, JdbcTemplate jdbcTemplate) {
+    public DatabaseRule(Rule rule, JdbcTemplate jdbcTemplate, RuleVariableAnalyzer variableAnalyzer) {
+        this(rule, jdbcTemplate, variableAnalyzer, null, null, null);
+    }
+
+    /**
+     * @param limiter Adaptive concurrency limit of the rule database; null for no limit
+     * @param hedger Hedges slow SELECT queries when the database is opted in; null for none
+     * @param batcher Sends the lookups of concurrent requests together if the rule declares a {@link KeyedQuery}
+     *                in its parameters; null to send each on its own
+     */
+    public DatabaseRule(Rule rule, JdbcTemplate jdbcTemplate, RuleVariableAnalyzer variableAnalyzer,
+                        AdaptiveLimiter limiter, Hedger hedger, MicroBatcher<KeyedQuery.Lookup, Object> batcher) {
         super(rule);
         this.jdbcTemplate = jdbcTemplate;
-        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(new DeadlineJdbcTemplate(jdbcTemplate));
+        this.variableAnalyzer = variableAnalyzer;
+        this.limiter = limiter;
+        this.hedger = hedger;
+        this.batcher = batcher;
+        this.keyedQuery = batcher != null ? KeyedQuery.parse(rule.getParameters()) : null;
     }
 
     @Override
@@ -31,41 +68,91 @@ public class DatabaseRule extends BaseRule {
             .status(ExecutionStatus.SUCCESS)
             .build();
 
+        Deadline deadline = Deadline.from(context);
+        if (deadline != null && deadline.isExpired()) {
+            result.setStatus(ExecutionStatus.ERROR);
+            result.setErrorMessage("Deadline exceeded before calling the database");
+            return result;
+        }
+        if (limiter != null && !acquire(deadline)) {
+            result.setStatus(ExecutionStatus.ERROR);
+            result.setErrorMessage("Deadline exceeded waiting for the concurrency limit of " + limiter.getName());
+            return result;
+        }
+        long callStart = System.nanoTime();
         try {
             if (!StringUtils.hasText(rule.getRuleScript())) {
                 throw new IllegalArgumentException("SQL query is not specified");
             }
 
-            // Execute query with parameters
+            // Bind only the named parameters the statement uses; missing ones still fail as before
             MapSqlParameterSource params = new MapSqlParameterSource();
-            context.forEach(params::addValue);
+            RuleVariables variables = variableAnalyzer.analyze(rule);
+            if (variables.complete()) {
+                for (String name : variables.reads()) {
+                    if (context.containsKey(name)) {
+                        params.addValue(name, context.get(name));
+                    }
+                }
+            } else {
+                context.forEach(params::addValue);
+            }
 
             Object queryResult;
-            if (isSelectQuery(rule.getRuleScript())) {
-                queryResult = namedParameterJdbcTemplate.queryForObject(
+            if (keyedQuery != null && context.get(keyedQuery.key()) != null && isSelectQuery(rule.getRuleScript())) {
+                // The batch is hedged as a whole, so the query is not hedged again here
+                queryResult = await(batcher.submit(lookup(context)), deadline);
+            } else if (isSelectQuery(rule.getRuleScript())) {
+                // Only reads are idempotent, so only they are hedged
+                Callable<Object> query = CallTimeout.bound(deadline, () -> namedParameterJdbcTemplate.queryForObject(
                     rule.getRuleScript(),
                     params,
                     Object.class
-                );
+                ));
+                queryResult = hedger != null ? hedger.call(query) : query.call();
             } else {
-                queryResult = namedParameterJdbcTemplate.update(
+                queryResult = CallTimeout.bound(deadline, () -> namedParameterJdbcTemplate.update(
                     rule.getRuleScript(),
                     params
-                );
+                )).call();
             }
 
             result.setResult(queryResult);
+            if (limiter != null) {
+                limiter.onSuccess(System.nanoTime() - callStart);
+            }
 
         } catch (Exception e) {
             log.error("Error executing database rule: {}", rule.getName(), e);
             result.setStatus(ExecutionStatus.ERROR);
             result.setErrorMessage(e.getMessage());
+            if (limiter != null) {
+                // Query timeouts and lock or connection failures signal load; bad SQL does not
+                if (e instanceof TransientDataAccessException) {
+                    limiter.onDropped();
+                } else {
+                    limiter.onIgnored();
+                }
+            }
         }
 
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
 
+    /**
+     * Waits for a permit until the deadline, so capacity alone never fails the rule before the request
+     * runs out of time.
+     */
+    private boolean acquire(Deadline deadline) {
+        try {
+            return limiter.acquire(deadline != null ? deadline.remainingNanos() : Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     @Override
     public boolean validateInput(Map<String, Object> context) {
         if (context == null) {
@@ -84,7 +171,55 @@ public class DatabaseRule extends BaseRule {
         return "DATABASE";
     }
 
+    private KeyedQuery.Lookup lookup(Map<String, Object> context) {
+        Map<String, Object> parameters = new HashMap<>();
+        for (String name : keyedQuery.parameters()) {
+            parameters.put(name, context.get(name));
+        }
+        return new KeyedQuery.Lookup(keyedQuery, Collections.unmodifiableMap(parameters), context.get(keyedQuery.key()));
+    }
+
+    private static Object await(CompletableFuture<Object> result, Deadline deadline) throws Exception {
+        try {
+            return deadline != null ? result.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS) : result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Deadline exceeded waiting for the batched query");
+        }
+    }
+
     private boolean isSelectQuery(String sql) {
         return sql.trim().toLowerCase().startsWith("select");
     }
-} 
\ No newline at end of file
+
+    /**
+     * Gives each statement the timeout of the current call, so the driver cancels a slow query at the
+     * deadline instead of holding the thread and the connection.
+     */
+    private static class DeadlineJdbcTemplate extends JdbcTemplate {
+
+        DeadlineJdbcTemplate(JdbcTemplate template) {
+            super(template.getDataSource());
+            setExceptionTranslator(template.getExceptionTranslator());
+            setFetchSize(template.getFetchSize());
+            setMaxRows(template.getMaxRows());
+            setQueryTimeout(template.getQueryTimeout());
+        }
+
+        @Override
+        protected void applyStatementSettings(Statement stmt) throws SQLException {
+            super.applyStatementSettings(stmt);
+            int timeout = CallTimeout.seconds();
+            if (timeout > 0 && (stmt.getQueryTimeout() == 0 || timeout < stmt.getQueryTimeout())) {
+                stmt.setQueryTimeout(timeout);
+            }
+        }
+    }
+}
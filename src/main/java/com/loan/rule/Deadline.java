@@ -0,0 +1,68 @@
+package com.loan.rule;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a request must have its answer. It is set where the request enters the
+ * service and travels inside the rule context under {@link #CONTEXT_KEY}, like the request scope,
+ * so every rule can see how much of the budget is left and skip work that cannot finish in time.
+ */
+public final class Deadline {
+
+    public static final String CONTEXT_KEY = "__deadline";
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Converts a wall-clock deadline sent by another system, such as a Kafka producer.
+     */
+    public static Deadline atEpochMillis(long epochMillis) {
+        return after(Duration.ofMillis(epochMillis - System.currentTimeMillis()));
+    }
+
+    /**
+     * The deadline of the request the context belongs to, or null if it has none.
+     */
+    public static Deadline from(Map<String, Object> context) {
+        return context != null && context.get(CONTEXT_KEY) instanceof Deadline deadline ? deadline : null;
+    }
+
+    public long remainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return The timeout, shortened to what is left of the deadline
+     */
+    public long capMillis(long timeoutMs) {
+        return Math.min(timeoutMs, remainingMillis());
+    }
+
+    @Override
+    public String toString() {
+        // Contexts are logged and persisted; keep this short
+        return "Deadline[remaining=" + remainingMillis() + "ms]";
+    }
+}
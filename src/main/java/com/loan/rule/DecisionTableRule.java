@@ -0,0 +1,60 @@
+package com.loan.rule;
+
+import com.loan.domain.Rule;
+import com.loan.domain.ExecutionStatus;
+import com.loan.model.RuleResult;
+import com.loan.rule.table.DecisionTableCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * Rule backed by a decision table stored as JSON in the rule script,
+ * see {@link com.loan.rule.table.DecisionTableDefinition}.
+ */
+@Slf4j
+public class DecisionTableRule extends BaseRule {
+    private final DecisionTableCache decisionTableCache;
+
+    public DecisionTableRule(Rule rule, DecisionTableCache decisionTableCache) {
+        super(rule);
+        this.decisionTableCache = decisionTableCache;
+    }
+
+    @Override
+    public RuleResult execute(Map<String, Object> context) {
+        long startTime = System.currentTimeMillis();
+        RuleResult result = RuleResult.builder()
+            .ruleId(rule.getId())
+            .ruleName(rule.getName())
+            .status(ExecutionStatus.SUCCESS)
+            .build();
+
+        try {
+            if (!StringUtils.hasText(rule.getRuleScript())) {
+                throw new IllegalArgumentException("Decision table is empty");
+            }
+
+            result.setResult(decisionTableCache.get(rule).evaluate(context));
+
+        } catch (Exception e) {
+            log.error("Error executing decision table rule: {}", rule.getName(), e);
+            result.setStatus(ExecutionStatus.ERROR);
+            result.setErrorMessage(e.getMessage());
+        }
+
+        result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    @Override
+    public boolean validateInput(Map<String, Object> context) {
+        return context != null && StringUtils.hasText(rule.getRuleScript());
+    }
+
+    @Override
+    public String getRuleType() {
+        return "DECISION_TABLE";
+    }
+}
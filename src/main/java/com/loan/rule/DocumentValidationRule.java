@@ -15,7 +15,8 @@ import java.util.*;
 @RuleClass(
     name = "DocumentValidation",
     description = "Validates required documents for loan application",
-    timeout = 5000
+    timeout = 5000,
+    inputs = {"customerId", "loanPurpose", "documents"}
 )
 @RuleExecution(
     maxRetries = 3,
@@ -25,7 +26,7 @@ import java.util.*;
     fallbackEnabled = true,
     fallbackMethod = "fallbackCheck"
 )
-public class DocumentValidationRule extends BaseRule {
+public class DocumentValidationRule implements StatelessRule {
 
     private static final Map<String, List<String>> REQUIRED_DOCUMENTS = Map.of(
         "PERSONAL", Arrays.asList("ID_CARD", "PROOF_OF_INCOME", "BANK_STATEMENT"),
@@ -35,11 +36,10 @@ public class DocumentValidationRule extends BaseRule {
     );
 
     public DocumentValidationRule() {
-        super();
     }
 
     @Override
-    public RuleResult execute(Map<String, Object> context) {
+    public RuleResult execute(Rule rule, Map<String, Object> context) {
         log.info("Executing document validation for customer: {}", context.get("customerId"));
 
         String loanPurpose = (String) context.get("loanPurpose");
@@ -81,13 +81,13 @@ public class DocumentValidationRule extends BaseRule {
     }
 
     @Override
-    public boolean validateInput(Map<String, Object> context) {
+    public boolean validateInput(Rule rule, Map<String, Object> context) {
         return context.containsKey("customerId") 
             && context.containsKey("loanPurpose")
             && context.containsKey("documents");
     }
 
-    public RuleResult fallbackCheck(Map<String, Object> context) {
+    public RuleResult fallbackCheck(Rule rule, Map<String, Object> context) {
         log.warn("Using fallback for document validation for customer: {}", context.get("customerId"));
         
         return RuleResult.builder()
@@ -5,11 +5,11 @@ import com.loan.domain.ExecutionStatus;
 import com.loan.model.RuleResult;
 import com.loan.rule.annotation.RuleClass;
 import com.loan.rule.annotation.RuleExecution;
+import com.loan.rule.plan.DerivedValue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Map;
 
 @Slf4j
@@ -17,7 +17,9 @@ import java.util.Map;
 @RuleClass(
     name = "IncomeVerification",
     description = "Verifies if customer's income meets loan requirements",
-    timeout = 5000
+    timeout = 5000,
+    derivedValues = {DerivedValue.MONTHLY_LOAN_PAYMENT, DerivedValue.TOTAL_MONTHLY_OBLIGATIONS, DerivedValue.DEBT_TO_INCOME_RATIO},
+    inputs = {"customerId", "monthlyIncome", "loanAmount", "loanTermMonths"}
 )
 @RuleExecution(
     maxRetries = 3,
@@ -27,22 +29,20 @@ import java.util.Map;
     fallbackEnabled = true,
     fallbackMethod = "fallbackCheck"
 )
-public class IncomeVerificationRule extends BaseRule {
+public class IncomeVerificationRule implements StatelessRule {
 
     private static final BigDecimal MIN_INCOME_MULTIPLIER = new BigDecimal("0.3");
     private static final BigDecimal MAX_DEBT_TO_INCOME_RATIO = new BigDecimal("0.43");
 
     public IncomeVerificationRule() {
-        super();
     }
 
     @Override
-    public RuleResult execute(Map<String, Object> context) {
+    public RuleResult execute(Rule rule, Map<String, Object> context) {
         log.info("Executing income verification for customer: {}", context.get("customerId"));
 
         BigDecimal monthlyIncome = (BigDecimal) context.get("monthlyIncome");
         BigDecimal loanAmount = (BigDecimal) context.get("loanAmount");
-        BigDecimal monthlyDebtPayments = (BigDecimal) context.get("monthlyDebtPayments");
         Integer loanTermMonths = (Integer) context.get("loanTermMonths");
 
         if (monthlyIncome == null || loanAmount == null || loanTermMonths == null) {
@@ -54,19 +54,10 @@ public class IncomeVerificationRule extends BaseRule {
                 .build();
         }
 
-        // Calculate monthly loan payment
-        BigDecimal monthlyLoanPayment = loanAmount
-            .divide(new BigDecimal(loanTermMonths), 2, RoundingMode.HALF_UP);
-
-        // Calculate total monthly obligations
-        BigDecimal totalMonthlyObligations = monthlyLoanPayment;
-        if (monthlyDebtPayments != null) {
-            totalMonthlyObligations = totalMonthlyObligations.add(monthlyDebtPayments);
-        }
-
-        // Calculate debt-to-income ratio
-        BigDecimal debtToIncomeRatio = totalMonthlyObligations
-            .divide(monthlyIncome, 4, RoundingMode.HALF_UP);
+        // Shared with other rules of the step
+        BigDecimal monthlyLoanPayment = DerivedValue.MONTHLY_LOAN_PAYMENT.get(context);
+        BigDecimal totalMonthlyObligations = DerivedValue.TOTAL_MONTHLY_OBLIGATIONS.get(context);
+        BigDecimal debtToIncomeRatio = DerivedValue.DEBT_TO_INCOME_RATIO.get(context);
 
         // Check minimum income requirement
         boolean meetsMinimumIncome = monthlyIncome
@@ -95,14 +86,14 @@ public class IncomeVerificationRule extends BaseRule {
     }
 
     @Override
-    public boolean validateInput(Map<String, Object> context) {
+    public boolean validateInput(Rule rule, Map<String, Object> context) {
         return context.containsKey("customerId") 
             && context.containsKey("monthlyIncome")
             && context.containsKey("loanAmount")
             && context.containsKey("loanTermMonths");
     }
 
-    public RuleResult fallbackCheck(Map<String, Object> context) {
+    public RuleResult fallbackCheck(Rule rule, Map<String, Object> context) {
         log.warn("Using fallback for income verification for customer: {}", context.get("customerId"));
         
         return RuleResult.builder()
@@ -2,17 +2,38 @@ package com.loan.rule;
 
 import com.loan.domain.Rule;
 import com.loan.repository.RuleRepository;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.batch.MicroBatcherRegistry;
+import com.loan.rule.resilience.AdaptiveLimiterRegistry;
+import com.loan.rule.resilience.HedgerRegistry;
+import com.loan.rule.script.ScriptExpressionCache;
+import com.loan.rule.table.DecisionTableCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContext;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RuleFactory {
     private final RuleRepository ruleRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final ScriptExpressionCache scriptExpressionCache;
+    private final DecisionTableCache decisionTableCache;
+    private final RuleVariableAnalyzer variableAnalyzer;
+    private final ApplicationContext applicationContext;
+    private final AdaptiveLimiterRegistry limiters;
+    private final HedgerRegistry hedgers;
+    private final MicroBatcherRegistry batchers;
+    // Composite rules resolve their sub-rules through the registry, which is itself built by this factory
+    private final ObjectProvider<RuleRegistry> ruleRegistry;
+    private final Map<Class<?>, StatelessRule> statelessRules = new ConcurrentHashMap<>();
 
     public BaseRule createRule(Rule rule) {
         try {
@@ -23,10 +44,14 @@ public class RuleFactory {
 
             // Otherwise, create based on rule type
             return switch (rule.getRuleType()) {
-                case "SCRIPT" -> new ScriptRule(rule);
-                case "API" -> new ApiRule(rule);
-                case "DATABASE" -> new DatabaseRule(rule, jdbcTemplate);
-                case "COMPOSITE" -> new CompositeRule(rule, ruleRepository, this);
+                case "SCRIPT" -> new ScriptRule(rule, scriptExpressionCache);
+                case "API" -> new ApiRule(rule, limiters != null ? limiters.forApi(rule.getRuleScript()) : null,
+                    hedgers != null ? hedgers.forApi(rule.getRuleScript()) : null);
+                case "DATABASE" -> new DatabaseRule(rule, jdbcTemplate, variableAnalyzer,
+                    limiters != null ? limiters.forDatabase() : null, hedgers != null ? hedgers.forDatabase() : null,
+                    batchers != null ? batchers.forDatabase() : null);
+                case "COMPOSITE" -> new CompositeRule(rule, ruleRepository, ruleRegistry.getObject());
+                case "DECISION_TABLE" -> new DecisionTableRule(rule, decisionTableCache);
                 default -> throw new IllegalArgumentException("Unsupported rule type: " + rule.getRuleType());
             };
         } catch (Exception e) {
@@ -38,17 +63,26 @@ public class RuleFactory {
     private BaseRule createRuleByClass(Rule rule) throws Exception {
         String ruleClass = rule.getRuleClass();
         Class<?> clazz = Class.forName(ruleClass);
-        
+
+        if (StatelessRule.class.isAssignableFrom(clazz)) {
+            return new StatelessRuleAdapter(rule, statelessRule(clazz.asSubclass(StatelessRule.class)));
+        }
         if (!BaseRule.class.isAssignableFrom(clazz)) {
-            throw new IllegalArgumentException("Rule class must extend BaseRule");
+            throw new IllegalArgumentException("Rule class must extend BaseRule or implement StatelessRule");
         }
 
         BaseRule ruleInstance;
         // Handle special cases for rule types that need additional dependencies
-        if (DatabaseRule.class.isAssignableFrom(clazz)) {
-            ruleInstance = new DatabaseRule(rule, jdbcTemplate);
+        if (ScriptRule.class.isAssignableFrom(clazz)) {
+            ruleInstance = new ScriptRule(rule, scriptExpressionCache);
+        } else if (DatabaseRule.class.isAssignableFrom(clazz)) {
+            ruleInstance = new DatabaseRule(rule, jdbcTemplate, variableAnalyzer,
+                limiters != null ? limiters.forDatabase() : null, hedgers != null ? hedgers.forDatabase() : null,
+                batchers != null ? batchers.forDatabase() : null);
         } else if (CompositeRule.class.isAssignableFrom(clazz)) {
-            ruleInstance = new CompositeRule(rule, ruleRepository, this);
+            ruleInstance = new CompositeRule(rule, ruleRepository, ruleRegistry.getObject());
+        } else if (DecisionTableRule.class.isAssignableFrom(clazz)) {
+            ruleInstance = new DecisionTableRule(rule, decisionTableCache);
         } else {
             // For other rule types, use default constructor
             ruleInstance = (BaseRule) clazz.getConstructor().newInstance();
@@ -57,4 +91,17 @@ public class RuleFactory {
 
         return ruleInstance;
     }
-} 
\ No newline at end of file
+
+    private StatelessRule statelessRule(Class<? extends StatelessRule> clazz) throws Exception {
+        // One shared instance per class: the Spring bean if there is one
+        StatelessRule instance = statelessRules.get(clazz);
+        if (instance == null) {
+            StatelessRule bean = applicationContext != null
+                ? applicationContext.getBeanProvider(clazz).getIfAvailable() : null;
+            instance = bean != null ? bean : clazz.getConstructor().newInstance();
+            StatelessRule existing = statelessRules.putIfAbsent(clazz, instance);
+            instance = existing != null ? existing : instance;
+        }
+        return instance;
+    }
+}
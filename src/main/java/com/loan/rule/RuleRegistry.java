@@ -0,0 +1,172 @@
+package com.loan.rule;
+
+import com.loan.domain.Rule;
+import com.loan.repository.RuleRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable snapshot of ready-to-run rule instances, keyed by rule id and version, so executing a rule
+ * is a map lookup instead of a {@link RuleFactory} call.
+ * <p>
+ * The version of a rule is its definition: a caller holding a {@link Rule} whose columns differ from
+ * the registered ones gets a fresh instance, which then replaces the old one. The snapshot is built
+ * from the repository on startup and on every refresh, and always swapped as a whole.
+ */
+@Slf4j
+@Component
+public class RuleRegistry implements MeterBinder {
+
+    private final RuleRepository ruleRepository;
+    private final RuleFactory ruleFactory;
+    private final AtomicReference<Map<Long, RegisteredRule>> snapshot = new AtomicReference<>(Map.of());
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RuleRegistry(RuleRepository ruleRepository, RuleFactory ruleFactory) {
+        this.ruleRepository = ruleRepository;
+        this.ruleFactory = ruleFactory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${rule-engine.rule-registry.refresh-interval:PT5M}",
+        fixedDelayString = "${rule-engine.rule-registry.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the registry from the repository. Instances of unchanged rules are kept; rules that
+     * cannot be instantiated are left out and fail on use exactly as they did with the factory.
+     */
+    public void refresh() {
+        Map<Long, RegisteredRule> current = snapshot.get();
+        Map<Long, RegisteredRule> next = new HashMap<>();
+        try {
+            for (Rule rule : ruleRepository.findAll()) {
+                RegisteredRule registered = current.get(rule.getId());
+                if (registered == null || !registered.definition().equals(rule)) {
+                    registered = register(rule);
+                }
+                if (registered != null) {
+                    next.put(rule.getId(), registered);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not reload rule registry, keeping {} registered rules", current.size(), e);
+            return;
+        }
+        snapshot.set(Map.copyOf(next));
+        log.info("Rule registry loaded {} rules", next.size());
+    }
+
+    /**
+     * Returns the instance registered for this version of the rule, creating and registering it if
+     * the rule is new or has changed since the registry was built.
+     */
+    public BaseRule get(Rule rule) {
+        if (rule.getId() == null) {
+            return ruleFactory.createRule(rule);
+        }
+        RegisteredRule registered = snapshot.get().get(rule.getId());
+        if (registered != null && registered.definition().equals(rule)) {
+            hits.increment();
+            return registered.instance();
+        }
+        misses.increment();
+        RegisteredRule created = register(rule);
+        if (created == null) {
+            // Let the factory report the failure to the caller
+            return ruleFactory.createRule(rule);
+        }
+        snapshot.updateAndGet(map -> {
+            Map<Long, RegisteredRule> next = new HashMap<>(map);
+            next.put(rule.getId(), created);
+            return Map.copyOf(next);
+        });
+        return created.instance();
+    }
+
+    /**
+     * Returns the registered instance of a rule by id, for callers such as {@link CompositeRule} that
+     * only hold a reference to it.
+     */
+    public Optional<BaseRule> get(Long ruleId) {
+        RegisteredRule registered = snapshot.get().get(ruleId);
+        if (registered == null) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(registered.instance());
+    }
+
+    public int size() {
+        return snapshot.get().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rule.registry.hits", hits, LongAdder::sum)
+            .description("Rule executions served by a registered rule instance")
+            .register(registry);
+        FunctionCounter.builder("rule.registry.misses", misses, LongAdder::sum)
+            .description("Rule executions that had to create an instance for a new or changed rule")
+            .register(registry);
+        Gauge.builder("rule.registry.size", this, RuleRegistry::size)
+            .description("Rule instances currently registered")
+            .register(registry);
+    }
+
+    private RegisteredRule register(Rule rule) {
+        // Instances keep a private copy, so later changes to the caller's entity do not leak into them
+        Rule definition = copyOf(rule);
+        try {
+            return new RegisteredRule(definition, ruleFactory.createRule(definition));
+        } catch (Exception e) {
+            log.warn("Rule {} could not be registered: {}", rule.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static Rule copyOf(Rule rule) {
+        return Rule.builder()
+            .id(rule.getId())
+            .name(rule.getName())
+            .description(rule.getDescription())
+            .productCode(rule.getProductCode())
+            .workflowStep(rule.getWorkflowStep())
+            .ruleType(rule.getRuleType())
+            .ruleClass(rule.getRuleClass())
+            .ruleScript(rule.getRuleScript())
+            .inputType(rule.getInputType())
+            .outputType(rule.getOutputType())
+            .executionOrder(rule.getExecutionOrder())
+            .active(rule.isActive())
+            .errorThreshold(rule.getErrorThreshold())
+            .retryCount(rule.getRetryCount())
+            .retryDelayMs(rule.getRetryDelayMs())
+            .priority(rule.getPriority())
+            .parameters(rule.getParameters())
+            .build();
+    }
+
+    private record RegisteredRule(Rule definition, BaseRule instance) {
+    }
+}
@@ -3,21 +3,21 @@ package com.loan.rule;
 import com.loan.domain.Rule;
 import com.loan.domain.ExecutionStatus;
 import com.loan.model.RuleResult;
+import com.loan.rule.plan.RequestScope;
+import com.loan.rule.script.ScriptExpression;
+import com.loan.rule.script.ScriptExpressionCache;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.StringUtils;
 
 import java.util.Map;
 
 @Slf4j
 public class ScriptRule extends BaseRule {
-    private final ExpressionParser expressionParser = new SpelExpressionParser();
+    private final ScriptExpressionCache expressionCache;
 
-    public ScriptRule(Rule rule) {
+    public ScriptRule(Rule rule, ScriptExpressionCache expressionCache) {
         super(rule);
+        this.expressionCache = expressionCache;
     }
 
     @Override
@@ -34,11 +34,11 @@ public class ScriptRule extends BaseRule {
                 throw new IllegalArgumentException("Rule script is empty");
             }
 
-            Expression expression = expressionParser.parseExpression(rule.getRuleScript());
-            StandardEvaluationContext evalContext = new StandardEvaluationContext();
-            context.forEach(evalContext::setVariable);
-            
-            Object ruleResult = expression.getValue(evalContext);
+            ScriptExpression expression = expressionCache.get(rule);
+            RequestScope scope = RequestScope.from(context);
+            Object ruleResult = scope != null
+                ? scope.evaluate(rule, expression, context)
+                : expression.getValue(context);
             result.setResult(ruleResult);
 
         } catch (Exception e) {
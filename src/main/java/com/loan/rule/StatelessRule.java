@@ -0,0 +1,38 @@
+package com.loan.rule;
+
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+
+import java.util.Map;
+
+/**
+ * Execution contract for rules that keep no per-rule or per-request state, so a single instance,
+ * typically a Spring singleton, can serve every rule definition that names its class on any thread.
+ * The definition being executed is passed in alongside the context.
+ * <p>
+ * {@link StatelessRuleAdapter} binds an instance to one definition wherever a {@link BaseRule} is expected.
+ */
+public interface StatelessRule {
+
+    /**
+     * Execute the rule logic
+     * @param rule The rule definition being executed
+     * @param context The context containing input data
+     * @return RuleResult containing the execution result
+     */
+    RuleResult execute(Rule rule, Map<String, Object> context);
+
+    /**
+     * Validate the input data
+     * @param rule The rule definition being executed
+     * @param context The context containing input data
+     * @return true if input is valid, false otherwise
+     */
+    boolean validateInput(Rule rule, Map<String, Object> context);
+
+    /**
+     * Get the rule type
+     * @return The rule type
+     */
+    String getRuleType();
+}
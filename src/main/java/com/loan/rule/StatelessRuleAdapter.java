@@ -0,0 +1,43 @@
+package com.loan.rule;
+
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+
+import java.util.Map;
+
+/**
+ * Presents a shared {@link StatelessRule} bound to one rule definition as a {@link BaseRule}, so
+ * migrated rules run through the registry and composite rules without any per-request object.
+ */
+public class StatelessRuleAdapter extends BaseRule {
+    private final StatelessRule delegate;
+
+    public StatelessRuleAdapter(Rule rule, StatelessRule delegate) {
+        super(rule);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public RuleResult execute(Map<String, Object> context) {
+        return delegate.execute(rule, context);
+    }
+
+    @Override
+    public boolean validateInput(Map<String, Object> context) {
+        return delegate.validateInput(rule, context);
+    }
+
+    @Override
+    public String getRuleType() {
+        return delegate.getRuleType();
+    }
+
+    public StatelessRule getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void setRule(Rule rule) {
+        throw new UnsupportedOperationException("Adapters are bound to a single rule definition");
+    }
+}
@@ -0,0 +1,277 @@
+package com.loan.rule.analysis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.domain.Rule;
+import com.loan.rule.ApiRule;
+import com.loan.rule.CompositeRule;
+import com.loan.rule.DatabaseRule;
+import com.loan.rule.DecisionTableRule;
+import com.loan.rule.ScriptRule;
+import com.loan.rule.annotation.RuleClass;
+import com.loan.rule.annotation.RuleClasses;
+import com.loan.rule.plan.DerivedValue;
+import com.loan.rule.script.ExpressionNode;
+import com.loan.rule.script.ExpressionNode.Binary;
+import com.loan.rule.script.ExpressionNode.Conditional;
+import com.loan.rule.script.ExpressionNode.Unary;
+import com.loan.rule.script.ExpressionNode.Variable;
+import com.loan.rule.script.RuleExpressionCompiler;
+import com.loan.rule.script.UnsupportedExpressionException;
+import com.loan.rule.table.DecisionTableCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Determines which context keys a rule reads and writes without running it.
+ * <ul>
+ *   <li>SCRIPT: the variables of the expression, from the native compiler's syntax tree or, for
+ *   scripts outside its subset, from the SpEL syntax tree</li>
+ *   <li>DATABASE: the named parameters of the SQL statement</li>
+ *   <li>DECISION_TABLE: the input columns</li>
+ *   <li>API: the {@code headers} and {@code body} entries</li>
+ *   <li>Java rules: {@link RuleClass#inputs()}, the inputs of their {@link RuleClass#derivedValues()}
+ *   and {@link RuleClass#dependsOn()}</li>
+ * </ul>
+ * A rule writes only its result, which the workflow publishes under the rule's name.
+ * Results are cached by rule id and definition, so an edited rule is analyzed again on next use.
+ */
+@Slf4j
+@Component
+public class RuleVariableAnalyzer {
+
+    private static final int MAX_CACHED_RULES = 1024;
+    private static final Set<String> SPEL_ROOT_REFERENCES = Set.of("root", "this");
+
+    private final DecisionTableCache decisionTableCache;
+    private final ObjectMapper objectMapper;
+    private final SpelExpressionParser spelParser = new SpelExpressionParser();
+    private final ConcurrentMap<AnalysisKey, RuleVariables> cache = new ConcurrentHashMap<>();
+
+    public RuleVariableAnalyzer(DecisionTableCache decisionTableCache, ObjectMapper objectMapper) {
+        this.decisionTableCache = decisionTableCache;
+        this.objectMapper = objectMapper;
+    }
+
+    public RuleVariables analyze(Rule rule) {
+        AnalysisKey key = new AnalysisKey(rule.getId(), rule.getName(), rule.getRuleType(), rule.getRuleClass(),
+            rule.getRuleScript(), rule.getInputType());
+        RuleVariables variables = cache.get(key);
+        if (variables == null) {
+            if (cache.size() >= MAX_CACHED_RULES) {
+                Iterator<AnalysisKey> iterator = cache.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+            }
+            variables = cache.computeIfAbsent(key, k -> compute(rule));
+        }
+        return variables;
+    }
+
+    /**
+     * For each rule, the names of the other given rules whose results it reads. Rules that do not
+     * depend on each other, directly or transitively, can run concurrently.
+     */
+    public Map<String, Set<String>> inferDependencies(List<Rule> rules) {
+        Map<String, RuleVariables> variables = new LinkedHashMap<>();
+        rules.forEach(rule -> variables.put(rule.getName(), analyze(rule)));
+
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        variables.forEach((name, reader) -> {
+            Set<String> ruleDependencies = new LinkedHashSet<>();
+            variables.forEach((other, writer) -> {
+                if (!other.equals(name) && reader.dependsOn(writer)) {
+                    ruleDependencies.add(other);
+                }
+            });
+            dependencies.put(name, ruleDependencies);
+        });
+        return dependencies;
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private RuleVariables compute(Rule rule) {
+        Set<String> reads = new LinkedHashSet<>();
+        Set<String> writes = new LinkedHashSet<>();
+        writes.add(rule.getName());
+        boolean complete;
+
+        Class<?> ruleClass = RuleClasses.resolve(rule.getRuleClass());
+        String type = ruleClass != null ? builtInType(ruleClass) : rule.getRuleType();
+        try {
+            complete = switch (type != null ? type : "") {
+                case "SCRIPT" -> scriptReads(rule.getRuleScript(), reads);
+                case "DATABASE" -> sqlReads(rule.getRuleScript(), reads);
+                case "DECISION_TABLE" -> {
+                    reads.addAll(decisionTableCache.get(rule).getInputs());
+                    yield true;
+                }
+                case "API" -> {
+                    reads.addAll(List.of("headers", "body"));
+                    yield true;
+                }
+                // A rule_class that does not resolve leaves only the declared inputs to go by
+                case "JAVA" -> ruleClass != null && javaReads(ruleClass, reads);
+                default -> false;
+            };
+        } catch (RuntimeException e) {
+            log.warn("Could not analyze variables of rule {}: {}", rule.getName(), e.getMessage());
+            complete = false;
+        }
+        if (!complete) {
+            // The declared input_type, e.g. {"customerId": "string"}, is the best remaining hint
+            reads.addAll(declaredInputs(rule.getInputType()));
+        }
+        return new RuleVariables(reads, writes, complete);
+    }
+
+    private static String builtInType(Class<?> ruleClass) {
+        if (ScriptRule.class.isAssignableFrom(ruleClass)) {
+            return "SCRIPT";
+        }
+        if (DatabaseRule.class.isAssignableFrom(ruleClass)) {
+            return "DATABASE";
+        }
+        if (DecisionTableRule.class.isAssignableFrom(ruleClass)) {
+            return "DECISION_TABLE";
+        }
+        if (ApiRule.class.isAssignableFrom(ruleClass)) {
+            return "API";
+        }
+        if (CompositeRule.class.isAssignableFrom(ruleClass)) {
+            return "COMPOSITE";
+        }
+        return "JAVA";
+    }
+
+    private boolean scriptReads(String script, Set<String> reads) {
+        if (!StringUtils.hasText(script)) {
+            return true;
+        }
+        try {
+            collectVariables(RuleExpressionCompiler.analyze(script), reads);
+            return true;
+        } catch (UnsupportedExpressionException e) {
+            // Outside the native subset; the SpEL tree still names every root-level property
+        }
+        try {
+            return collectSpelReads(((SpelExpression) spelParser.parseExpression(script)).getAST(), reads);
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    private static void collectVariables(ExpressionNode node, Set<String> reads) {
+        if (node instanceof Variable variable) {
+            reads.add(variable.name());
+        } else if (node instanceof Unary unary) {
+            collectVariables(unary.operand(), reads);
+        } else if (node instanceof Binary binary) {
+            collectVariables(binary.left(), reads);
+            collectVariables(binary.right(), reads);
+        } else if (node instanceof Conditional conditional) {
+            collectVariables(conditional.condition(), reads);
+            collectVariables(conditional.whenTrue(), reads);
+            collectVariables(conditional.whenFalse(), reads);
+        }
+    }
+
+    /**
+     * Collects the properties and variables resolved against the context. Names inside selections
+     * and projections are collected too, which can only over-approximate. Returns false if the
+     * script references the whole context through {@code #root} or {@code #this}.
+     */
+    private static boolean collectSpelReads(SpelNode node, Set<String> reads) {
+        if (node instanceof PropertyOrFieldReference property) {
+            reads.add(property.getName());
+            return true;
+        }
+        if (node instanceof VariableReference) {
+            String name = node.toStringAST().substring(1);
+            if (SPEL_ROOT_REFERENCES.contains(name)) {
+                return false;
+            }
+            reads.add(name);
+            return true;
+        }
+        boolean complete = true;
+        for (int i = 0; i < node.getChildCount(); i++) {
+            SpelNode child = node.getChild(i);
+            if (node instanceof CompoundExpression && i > 0 && child instanceof PropertyOrFieldReference) {
+                // a.b reads b from a, not from the context
+                continue;
+            }
+            complete &= collectSpelReads(child, reads);
+        }
+        return complete;
+    }
+
+    private static boolean sqlReads(String sql, Set<String> reads) {
+        if (!StringUtils.hasText(sql)) {
+            return true;
+        }
+        // Same parser NamedParameterJdbcTemplate uses, so quoted text and comments are skipped alike
+        List<SqlParameter> parameters = NamedParameterUtils.buildSqlParameterList(
+            NamedParameterUtils.parseSqlStatement(sql), EmptySqlParameterSource.INSTANCE);
+        parameters.forEach(parameter -> reads.add(parameter.getName()));
+        return true;
+    }
+
+    private static boolean javaReads(Class<?> ruleClass, Set<String> reads) {
+        RuleClass annotation = ruleClass.getAnnotation(RuleClass.class);
+        if (annotation == null) {
+            return false;
+        }
+        reads.addAll(Arrays.asList(annotation.inputs()));
+        for (DerivedValue value : annotation.derivedValues()) {
+            reads.addAll(value.getInputs());
+        }
+        reads.addAll(Arrays.asList(annotation.dependsOn()));
+        return annotation.inputs().length > 0;
+    }
+
+    private Set<String> declaredInputs(String inputType) {
+        Set<String> inputs = new LinkedHashSet<>();
+        if (!StringUtils.hasText(inputType)) {
+            return inputs;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(inputType);
+            if (node.isObject()) {
+                node.fieldNames().forEachRemaining(inputs::add);
+            }
+        } catch (JsonProcessingException e) {
+            log.debug("input_type is not a JSON object: {}", inputType);
+        }
+        return inputs;
+    }
+
+    private record AnalysisKey(Long id, String name, String ruleType, String ruleClass, String script,
+                               String inputType) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.loan.rule.analysis;
+
+import java.util.Set;
+
+/**
+ * Context keys a rule reads and writes. Every rule writes its own name, under which the workflow
+ * stores its result. {@code complete} is false when the reads could not be fully determined, for
+ * example for a Java rule without declared inputs; {@code reads} then lists only what is known.
+ */
+public record RuleVariables(
+    Set<String> reads,
+    Set<String> writes,
+    boolean complete
+) {
+
+    public RuleVariables {
+        reads = Set.copyOf(reads);
+        writes = Set.copyOf(writes);
+    }
+
+    /**
+     * Whether this rule reads anything the other rule writes.
+     */
+    public boolean dependsOn(RuleVariables other) {
+        for (String name : other.writes) {
+            if (reads.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 package com.loan.rule.annotation;
 
+import com.loan.rule.plan.DerivedValue;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -14,4 +16,8 @@ public @interface RuleClass {
     boolean parallel() default true;
     String[] dependsOn() default {};
     int timeout() default 5000; // milliseconds
+    DerivedValue[] derivedValues() default {}; // computed once per step when several rules use them
+    String[] inputs() default {}; // context keys read; empty means undeclared
+    String executor() default ""; // RuleExecutorStrategy name such as "cpu", "io" or "virtual"; empty uses configuration
+    String bulkhead() default ""; // external endpoint bulkhead shared with other rules calling it; empty uses configuration
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.loan.rule.annotation;
+
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Resolves the {@code rule_class} column, which holds either a fully qualified class name or the
+ * simple name of a class in {@code com.loan.rule}.
+ */
+public final class RuleClasses {
+
+    private static final String DEFAULT_PACKAGE = "com.loan.rule.";
+
+    private RuleClasses() {
+    }
+
+    /**
+     * @return The class, or null if the column is empty or names no loadable class
+     */
+    public static Class<?> resolve(String ruleClass) {
+        if (!StringUtils.hasText(ruleClass)) {
+            return null;
+        }
+        for (String name : List.of(ruleClass, DEFAULT_PACKAGE + ruleClass)) {
+            try {
+                return Class.forName(name);
+            } catch (ClassNotFoundException e) {
+                // try the next form
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The {@link RuleClass} annotation of the resolved class, or null
+     */
+    public static RuleClass annotation(String ruleClass) {
+        Class<?> clazz = resolve(ruleClass);
+        return clazz != null ? clazz.getAnnotation(RuleClass.class) : null;
+    }
+}
@@ -10,8 +10,13 @@ import java.lang.annotation.Target;
 public @interface RuleExecution {
     int maxRetries() default 0;
     long retryDelay() default 1000; // milliseconds
-    int circuitBreakerThreshold() default 5;
-    long circuitBreakerResetTimeout() default 60000; // milliseconds
+    int circuitBreakerThreshold() default 5; // calls in the window before rates are evaluated
+    long circuitBreakerResetTimeout() default 60000; // milliseconds open before half-open probing
+    int circuitBreakerWindow() default 20; // most recent calls the rates are computed over
+    int failureRateThreshold() default 50; // percent
+    int slowCallRateThreshold() default 100; // percent
+    long slowCallDuration() default 5000; // milliseconds
+    int halfOpenProbes() default 3;
     boolean fallbackEnabled() default false;
     String fallbackMethod() default "";
 } 
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.loan.rule.batch;
+
+import com.loan.rule.resilience.Hedger;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Sends the lookups of DATABASE rules that declare a {@link KeyedQuery} as one {@code IN (:keys)}
+ * statement per rule and fans the rows back out by key. Each rule query runs once per batch, whatever
+ * the number of keys.
+ * <p>
+ * Keys are matched by their text, since the driver may return a key column of another type than the
+ * one bound. A key without a row resolves to the declared missing value or fails with
+ * {@link EmptyResultDataAccessException}; a key with several rows fails as the single query would.
+ */
+class DatabaseBulkLoader implements MicroBatcher.BulkLoader<KeyedQuery.Lookup, Object> {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Hedger hedger;
+
+    DatabaseBulkLoader(NamedParameterJdbcTemplate jdbcTemplate, Hedger hedger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hedger = hedger;
+    }
+
+    @Override
+    public Map<KeyedQuery.Lookup, Object> load(List<KeyedQuery.Lookup> lookups) throws Exception {
+        Callable<Map<KeyedQuery.Lookup, Object>> call = () -> loadAll(lookups);
+        return hedger != null ? hedger.call(call) : call.call();
+    }
+
+    private Map<KeyedQuery.Lookup, Object> loadAll(List<KeyedQuery.Lookup> lookups)
+        throws MicroBatcher.PartialLoadException {
+        // Lookups of one rule with the same other parameters share a statement; a batch usually holds one
+        Map<Statement, List<KeyedQuery.Lookup>> statements = new LinkedHashMap<>();
+        for (KeyedQuery.Lookup lookup : lookups) {
+            statements.computeIfAbsent(new Statement(lookup.query(), lookup.parameters()), s -> new ArrayList<>())
+                .add(lookup);
+        }
+        Map<KeyedQuery.Lookup, Object> values = new HashMap<>();
+        Map<KeyedQuery.Lookup, Exception> failures = new HashMap<>();
+        statements.forEach((statement, keyed) -> {
+            Set<Object> keys = new LinkedHashSet<>();
+            keyed.forEach(lookup -> keys.add(lookup.key()));
+            MapSqlParameterSource params = new MapSqlParameterSource(statement.parameters())
+                .addValue(KeyedQuery.KEYS, new ArrayList<>(keys));
+            Map<String, List<Object>> rows = new HashMap<>();
+            jdbcTemplate.query(statement.query().sql(), params, rs -> {
+                rows.computeIfAbsent(String.valueOf(rs.getObject(1)), k -> new ArrayList<>()).add(rs.getObject(2));
+            });
+            for (KeyedQuery.Lookup lookup : keyed) {
+                List<Object> found = rows.get(String.valueOf(lookup.key()));
+                if (found == null && statement.query().hasMissing()) {
+                    values.put(lookup, statement.query().missing());
+                } else if (found == null) {
+                    failures.put(lookup, new EmptyResultDataAccessException(1));
+                } else if (found.size() > 1) {
+                    failures.put(lookup, new IncorrectResultSizeDataAccessException(1, found.size()));
+                } else {
+                    values.put(lookup, found.get(0));
+                }
+            }
+        });
+        if (!failures.isEmpty()) {
+            throw new MicroBatcher.PartialLoadException(values, failures);
+        }
+        return values;
+    }
+
+    private record Statement(KeyedQuery query, Map<String, Object> parameters) {
+    }
+}
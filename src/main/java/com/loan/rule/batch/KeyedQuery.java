@@ -0,0 +1,78 @@
+package com.loan.rule.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The keyed bulk form a DATABASE rule declares in its {@code parameters} to have its lookups batched
+ * across requests, for example for the blacklist check:
+ * <pre>
+ * {"batch": {"sql": "SELECT customer_id, COUNT(*) FROM blacklist WHERE customer_id IN (:keys)
+ *                    AND status = 'ACTIVE' GROUP BY customer_id",
+ *            "key": "customerId", "missing": 0}}
+ * </pre>
+ * The statement is sent once for all keys bound to {@code :keys} and returns the key, then the value,
+ * for each key that has a row. A key without a row gets {@code missing} if it is declared, and
+ * otherwise fails as the rule's own query would on an empty result.
+ *
+ * @param key The rule parameter whose values are collected into {@code :keys}
+ * @param parameters The other named parameters of the statement, which lookups must share to be sent together
+ */
+public record KeyedQuery(String sql, String key, Set<String> parameters, boolean hasMissing, Object missing) {
+
+    public static final String KEYS = "keys";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * One rule lookup: the key plus the values of the statement's other parameters.
+     */
+    public record Lookup(KeyedQuery query, Map<String, Object> parameters, Object key) {
+    }
+
+    /**
+     * @return The bulk form declared in the rule's parameters, or null if it declares none
+     * @throws IllegalArgumentException if the declared form has no statement, no key or no {@code :keys}
+     */
+    public static KeyedQuery parse(String ruleParameters) {
+        if (!StringUtils.hasText(ruleParameters)) {
+            return null;
+        }
+        JsonNode batch;
+        try {
+            batch = OBJECT_MAPPER.readTree(ruleParameters).get("batch");
+        } catch (JsonProcessingException e) {
+            // Parameters that are not JSON cannot opt in
+            return null;
+        }
+        if (batch == null || batch.isNull()) {
+            return null;
+        }
+        String sql = batch.path("sql").asText(null);
+        String key = batch.path("key").asText(null);
+        if (!StringUtils.hasText(sql) || !StringUtils.hasText(key)) {
+            throw new IllegalArgumentException("Batch form needs both sql and key");
+        }
+        Set<String> parameters = new LinkedHashSet<>();
+        List<SqlParameter> declared = NamedParameterUtils.buildSqlParameterList(
+            NamedParameterUtils.parseSqlStatement(sql), EmptySqlParameterSource.INSTANCE);
+        declared.forEach(parameter -> parameters.add(parameter.getName()));
+        if (!parameters.remove(KEYS)) {
+            throw new IllegalArgumentException("Batch sql must bind the keys to :" + KEYS);
+        }
+        boolean hasMissing = batch.has("missing");
+        Object missing = hasMissing ? OBJECT_MAPPER.convertValue(batch.get("missing"), Object.class) : null;
+        return new KeyedQuery(sql, key, Collections.unmodifiableSet(parameters), hasMissing, missing);
+    }
+}
@@ -0,0 +1,218 @@
+package com.loan.rule.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects lookups of one dependency made by concurrent requests and sends them as a single bulk call.
+ * <p>
+ * The first lookup opens a batch, which is sent once it holds {@code maxBatchSize} distinct keys (by the
+ * caller that filled it) or when the window has passed (on the flush executor), whichever comes first.
+ * Lookups of a key already waiting share its result. If a bulk call of several keys fails, every key is
+ * retried on its own, in parallel on the flush executor, so one bad lookup neither fails nor delays the
+ * others.
+ *
+ * @param <K> Lookup key; must implement equals and hashCode
+ */
+@Slf4j
+public final class MicroBatcher<K, V> {
+
+    /**
+     * Loads the values of several keys in one call. Keys missing from the returned map resolve to null.
+     */
+    @FunctionalInterface
+    public interface BulkLoader<K, V> {
+        /**
+         * @throws PartialLoadException if the call succeeded but some keys failed on their own
+         */
+        Map<K, V> load(List<K> keys) throws Exception;
+    }
+
+    /**
+     * Thrown by a {@link BulkLoader} whose call answered every key, some of them with a failure. Those
+     * keys fail with their own exception; the others get their values without being loaded again.
+     */
+    public static final class PartialLoadException extends Exception {
+        private final transient Map<?, ?> values;
+        private final transient Map<?, ? extends Exception> failures;
+
+        public PartialLoadException(Map<?, ?> values, Map<?, ? extends Exception> failures) {
+            super(failures.size() + " keys failed");
+            this.values = values;
+            this.failures = failures;
+        }
+    }
+
+    public record Config(long windowNanos, int maxBatchSize) {
+    }
+
+    private final String name;
+    private final Config config;
+    private final BulkLoader<K, V> loader;
+    private final ScheduledExecutorService timer;
+    private final Executor flushExecutor;
+
+    // Guarded by this; replaced, never cleared, so a timer can tell whether its batch was already sent
+    private Map<K, CompletableFuture<V>> pending;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    public MicroBatcher(String name, Config config, BulkLoader<K, V> loader, ScheduledExecutorService timer,
+                        Executor flushExecutor) {
+        this.name = name;
+        this.config = config;
+        this.loader = loader;
+        this.timer = timer;
+        this.flushExecutor = flushExecutor;
+    }
+
+    public CompletableFuture<V> submit(K key) {
+        lookups.increment();
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> result;
+        synchronized (this) {
+            if (pending == null) {
+                Map<K, CompletableFuture<V>> opened = new LinkedHashMap<>();
+                pending = opened;
+                timer.schedule(() -> {
+                    try {
+                        flushExecutor.execute(() -> flushIfPending(opened));
+                    } catch (RejectedExecutionException e) {
+                        // The timer thread must not run the bulk call itself
+                        failIfPending(opened, e);
+                    }
+                }, config.windowNanos(), TimeUnit.NANOSECONDS);
+            }
+            result = pending.get(key);
+            if (result != null) {
+                deduplicated.increment();
+                return result;
+            }
+            result = new CompletableFuture<>();
+            pending.put(key, result);
+            if (pending.size() >= config.maxBatchSize()) {
+                full = pending;
+                pending = null;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getBatchedKeys() {
+        return batchedKeys.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    private void flushIfPending(Map<K, CompletableFuture<V>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                // Already sent because it filled up
+                return;
+            }
+            pending = null;
+        }
+        send(batch);
+    }
+
+    private void failIfPending(Map<K, CompletableFuture<V>> batch, RejectedExecutionException e) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        failedBatches.increment();
+        log.warn("Flush of {} keys on {} was rejected: {}", batch.size(), name, e.getMessage());
+        batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+
+    private void loadOne(K key, CompletableFuture<V> future) {
+        try {
+            future.complete(loader.load(List.of(key)).get(key));
+        } catch (PartialLoadException e) {
+            complete(future, key, e);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } catch (Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void complete(CompletableFuture<V> future, K key, PartialLoadException loaded) {
+        Exception failure = loaded.failures.get(key);
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            @SuppressWarnings("unchecked")
+            V value = (V) loaded.values.get(key);
+            future.complete(value);
+        }
+    }
+
+    private void send(Map<K, CompletableFuture<V>> batch) {
+        batches.increment();
+        batchedKeys.add(batch.size());
+        List<K> keys = List.copyOf(batch.keySet());
+        try {
+            Map<K, V> values = loader.load(keys);
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (PartialLoadException e) {
+            batch.forEach((key, future) -> complete(future, key, e));
+        } catch (Exception e) {
+            failedBatches.increment();
+            if (keys.size() == 1) {
+                batch.values().forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            log.warn("Bulk lookup of {} keys on {} failed, retrying them one by one: {}", keys.size(), name,
+                e.getMessage());
+            batch.forEach((key, future) -> {
+                try {
+                    flushExecutor.execute(() -> loadOne(key, future));
+                } catch (RejectedExecutionException rejected) {
+                    // No thread for the retry; the key fails as its batch did
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Error e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.loan.rule.batch;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.rule.resilience.HedgerRegistry;
+import com.loan.rule.resilience.OutboundDependency;
+import com.loan.service.executor.IoExecutorStrategy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Builds a {@link MicroBatcher} for every dependency opted in under
+ * {@code rule-engine.micro-batch.dependencies}, keyed as in {@link OutboundDependency}. Batches whose
+ * window ends before they fill up are sent on the elastic I/O pool.
+ */
+@Component
+public class MicroBatcherRegistry implements MeterBinder {
+
+    private final RuleEngineProperties.MicroBatch properties;
+    private final IoExecutorStrategy ioExecutor;
+    private final ScheduledExecutorService timer;
+    private final ConcurrentMap<String, MicroBatcher<?, ?>> batchers = new ConcurrentHashMap<>();
+    private final MicroBatcher<KeyedQuery.Lookup, Object> database;
+    private volatile MeterRegistry meterRegistry;
+
+    public MicroBatcherRegistry(RuleEngineProperties properties, JdbcTemplate jdbcTemplate, HedgerRegistry hedgers,
+                                IoExecutorStrategy ioExecutor) {
+        this.properties = properties.getMicroBatch();
+        this.ioExecutor = ioExecutor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("rule-batch-"));
+        this.database = create(OutboundDependency.DATABASE,
+            new DatabaseBulkLoader(jdbcTemplate != null ? new NamedParameterJdbcTemplate(jdbcTemplate) : null,
+                hedgers != null ? hedgers.forDatabase() : null));
+    }
+
+    /**
+     * @return The batcher for DATABASE rules that declare a {@link KeyedQuery}, or null if the database is not opted in
+     */
+    public MicroBatcher<KeyedQuery.Lookup, Object> forDatabase() {
+        return database;
+    }
+
+    /**
+     * @return A batcher sending lookups of the dependency through the loader, or null if it is not opted in
+     */
+    public <K, V> MicroBatcher<K, V> create(String dependency, MicroBatcher.BulkLoader<K, V> loader) {
+        Duration window = properties.isEnabled() ? properties.getDependencies().get(dependency) : null;
+        if (window == null) {
+            return null;
+        }
+        MicroBatcher<K, V> batcher = new MicroBatcher<>(dependency,
+            new MicroBatcher.Config(window.toNanos(), Math.max(1, properties.getMaxBatchSize())),
+            loader, timer, ioExecutor.getExecutor());
+        batchers.put(dependency, batcher);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            bind(batcher, registry);
+        }
+        return batcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        batchers.values().forEach(batcher -> bind(batcher, registry));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdown();
+    }
+
+    private static void bind(MicroBatcher<?, ?> batcher, MeterRegistry registry) {
+        FunctionCounter.builder("rule.batch.lookups", batcher, MicroBatcher::getLookups)
+            .description("Lookups submitted for batching")
+            .tag("dependency", batcher.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.batch.deduplicated", batcher, MicroBatcher::getDeduplicated)
+            .description("Lookups that shared the result of an identical lookup already waiting")
+            .tag("dependency", batcher.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.batch.calls", batcher, MicroBatcher::getBatches)
+            .description("Bulk calls sent to the dependency")
+            .tag("dependency", batcher.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.batch.keys", batcher, MicroBatcher::getBatchedKeys)
+            .description("Distinct keys sent in bulk calls; divided by calls, the mean batch size")
+            .tag("dependency", batcher.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.batch.failed", batcher, MicroBatcher::getFailedBatches)
+            .description("Bulk calls that failed; those of several keys are retried key by key")
+            .tag("dependency", batcher.getName())
+            .register(registry);
+    }
+}
@@ -0,0 +1,14 @@
+package com.loan.rule.fallback;
+
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+
+import java.util.Map;
+
+/**
+ * A {@link com.loan.rule.annotation.RuleExecution#fallbackMethod()} bound to its rule bean.
+ */
+@FunctionalInterface
+public interface FallbackInvoker {
+    RuleResult invoke(Rule rule, Map<String, Object> context);
+}
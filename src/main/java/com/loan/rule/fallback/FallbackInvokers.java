@@ -0,0 +1,186 @@
+package com.loan.rule.fallback;
+
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.annotation.RuleExecution;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves the fallback method of every {@link RuleExecution} rule bean once, at startup, and binds it
+ * into a {@link FallbackInvoker} generated with {@link LambdaMetafactory}, so an open circuit costs an
+ * interface call rather than a reflective lookup.
+ * <p>
+ * A fallback method is public, returns {@link RuleResult} and takes either {@code (Rule, Map)} or
+ * just {@code (Map)}. Beans whose fallback does not match fail startup. Fallback latency is exported
+ * as the {@code rule.fallback.duration} timer, tagged by rule class, apart from normal executions.
+ */
+@Slf4j
+@Component
+public class FallbackInvokers implements MeterBinder {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final ConcurrentMap<Class<?>, Timed> invokers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public FallbackInvokers(List<StatelessRule> ruleBeans) {
+        List<String> problems = new ArrayList<>();
+        for (StatelessRule bean : ruleBeans) {
+            try {
+                Timed invoker = bind(bean);
+                if (invoker != null) {
+                    invokers.put(ClassUtils.getUserClass(bean), invoker);
+                }
+            } catch (IllegalStateException e) {
+                problems.add(e.getMessage());
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid rule fallback methods: " + String.join("; ", problems));
+        }
+        log.info("Bound fallback methods for {} rule classes", invokers.size());
+    }
+
+    /**
+     * @return The bound fallback of the bean's class, or null if it declares none
+     */
+    public FallbackInvoker get(StatelessRule bean) {
+        Class<?> beanClass = ClassUtils.getUserClass(bean);
+        Timed invoker = invokers.get(beanClass);
+        if (invoker == null && !invokers.containsKey(beanClass)) {
+            // Rule instances that are not beans are bound on first use
+            invoker = bind(bean);
+            if (invoker != null) {
+                Timed existing = invokers.putIfAbsent(beanClass, invoker);
+                if (existing != null) {
+                    return existing;
+                }
+                register(invoker);
+            }
+        }
+        return invoker;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        invokers.values().forEach(this::register);
+    }
+
+    private void register(Timed invoker) {
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            FunctionTimer.builder("rule.fallback.duration", invoker,
+                    timed -> timed.count.sum(), timed -> timed.totalNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent in rule fallback methods")
+                .tag("ruleClass", invoker.ruleClass)
+                .register(registry);
+        }
+    }
+
+    private static Timed bind(StatelessRule bean) {
+        Class<?> beanClass = ClassUtils.getUserClass(bean);
+        RuleExecution execution = beanClass.getAnnotation(RuleExecution.class);
+        if (execution == null || !execution.fallbackEnabled()) {
+            return null;
+        }
+        String name = execution.fallbackMethod();
+        if (!StringUtils.hasText(name)) {
+            throw new IllegalStateException(beanClass.getSimpleName() + " enables a fallback without naming its method");
+        }
+        Method method = findFallback(beanClass, name);
+        try {
+            FallbackInvoker invoker;
+            MethodHandle target = LOOKUP.unreflect(method);
+            if (method.getParameterCount() == 2) {
+                invoker = (FallbackInvoker) lambda(FallbackInvoker.class, beanClass, target).invoke(bean);
+            } else {
+                ContextFallback fallback = (ContextFallback) lambda(ContextFallback.class, beanClass, target).invoke(bean);
+                invoker = (rule, context) -> fallback.invoke(context);
+            }
+            return new Timed(beanClass.getSimpleName(), invoker);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind " + beanClass.getSimpleName() + "." + name + ": " + e.getMessage());
+        }
+    }
+
+    private static Method findFallback(Class<?> beanClass, String name) {
+        for (Class<?>[] parameters : List.of(new Class<?>[]{Rule.class, Map.class}, new Class<?>[]{Map.class})) {
+            try {
+                Method method = beanClass.getMethod(name, parameters);
+                if (!RuleResult.class.isAssignableFrom(method.getReturnType()) || Modifier.isStatic(method.getModifiers())) {
+                    throw new IllegalStateException(beanClass.getSimpleName() + "." + name
+                        + " must be an instance method returning RuleResult");
+                }
+                return method;
+            } catch (NoSuchMethodException e) {
+                // try the next signature
+            }
+        }
+        throw new IllegalStateException(beanClass.getSimpleName() + " has no public method " + name
+            + "(Rule, Map) or " + name + "(Map)");
+    }
+
+    private static MethodHandle lambda(Class<?> functionalInterface, Class<?> beanClass, MethodHandle target)
+        throws Exception {
+        Method sam = functionalInterface.getMethods()[0];
+        MethodType samType = MethodType.methodType(sam.getReturnType(), sam.getParameterTypes());
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, sam.getName(),
+            MethodType.methodType(functionalInterface, beanClass), samType,
+            target, target.type().dropParameterTypes(0, 1));
+        return site.getTarget();
+    }
+
+    @FunctionalInterface
+    private interface ContextFallback {
+        RuleResult invoke(Map<String, Object> context);
+    }
+
+    /**
+     * Records the duration of every call, including failed ones.
+     */
+    private static final class Timed implements FallbackInvoker {
+        private final String ruleClass;
+        private final FallbackInvoker delegate;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private Timed(String ruleClass, FallbackInvoker delegate) {
+            this.ruleClass = ruleClass;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public RuleResult invoke(Rule rule, Map<String, Object> context) {
+            long start = System.nanoTime();
+            try {
+                return delegate.invoke(rule, context);
+            } finally {
+                count.increment();
+                totalNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.loan.rule.math;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Exact decimal arithmetic on scaled longs, used where rules would otherwise allocate a BigDecimal
+ * per intermediate step or comparison.
+ * <p>
+ * SCRIPT rule operators compare and divide through this class, which avoids widening integer
+ * operands to BigDecimal. The Java rules keep plain BigDecimal: on compact (at most 18 digit) values
+ * BigDecimal already works on a scaled long internally and C2 removes the intermediate objects, so
+ * {@code CreditLimitBenchmark}, which keeps scaled-long versions of their formulas, shows no gain there.
+ * <p>
+ * A value is an unscaled long and a scale, exactly as in {@link BigDecimal}, so every result has
+ * the same unscaled value and scale as the BigDecimal computation it replaces and
+ * {@link BigDecimal#equals} holds between them. Operands with more than 18 digits or a scale
+ * outside 0..{@value #MAX_SCALE}, and intermediate results that would overflow a long, are detected
+ * up front and the computation is done with BigDecimal instead, so the answer (or exception, such
+ * as division by zero) is always BigDecimal's.
+ */
+public final class FixedPoint {
+
+    public static final int MAX_SCALE = 18;
+
+    private static final int MAX_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    /**
+     * Returned instead of a quotient that cannot be computed on longs; never a real result, since
+     * every quotient stays below 10^18 in magnitude.
+     */
+    private static final long OVERFLOW = Long.MIN_VALUE;
+
+    // Rounding modes implemented here; the rules use no others
+    private static final Set<RoundingMode> ROUNDING_MODES =
+        EnumSet.of(RoundingMode.HALF_UP, RoundingMode.HALF_EVEN, RoundingMode.DOWN);
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Whether the value is within the fast path: at most 18 digits and a scale of 0..{@value #MAX_SCALE}.
+     */
+    public static boolean fits(BigDecimal value) {
+        return value.scale() >= 0 && value.scale() <= MAX_SCALE && value.precision() <= MAX_DIGITS;
+    }
+
+    /**
+     * {@code a.compareTo(BigDecimal.valueOf(b))} without creating the BigDecimal.
+     */
+    public static int compare(BigDecimal a, long b) {
+        if (fits(a)) {
+            return compare(unscaled(a), a.scale(), b, 0);
+        }
+        return a.compareTo(BigDecimal.valueOf(b));
+    }
+
+    /**
+     * {@code dividend.divide(divisor, scale, roundingMode)}.
+     */
+    public static BigDecimal divide(BigDecimal dividend, BigDecimal divisor, int scale, RoundingMode roundingMode) {
+        if (fits(dividend) && fits(divisor) && divisor.signum() != 0) {
+            long quotient = divide(unscaled(dividend), dividend.precision(), dividend.scale(),
+                unscaled(divisor), divisor.precision(), divisor.scale(), scale, roundingMode);
+            if (quotient != OVERFLOW) {
+                return BigDecimal.valueOf(quotient, scale);
+            }
+        }
+        return dividend.divide(divisor, scale, roundingMode);
+    }
+
+    // ---- scaled long primitives, for operands that fit ----
+
+    private static long unscaled(BigDecimal value) {
+        return value.scale() == 0 ? value.longValue() : value.scaleByPowerOfTen(value.scale()).longValue();
+    }
+
+    private static int compare(long a, int aScale, long b, int bScale) {
+        if (aScale == bScale) {
+            return Long.compare(a, b);
+        }
+        if (aScale < bScale) {
+            return compareShifted(a, bScale - aScale, b);
+        }
+        return -compareShifted(b, aScale - bScale, a);
+    }
+
+    /**
+     * Compares {@code value × 10^shift} with {@code other}.
+     */
+    private static int compareShifted(long value, int shift, long other) {
+        long power = POWERS_OF_TEN[shift];
+        long high = Math.multiplyHigh(value, power);
+        long shifted = value * power;
+        if (high != (shifted >> 63)) {
+            // Beyond the long range, so beyond other as well
+            return Long.signum(value);
+        }
+        return Long.compare(shifted, other);
+    }
+
+    /**
+     * The quotient unscaled to {@code scale}, or {@link #OVERFLOW} if an intermediate value would not fit.
+     */
+    private static long divide(long a, int aDigits, int aScale, long b, int bDigits, int bScale,
+                               int scale, RoundingMode roundingMode) {
+        int exponent = scale + bScale - aScale;
+        if (!ROUNDING_MODES.contains(roundingMode) || scale < 0 || exponent > MAX_SCALE || -exponent > MAX_SCALE
+            || (exponent >= 0 ? aDigits + exponent : bDigits - exponent) > MAX_DIGITS) {
+            return OVERFLOW;
+        }
+        long numerator = exponent >= 0 ? a * POWERS_OF_TEN[exponent] : a;
+        long denominator = exponent >= 0 ? b : b * POWERS_OF_TEN[-exponent];
+
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // Compare the discarded fraction with one half; all magnitudes are below 10^18
+        long absRemainder = Math.abs(remainder);
+        long rest = Math.abs(denominator) - absRemainder;
+        boolean roundAway = switch (roundingMode) {
+            case HALF_UP -> absRemainder >= rest;
+            case HALF_EVEN -> absRemainder > rest || (absRemainder == rest && (quotient & 1) != 0);
+            default -> false;
+        };
+        if (!roundAway) {
+            return quotient;
+        }
+        return (numerator < 0) == (denominator < 0) ? quotient + 1 : quotient - 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.loan.rule.plan;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values derived from the loan request that several rules need. Within a workflow step each one is
+ * computed once per request and shared through the {@link RequestScope}; outside a step it is
+ * simply computed.
+ */
+public enum DerivedValue {
+
+    /**
+     * {@code loanAmount / loanTermMonths}, rounded half-up to 2 decimals.
+     */
+    MONTHLY_LOAN_PAYMENT("monthlyLoanPayment", "loanAmount", "loanTermMonths") {
+        @Override
+        BigDecimal compute(Map<String, Object> context) {
+            BigDecimal loanAmount = (BigDecimal) context.get("loanAmount");
+            Integer loanTermMonths = (Integer) context.get("loanTermMonths");
+            return loanAmount.divide(new BigDecimal(loanTermMonths), 2, RoundingMode.HALF_UP);
+        }
+    },
+
+    /**
+     * The monthly loan payment plus {@code monthlyDebtPayments}, when present.
+     */
+    TOTAL_MONTHLY_OBLIGATIONS("totalMonthlyObligations", "loanAmount", "loanTermMonths", "monthlyDebtPayments") {
+        @Override
+        BigDecimal compute(Map<String, Object> context) {
+            BigDecimal monthlyDebtPayments = (BigDecimal) context.get("monthlyDebtPayments");
+            BigDecimal monthlyLoanPayment = MONTHLY_LOAN_PAYMENT.get(context);
+            return monthlyDebtPayments != null ? monthlyLoanPayment.add(monthlyDebtPayments) : monthlyLoanPayment;
+        }
+    },
+
+    /**
+     * Total monthly obligations over {@code monthlyIncome}, rounded half-up to 4 decimals.
+     */
+    DEBT_TO_INCOME_RATIO("debtToIncomeRatio", "loanAmount", "loanTermMonths", "monthlyDebtPayments", "monthlyIncome") {
+        @Override
+        BigDecimal compute(Map<String, Object> context) {
+            BigDecimal monthlyIncome = (BigDecimal) context.get("monthlyIncome");
+            return TOTAL_MONTHLY_OBLIGATIONS.get(context).divide(monthlyIncome, 4, RoundingMode.HALF_UP);
+        }
+    };
+
+    private final String key;
+    private final List<String> inputs;
+
+    DerivedValue(String key, String... inputs) {
+        this.key = key;
+        this.inputs = List.of(inputs);
+    }
+
+    /**
+     * The name the value is reported under in rule results.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Context keys the computation reads, including those of the values it builds on.
+     */
+    public List<String> getInputs() {
+        return inputs;
+    }
+
+    public BigDecimal get(Map<String, Object> context) {
+        RequestScope scope = RequestScope.from(context);
+        return scope != null ? scope.derive(this, context) : compute(context);
+    }
+
+    abstract BigDecimal compute(Map<String, Object> context);
+}
@@ -0,0 +1,96 @@
+package com.loan.rule.plan;
+
+import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the plan built for each workflow step's rule set, shared by the step planner and
+ * the parallel executor.
+ * <p>
+ * A step's plan is kept while the step is given the rules it was built from. The workflow cache hands
+ * out the same rule instances until the definition changes, so a hit costs one reference comparison
+ * per rule; rules loaded afresh are compared by content and an edited rule set replaces the plan.
+ * Rule sets run without a step are keyed by their content. When full, the least recently used plan
+ * is evicted.
+ */
+public final class PlanCache<P> {
+
+    private static final int MAX_CACHED_PLANS = 256;
+
+    private final int maxPlans;
+    private final ConcurrentMap<Key, Entry<P>> plans = new ConcurrentHashMap<>();
+
+    public PlanCache() {
+        this(MAX_CACHED_PLANS);
+    }
+
+    public PlanCache(int maxPlans) {
+        this.maxPlans = maxPlans;
+    }
+
+    /**
+     * @param planner Builds the plan when the step has none for these rules
+     */
+    public P get(WorkflowStep step, List<Rule> rules, Function<List<Rule>, P> planner) {
+        Key key = step != null && step.getId() != null ? new Key(step.getId(), null) : new Key(null, List.copyOf(rules));
+        Entry<P> entry = plans.get(key);
+        if (entry != null && entry.builtFrom(rules)) {
+            entry.lastUsed = System.nanoTime();
+            return entry.plan;
+        }
+        P plan = planner.apply(rules);
+        if (entry == null && plans.size() >= maxPlans) {
+            evictLeastRecentlyUsed();
+        }
+        plans.put(key, new Entry<>(List.copyOf(rules), plan));
+        return plan;
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<Key, Entry<P>> eldest = null;
+        for (Map.Entry<Key, Entry<P>> candidate : plans.entrySet()) {
+            if (eldest == null || candidate.getValue().lastUsed < eldest.getValue().lastUsed) {
+                eldest = candidate;
+            }
+        }
+        if (eldest != null) {
+            plans.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private record Key(Long stepId, List<Rule> rules) {
+    }
+
+    private static final class Entry<P> {
+        private final List<Rule> rules;
+        private final P plan;
+        private volatile long lastUsed = System.nanoTime();
+
+        Entry(List<Rule> rules, P plan) {
+            this.rules = rules;
+            this.plan = plan;
+        }
+
+        boolean builtFrom(List<Rule> candidate) {
+            if (candidate.size() != rules.size()) {
+                return false;
+            }
+            for (int i = 0; i < rules.size(); i++) {
+                if (candidate.get(i) != rules.get(i) && !candidate.get(i).equals(rules.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
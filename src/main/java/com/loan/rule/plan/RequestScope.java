@@ -0,0 +1,128 @@
+package com.loan.rule.plan;
+
+import com.loan.domain.Rule;
+import com.loan.rule.Deadline;
+import com.loan.rule.script.CompiledRuleExpression;
+import com.loan.rule.script.FallbackException;
+import com.loan.rule.script.MapEvaluationContext;
+import com.loan.rule.script.ScriptExpression;
+import com.loan.rule.script.SubExpressionMemo;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * State shared by all rules evaluated for one request within one workflow step: the memo of shared
+ * SCRIPT sub-expressions, the derived values already computed and the read-only SpEL context over
+ * the request map.
+ * <p>
+ * The scope travels inside the rule context under {@link #CONTEXT_KEY}, so it reaches rules through
+ * every existing execution path without changing signatures. Closing the scope removes it from the
+ * context and reports its counters to the {@link StepPlanner}.
+ */
+public final class RequestScope implements AutoCloseable {
+
+    public static final String CONTEXT_KEY = "__requestScope";
+
+    private final StepPlan plan;
+    private final StepPlanner planner;
+    private final Map<String, Object> context;
+    private final SubExpressionMemo memo;
+    private final MapEvaluationContext evaluationContext;
+    private final AtomicReferenceArray<BigDecimal> derivedValues =
+        new AtomicReferenceArray<>(DerivedValue.values().length);
+    private final AtomicInteger derivedComputed = new AtomicInteger();
+    private final AtomicInteger derivedReused = new AtomicInteger();
+
+    RequestScope(StepPlan plan, StepPlanner planner, Map<String, Object> context) {
+        this.plan = plan;
+        this.planner = planner;
+        this.context = context;
+        this.memo = new SubExpressionMemo(plan.getSharedSubExpressionCount());
+        this.evaluationContext = new MapEvaluationContext(context);
+    }
+
+    /**
+     * The scope of the step currently executing, or null outside a planned step.
+     */
+    public static RequestScope from(Map<String, Object> context) {
+        return context != null && context.get(CONTEXT_KEY) instanceof RequestScope scope ? scope : null;
+    }
+
+    /**
+     * Evaluates a SCRIPT rule, reusing sub-expressions already computed by other rules of the step.
+     * Falls back to the rule's regular expression when the script is not part of the plan.
+     */
+    public Object evaluate(Rule rule, ScriptExpression expression, Map<String, Object> ruleContext) {
+        CompiledRuleExpression planned = plan.getPlannedScript(rule);
+        if (planned != null) {
+            try {
+                return planned.evaluate(ruleContext, memo);
+            } catch (FallbackException e) {
+                // Same contract as the unplanned native path: SpEL has the final say
+            }
+        }
+        return expression.getValue(evaluationContextFor(ruleContext));
+    }
+
+    /**
+     * The request's shared context when the rule reads the request map itself, as sequential steps do.
+     * Parallel rules each get their own input map and so their own context.
+     */
+    MapEvaluationContext evaluationContextFor(Map<String, Object> ruleContext) {
+        return ruleContext == context ? evaluationContext : new MapEvaluationContext(ruleContext);
+    }
+
+    BigDecimal derive(DerivedValue value, Map<String, Object> ruleContext) {
+        BigDecimal cached = derivedValues.get(value.ordinal());
+        if (cached != null) {
+            derivedReused.incrementAndGet();
+            return cached;
+        }
+        BigDecimal computed = value.compute(ruleContext);
+        derivedValues.compareAndSet(value.ordinal(), null, computed);
+        derivedComputed.incrementAndGet();
+        return computed;
+    }
+
+    /**
+     * The deadline of the request, or null if it has none.
+     */
+    public Deadline getDeadline() {
+        return Deadline.from(context);
+    }
+
+    public StepPlan getPlan() {
+        return plan;
+    }
+
+    public int getSubExpressionsReused() {
+        return memo.getReused();
+    }
+
+    public int getSubExpressionsComputed() {
+        return memo.getComputed();
+    }
+
+    public int getDerivedValuesReused() {
+        return derivedReused.get();
+    }
+
+    public int getDerivedValuesComputed() {
+        return derivedComputed.get();
+    }
+
+    @Override
+    public void close() {
+        context.remove(CONTEXT_KEY, this);
+        planner.record(this);
+    }
+
+    @Override
+    public String toString() {
+        // Contexts are logged and persisted; keep the scope out of them
+        return "RequestScope[" + plan.getStepCode() + "]";
+    }
+}
@@ -0,0 +1,27 @@
+package com.loan.rule.plan;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator view for auditing how sequential steps order their rules: {@code /actuator/ruleorder}
+ * lists the order each step last used and the statistics it was chosen from.
+ */
+@Component
+@Endpoint(id = "ruleorder")
+public class RuleOrderEndpoint {
+
+    private final RuleOrderOptimizer optimizer;
+
+    public RuleOrderEndpoint(RuleOrderOptimizer optimizer) {
+        this.optimizer = optimizer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> ruleOrder() {
+        return Map.of("steps", optimizer.getLastOrders(), "rules", optimizer.getStatistics());
+    }
+}
@@ -0,0 +1,72 @@
+package com.loan.rule.plan;
+
+import com.loan.domain.Rule;
+import com.loan.rule.script.CompiledRuleExpression;
+import com.loan.rule.script.ExpressionNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluation plan of one workflow step: the sub-expressions its SCRIPT rules have in common, the
+ * derived values its Java rules share, and the SCRIPT rules recompiled to read shared values from
+ * the request's memo. Built once per step version by {@link StepPlanner} and immutable afterwards.
+ */
+public final class StepPlan {
+
+    private final String stepCode;
+    private final List<ExpressionNode> sharedSubExpressions;
+    private final Map<DerivedValue, Integer> sharedDerivedValues;
+    private final Map<Long, PlannedScript> plannedScripts;
+    private final int expectedSavings;
+
+    StepPlan(String stepCode, List<ExpressionNode> sharedSubExpressions, Map<DerivedValue, Integer> sharedDerivedValues,
+             Map<Long, PlannedScript> plannedScripts, int expectedSavings) {
+        this.stepCode = stepCode;
+        this.sharedSubExpressions = sharedSubExpressions;
+        this.sharedDerivedValues = sharedDerivedValues;
+        this.plannedScripts = plannedScripts;
+        this.expectedSavings = expectedSavings;
+    }
+
+    /**
+     * The planned form of a SCRIPT rule, or null if the rule shares nothing or its script changed
+     * since the plan was built.
+     */
+    public CompiledRuleExpression getPlannedScript(Rule rule) {
+        PlannedScript planned = rule.getId() != null ? plannedScripts.get(rule.getId()) : null;
+        return planned != null && planned.script().equals(rule.getRuleScript()) ? planned.expression() : null;
+    }
+
+    public String getStepCode() {
+        return stepCode;
+    }
+
+    /**
+     * Shared sub-expressions, indexed by their memo id.
+     */
+    public List<ExpressionNode> getSharedSubExpressions() {
+        return sharedSubExpressions;
+    }
+
+    public int getSharedSubExpressionCount() {
+        return sharedSubExpressions.size();
+    }
+
+    /**
+     * Derived values used by more than one rule of the step, with the number of rules using each.
+     */
+    public Map<DerivedValue, Integer> getSharedDerivedValues() {
+        return sharedDerivedValues;
+    }
+
+    /**
+     * Evaluations one request saves when every rule of the step runs.
+     */
+    public int getExpectedSavings() {
+        return expectedSavings;
+    }
+
+    record PlannedScript(String script, CompiledRuleExpression expression) {
+    }
+}
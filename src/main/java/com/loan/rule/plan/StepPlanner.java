@@ -0,0 +1,199 @@
+package com.loan.rule.plan;
+
+import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
+import com.loan.rule.annotation.RuleClass;
+import com.loan.rule.annotation.RuleClasses;
+import com.loan.rule.script.ExpressionNode;
+import com.loan.rule.script.ExpressionNode.Binary;
+import com.loan.rule.script.ExpressionNode.Conditional;
+import com.loan.rule.script.ExpressionNode.Unary;
+import com.loan.rule.script.ExpressionNode.Variable;
+import com.loan.rule.script.RuleExpressionCompiler;
+import com.loan.rule.script.UnsupportedExpressionException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds and caches a {@link StepPlan} per workflow step and opens the {@link RequestScope} that
+ * carries it through one execution of the step.
+ * <p>
+ * A sub-expression is shared when it occurs at least twice across the step's SCRIPT rules outside
+ * any larger shared sub-expression, and it reads no context entry the step itself writes (rule
+ * results are stored under rule names, so such values may change between rules). A derived value
+ * is shared when more than one Java rule lists it in {@link RuleClass#derivedValues()}.
+ */
+@Slf4j
+@Component
+public class StepPlanner implements MeterBinder {
+
+    private final PlanCache<StepPlan> plans = new PlanCache<>();
+    private final LongAdder subExpressionsComputed = new LongAdder();
+    private final LongAdder subExpressionsReused = new LongAdder();
+    private final LongAdder derivedValuesComputed = new LongAdder();
+    private final LongAdder derivedValuesReused = new LongAdder();
+
+    /**
+     * Plans the step if needed and registers a new scope in the context. Close the scope when the
+     * step is done.
+     */
+    public RequestScope open(WorkflowStep step, List<Rule> rules, Map<String, Object> context) {
+        RequestScope scope = new RequestScope(planFor(step, rules), this, context);
+        context.put(RequestScope.CONTEXT_KEY, scope);
+        return scope;
+    }
+
+    public StepPlan planFor(WorkflowStep step, List<Rule> rules) {
+        return plans.get(step, rules, stepRules -> build(step.getStepCode(), stepRules));
+    }
+
+    void record(RequestScope scope) {
+        subExpressionsComputed.add(scope.getSubExpressionsComputed());
+        subExpressionsReused.add(scope.getSubExpressionsReused());
+        derivedValuesComputed.add(scope.getDerivedValuesComputed());
+        derivedValuesReused.add(scope.getDerivedValuesReused());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rule.plan.subexpressions.computed", subExpressionsComputed, LongAdder::sum)
+            .description("Shared SCRIPT sub-expressions evaluated")
+            .register(registry);
+        FunctionCounter.builder("rule.plan.subexpressions.reused", subExpressionsReused, LongAdder::sum)
+            .description("SCRIPT sub-expression evaluations saved by reusing a value computed for another rule")
+            .register(registry);
+        FunctionCounter.builder("rule.plan.derived.computed", derivedValuesComputed, LongAdder::sum)
+            .description("Derived values computed")
+            .register(registry);
+        FunctionCounter.builder("rule.plan.derived.reused", derivedValuesReused, LongAdder::sum)
+            .description("Derived value computations saved by reusing a value computed for another rule")
+            .register(registry);
+        Gauge.builder("rule.plan.cache.size", plans, PlanCache::size)
+            .description("Workflow step plans currently cached")
+            .register(registry);
+    }
+
+    private StepPlan build(String stepCode, List<Rule> rules) {
+        Set<String> written = new HashSet<>();
+        rules.forEach(rule -> written.add(rule.getName()));
+
+        Map<Rule, ExpressionNode> scripts = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            if (isScriptRule(rule) && rule.getId() != null) {
+                try {
+                    scripts.put(rule, RuleExpressionCompiler.analyze(rule.getRuleScript()));
+                } catch (UnsupportedExpressionException e) {
+                    log.debug("Rule {} is not planned: {}", rule.getName(), e.getMessage());
+                }
+            }
+        }
+
+        // All occurrences first, then only those not already covered by a larger shared node
+        Map<ExpressionNode, Integer> occurrences = new HashMap<>();
+        scripts.values().forEach(ast -> countOccurrences(ast, written, occurrences));
+        Map<ExpressionNode, Integer> topLevel = new LinkedHashMap<>();
+        scripts.values().forEach(ast -> countTopLevel(ast, occurrences, topLevel));
+
+        Map<ExpressionNode, Integer> sharedIds = new LinkedHashMap<>();
+        int expectedSavings = 0;
+        for (Map.Entry<ExpressionNode, Integer> entry : topLevel.entrySet()) {
+            if (entry.getValue() > 1) {
+                sharedIds.put(entry.getKey(), sharedIds.size());
+                expectedSavings += entry.getValue() - 1;
+            }
+        }
+
+        Map<Long, StepPlan.PlannedScript> plannedScripts = new HashMap<>();
+        for (Map.Entry<Rule, ExpressionNode> entry : scripts.entrySet()) {
+            if (containsAny(entry.getValue(), sharedIds.keySet())) {
+                Rule rule = entry.getKey();
+                plannedScripts.put(rule.getId(), new StepPlan.PlannedScript(rule.getRuleScript(),
+                    RuleExpressionCompiler.compile(rule.getRuleScript(), sharedIds)));
+            }
+        }
+
+        Map<DerivedValue, Integer> derivedUsers = new EnumMap<>(DerivedValue.class);
+        for (Rule rule : rules) {
+            RuleClass annotation = RuleClasses.annotation(rule.getRuleClass());
+            if (annotation != null) {
+                for (DerivedValue value : annotation.derivedValues()) {
+                    derivedUsers.merge(value, 1, Integer::sum);
+                }
+            }
+        }
+        derivedUsers.values().removeIf(users -> users < 2);
+        for (int users : derivedUsers.values()) {
+            expectedSavings += users - 1;
+        }
+
+        StepPlan plan = new StepPlan(stepCode, List.copyOf(sharedIds.keySet()), Map.copyOf(derivedUsers),
+            Map.copyOf(plannedScripts), expectedSavings);
+        log.info("Planned step {}: {} shared sub-expressions across {} SCRIPT rules, shared derived values {}, "
+            + "{} evaluations saved per request", stepCode, sharedIds.size(), plannedScripts.size(),
+            derivedUsers.keySet(), expectedSavings);
+        return plan;
+    }
+
+    private static void countOccurrences(ExpressionNode node, Set<String> written, Map<ExpressionNode, Integer> counts) {
+        if (isComposite(node) && !readsAny(node, written)) {
+            counts.merge(node, 1, Integer::sum);
+        }
+        children(node).forEach(child -> countOccurrences(child, written, counts));
+    }
+
+    private static void countTopLevel(ExpressionNode node, Map<ExpressionNode, Integer> occurrences,
+                                      Map<ExpressionNode, Integer> topLevel) {
+        if (occurrences.getOrDefault(node, 0) > 1) {
+            topLevel.merge(node, 1, Integer::sum);
+            return;
+        }
+        children(node).forEach(child -> countTopLevel(child, occurrences, topLevel));
+    }
+
+    private static boolean containsAny(ExpressionNode node, Set<ExpressionNode> targets) {
+        return targets.contains(node) || children(node).stream().anyMatch(child -> containsAny(child, targets));
+    }
+
+    private static boolean readsAny(ExpressionNode node, Set<String> names) {
+        if (node instanceof Variable variable) {
+            return names.contains(variable.name());
+        }
+        return children(node).stream().anyMatch(child -> readsAny(child, names));
+    }
+
+    private static boolean isComposite(ExpressionNode node) {
+        return node instanceof Unary || node instanceof Binary || node instanceof Conditional;
+    }
+
+    private static List<ExpressionNode> children(ExpressionNode node) {
+        if (node instanceof Unary unary) {
+            return List.of(unary.operand());
+        }
+        if (node instanceof Binary binary) {
+            return List.of(binary.left(), binary.right());
+        }
+        if (node instanceof Conditional conditional) {
+            return List.of(conditional.condition(), conditional.whenTrue(), conditional.whenFalse());
+        }
+        return List.of();
+    }
+
+    private static boolean isScriptRule(Rule rule) {
+        return "SCRIPT".equals(rule.getRuleType()) && StringUtils.hasText(rule.getRuleScript())
+            && (!StringUtils.hasText(rule.getRuleClass()) || rule.getRuleClass().endsWith("ScriptRule"));
+    }
+}
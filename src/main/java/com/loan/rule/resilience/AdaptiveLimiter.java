@@ -0,0 +1,189 @@
+package com.loan.rule.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit for one outbound dependency that adapts to its latency, in the style of the
+ * gradient (Vegas-like) limiters: while the smoothed round trip stays within {@code tolerance} times
+ * the best one seen, the limit grows by about its square root per sample; as latency rises the limit
+ * shrinks in proportion, and a dropped call (timeout, connection or transient database error) cuts it
+ * by {@code backoffRatio}. Calls beyond the limit wait for a permit with {@link #acquire}, for no
+ * longer than the request has left, so a busy dependency delays a rule instead of failing it.
+ * <p>
+ * Every acquired permit must be released with exactly one of {@link #onSuccess}, {@link #onDropped}
+ * or {@link #onIgnored}.
+ */
+public final class AdaptiveLimiter {
+
+    /**
+     * Limit and the measurements it was derived from, as exposed through actuator.
+     */
+    public record Snapshot(int limit, int inFlight, double minRttMs, double smoothedRttMs, double gradient,
+                           long accepted, long rejected, long dropped) {
+    }
+
+    /**
+     * @param minRttResetSamples Samples after which the best round trip is measured afresh, so the
+     *                           limiter follows a dependency that got permanently slower
+     */
+    public record Config(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                         double backoffRatio, int minRttResetSamples) {
+    }
+
+    private final String name;
+    private final Config config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong smoothedRttBits = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong minRttNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Object released = new Object();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile double gradient = 1.0;
+
+    public AdaptiveLimiter(String name, Config config) {
+        this.name = name;
+        this.config = config;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(config.initialLimit()));
+    }
+
+    /**
+     * @return Whether the call may start; false when the dependency already has {@link #getLimit()} calls in flight
+     */
+    public boolean tryAcquire() {
+        if (!tryIncrement()) {
+            rejected.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Waits for a permit while the dependency is at its limit; permits are handed on as calls finish.
+     *
+     * @return Whether the call may start; false if no permit freed up within the timeout
+     */
+    public boolean acquire(long timeoutNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            synchronized (released) {
+                while (!tryIncrement()) {
+                    long left = timeoutNanos - (System.nanoTime() - start);
+                    if (left <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(released, left);
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+        accepted.increment();
+        return true;
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightAtSample = release();
+        if (samples.incrementAndGet() % config.minRttResetSamples() == 0) {
+            minRttNanos.set(rttNanos);
+        } else {
+            minRttNanos.accumulateAndGet(rttNanos, Math::min);
+        }
+        double smoothedRtt = Double.longBitsToDouble(smoothedRttBits.updateAndGet(bits -> {
+            double previous = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(previous == 0 ? rttNanos : previous * 0.9 + rttNanos * 0.1);
+        }));
+        double nextGradient = Math.max(0.5, Math.min(1.0, config.tolerance() * minRttNanos.get() / smoothedRtt));
+        gradient = nextGradient;
+        updateLimit(limit -> {
+            // A dependency using less than half the limit says nothing about whether more would fit
+            if (nextGradient >= 1.0 && inFlightAtSample < limit / 2) {
+                return limit;
+            }
+            double target = limit * nextGradient + Math.sqrt(limit);
+            return limit * (1 - config.smoothing()) + target * config.smoothing();
+        });
+    }
+
+    public void onDropped() {
+        release();
+        dropped.increment();
+        updateLimit(limit -> limit * config.backoffRatio());
+    }
+
+    /**
+     * Releases a permit whose call failed for reasons that say nothing about the dependency's load.
+     */
+    public void onIgnored() {
+        release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Snapshot snapshot() {
+        long minRtt = minRttNanos.get();
+        return new Snapshot(getLimit(), getInFlight(), minRtt == Long.MAX_VALUE ? 0 : minRtt / 1e6,
+            Double.longBitsToDouble(smoothedRttBits.get()) / 1e6, gradient, accepted.sum(), rejected.sum(),
+            dropped.sum());
+    }
+
+    private boolean tryIncrement() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @return The calls in flight before this one finished
+     */
+    private int release() {
+        int inFlightBefore = inFlight.getAndDecrement();
+        // A waiter counts itself before checking for a permit, so it either sees this one or is woken
+        if (waiting.get() > 0) {
+            synchronized (released) {
+                released.notify();
+            }
+        }
+        return inFlightBefore;
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        limitBits.updateAndGet(bits -> {
+            double next = update.applyAsDouble(Double.longBitsToDouble(bits));
+            return Double.doubleToLongBits(Math.max(config.minLimit(), Math.min(config.maxLimit(), next)));
+        });
+    }
+}
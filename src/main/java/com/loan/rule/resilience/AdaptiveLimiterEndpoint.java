@@ -0,0 +1,33 @@
+package com.loan.rule.resilience;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator view of the adaptive concurrency limits: {@code /actuator/rulelimits} lists every
+ * dependency, {@code /actuator/rulelimits/{name}} one of them.
+ */
+@Component
+@Endpoint(id = "rulelimits")
+public class AdaptiveLimiterEndpoint {
+
+    private final AdaptiveLimiterRegistry registry;
+
+    public AdaptiveLimiterEndpoint(AdaptiveLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, AdaptiveLimiter.Snapshot> limits() {
+        return registry.snapshots();
+    }
+
+    @ReadOperation
+    public AdaptiveLimiter.Snapshot limit(@Selector String name) {
+        return registry.snapshots().get(name);
+    }
+}
@@ -0,0 +1,101 @@
+package com.loan.rule.resilience;
+
+import com.loan.config.RuleEngineProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link AdaptiveLimiter} per outbound dependency of API and DATABASE rules: per host and port
+ * for API rules, one for the rule database. Limits are exported as metrics and through the
+ * {@code rulelimits} actuator endpoint.
+ */
+@Slf4j
+@Component
+public class AdaptiveLimiterRegistry implements MeterBinder {
+
+    private final RuleEngineProperties.AdaptiveLimit properties;
+    private final ConcurrentMap<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public AdaptiveLimiterRegistry(RuleEngineProperties properties) {
+        this.properties = properties.getAdaptiveLimit();
+    }
+
+    /**
+     * @return The limiter for the endpoint's host, or null if adaptive limits are disabled
+     */
+    public AdaptiveLimiter forApi(String endpoint) {
+        String dependency = OutboundDependency.api(endpoint);
+        return dependency != null ? get(dependency) : null;
+    }
+
+    /**
+     * @return The limiter for the rule database, or null if adaptive limits are disabled
+     */
+    public AdaptiveLimiter forDatabase() {
+        return get(OutboundDependency.DATABASE);
+    }
+
+    public Map<String, AdaptiveLimiter.Snapshot> snapshots() {
+        Map<String, AdaptiveLimiter.Snapshot> snapshots = new TreeMap<>();
+        limiters.forEach((name, limiter) -> snapshots.put(name, limiter.snapshot()));
+        return snapshots;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        limiters.values().forEach(this::register);
+    }
+
+    private AdaptiveLimiter get(String name) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        AdaptiveLimiter limiter = limiters.get(name);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.computeIfAbsent(name, key -> {
+            AdaptiveLimiter created = new AdaptiveLimiter(key, new AdaptiveLimiter.Config(
+                properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit(),
+                properties.getTolerance(), properties.getSmoothing(), properties.getBackoffRatio(),
+                properties.getMinRttResetSamples()));
+            log.info("Adaptive concurrency limit for {} starts at {}", key, properties.getInitialLimit());
+            register(created);
+            return created;
+        });
+    }
+
+    private void register(AdaptiveLimiter limiter) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("rule.limit", limiter, AdaptiveLimiter::getLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("dependency", limiter.getName())
+            .register(registry);
+        Gauge.builder("rule.limit.inflight", limiter, AdaptiveLimiter::getInFlight)
+            .description("Calls in flight to the dependency")
+            .tag("dependency", limiter.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.limit.rejected", limiter, AdaptiveLimiter::getRejected)
+            .description("Calls rejected because the dependency was at its limit")
+            .tag("dependency", limiter.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.limit.dropped", limiter, AdaptiveLimiter::getDropped)
+            .description("Calls that timed out or failed with an overload error")
+            .tag("dependency", limiter.getName())
+            .register(registry);
+    }
+}
@@ -0,0 +1,156 @@
+package com.loan.rule.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Caps how many tasks of one rule class, rule type or endpoint run at once, whatever executor they
+ * run on. Up to {@code maxQueue} further tasks wait for a slot without holding a thread; beyond that
+ * submission fails fast with {@link BulkheadFullException}.
+ */
+@Slf4j
+public final class Bulkhead {
+
+    private record Task(Executor executor, Runnable command, Consumer<RejectedExecutionException> onRejected,
+                        long submittedNanos) {
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueue = Math.max(0, maxQueue);
+    }
+
+    /**
+     * Runs the command on the executor once a slot is free.
+     *
+     * @throws BulkheadFullException if every slot is taken and the queue is full
+     */
+    public void execute(Executor executor, Runnable command) {
+        execute(executor, command, e -> log.error("Executor rejected a queued task of bulkhead {}: {}", name,
+            e.getMessage()));
+    }
+
+    /**
+     * Runs the command on the executor once a slot is free.
+     *
+     * @param onRejected Told if the executor rejects the command after it waited in the queue
+     * @throws RejectedExecutionException if every slot is taken and the queue is full, or the executor
+     *                                    rejects the command straight away
+     */
+    public void execute(Executor executor, Runnable command, Consumer<RejectedExecutionException> onRejected) {
+        long now = System.nanoTime();
+        if (tryAcquire()) {
+            try {
+                dispatch(new Task(executor, command, onRejected, now));
+            } catch (RejectedExecutionException e) {
+                // The slot is free again, so the queued tasks get their turn
+                drain();
+                throw e;
+            }
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+        queue.add(new Task(executor, command, onRejected, now));
+        // A slot may have been released between the failed acquire and the enqueue
+        drain();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getStarted() {
+        return started.sum();
+    }
+
+    /**
+     * @return Total nanoseconds started tasks spent between submission and running
+     */
+    public long getQueueNanos() {
+        return queueNanos.sum();
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+        } while (!active.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty() && tryAcquire()) {
+            Task task = queue.poll();
+            if (task == null) {
+                active.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                dispatch(task);
+            } catch (RejectedExecutionException e) {
+                task.onRejected().accept(e);
+            }
+        }
+    }
+
+    private void dispatch(Task task) {
+        try {
+            task.executor().execute(() -> {
+                queueNanos.add(System.nanoTime() - task.submittedNanos());
+                started.increment();
+                try {
+                    task.command().run();
+                } finally {
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Released without draining; the caller's loop hands the slot on
+            active.decrementAndGet();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.loan.rule.resilience;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a bulkhead has no free slot and its queue is full.
+ */
+public class BulkheadFullException extends RejectedExecutionException {
+
+    public BulkheadFullException(String bulkhead) {
+        super("Bulkhead " + bulkhead + " is full");
+    }
+}
@@ -0,0 +1,92 @@
+package com.loan.rule.resilience;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.annotation.RuleClass;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the bulkheads configured under {@code rule-engine.bulkhead} and picks the one a rule runs in:
+ * the endpoint named by {@link RuleClass#bulkhead()}, else its rule class, else its rule type.
+ * Rules matching none are not limited.
+ */
+@Component
+public class BulkheadRegistry implements MeterBinder {
+
+    private final Map<String, Bulkhead> endpoints;
+    private final Map<String, Bulkhead> ruleClasses;
+    private final Map<String, Bulkhead> ruleTypes;
+
+    public BulkheadRegistry(RuleEngineProperties properties) {
+        RuleEngineProperties.Bulkhead config = properties.getBulkhead();
+        this.endpoints = build("endpoint", config.getEndpoints());
+        this.ruleClasses = build("rule-class", config.getRuleClasses());
+        this.ruleTypes = build("rule-type", config.getRuleTypes());
+    }
+
+    /**
+     * @return The bulkhead for the rule, or null if none is configured for it
+     */
+    public Bulkhead forRule(Rule rule, StatelessRule ruleBean) {
+        RuleClass annotation = ClassUtils.getUserClass(ruleBean).getAnnotation(RuleClass.class);
+        if (annotation != null && StringUtils.hasText(annotation.bulkhead())) {
+            Bulkhead bulkhead = endpoints.get(annotation.bulkhead());
+            if (bulkhead == null) {
+                throw new IllegalArgumentException("Unknown bulkhead '" + annotation.bulkhead() + "' on "
+                    + ruleBean.getClass().getSimpleName() + ", expected one of " + endpoints.keySet());
+            }
+            return bulkhead;
+        }
+        if (annotation != null && ruleClasses.containsKey(annotation.name())) {
+            return ruleClasses.get(annotation.name());
+        }
+        Bulkhead bulkhead = rule.getRuleType() != null ? ruleTypes.get(rule.getRuleType()) : null;
+        return bulkhead != null ? bulkhead : ruleTypes.get(ruleBean.getRuleType());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        endpoints.values().forEach(bulkhead -> bind(registry, bulkhead));
+        ruleClasses.values().forEach(bulkhead -> bind(registry, bulkhead));
+        ruleTypes.values().forEach(bulkhead -> bind(registry, bulkhead));
+    }
+
+    private static Map<String, Bulkhead> build(String kind, Map<String, RuleEngineProperties.Bulkhead.Limits> limits) {
+        Map<String, Bulkhead> bulkheads = new HashMap<>();
+        limits.forEach((key, limit) -> bulkheads.put(key,
+            new Bulkhead(kind + ":" + key, limit.getMaxConcurrent(), limit.getMaxQueue())));
+        return Map.copyOf(bulkheads);
+    }
+
+    private static void bind(MeterRegistry registry, Bulkhead bulkhead) {
+        Gauge.builder("rule.bulkhead.active", bulkhead, Bulkhead::getActive)
+            .description("Rules running in the bulkhead")
+            .tag("bulkhead", bulkhead.getName())
+            .register(registry);
+        Gauge.builder("rule.bulkhead.queued", bulkhead, Bulkhead::getQueued)
+            .description("Rules waiting for a slot in the bulkhead")
+            .tag("bulkhead", bulkhead.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+            .description("Rules rejected because the bulkhead and its queue were full")
+            .tag("bulkhead", bulkhead.getName())
+            .register(registry);
+        FunctionTimer.builder("rule.bulkhead.queue.time", bulkhead, Bulkhead::getStarted, Bulkhead::getQueueNanos,
+                TimeUnit.NANOSECONDS)
+            .description("Time rules waited between submission and running")
+            .tag("bulkhead", bulkhead.getName())
+            .register(registry);
+    }
+}
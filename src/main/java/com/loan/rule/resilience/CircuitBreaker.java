@@ -0,0 +1,239 @@
+package com.loan.rule.resilience;
+
+import com.loan.rule.annotation.RuleExecution;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free circuit breaker over a ring buffer of the last {@code windowSize} call outcomes.
+ * <p>
+ * While CLOSED every call is permitted. Once the window holds {@code minimumCalls} outcomes and the
+ * failure rate or the slow-call rate reaches its threshold, the breaker opens and rejects calls for
+ * {@code waitInOpenNanos}. It then turns HALF_OPEN and lets {@code probes} calls through: if they all
+ * succeed in time it closes with an empty window, and the first failed or slow probe opens it again.
+ * <p>
+ * Recording swaps one slot of the buffer, so concurrent callers never block; the rates are counted
+ * from the slots themselves, so no interleaving can report more failed or slow calls than the window
+ * holds. State changes are compare-and-set, and only the winning thread reports them.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * @param failureRateThreshold Percentage of failed calls in the window that opens the breaker
+     * @param slowCallRateThreshold Percentage of calls slower than {@code slowCallNanos} that opens it
+     */
+    public record Config(int windowSize, int minimumCalls, int failureRateThreshold, int slowCallRateThreshold,
+                         long slowCallNanos, long waitInOpenNanos, int probes) {
+
+        public static final Config DEFAULT = new Config(20, 5, 50, 100, TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(60), 3);
+
+        public static Config of(RuleExecution execution) {
+            if (execution == null) {
+                return DEFAULT;
+            }
+            int minimumCalls = Math.max(1, execution.circuitBreakerThreshold());
+            return new Config(Math.max(minimumCalls, execution.circuitBreakerWindow()), minimumCalls,
+                execution.failureRateThreshold(), execution.slowCallRateThreshold(),
+                TimeUnit.MILLISECONDS.toNanos(execution.slowCallDuration()),
+                TimeUnit.MILLISECONDS.toNanos(execution.circuitBreakerResetTimeout()),
+                Math.max(1, execution.halfOpenProbes()));
+        }
+    }
+
+    /**
+     * A call the breaker rejected or completed, as kept in one slot of the ring buffer.
+     */
+    private enum Outcome {
+        SUCCESS(0, 0), SLOW_SUCCESS(0, 1), FAILURE(1, 0), SLOW_FAILURE(1, 1);
+
+        private final int failed;
+        private final int slow;
+
+        Outcome(int failed, int slow) {
+            this.failed = failed;
+            this.slow = slow;
+        }
+
+        static Outcome of(boolean success, boolean slow) {
+            return success ? (slow ? SLOW_SUCCESS : SUCCESS) : (slow ? SLOW_FAILURE : FAILURE);
+        }
+    }
+
+    /**
+     * Immutable phase plus the probe counters of a half-open period.
+     */
+    private record Phase(State state, long since, AtomicInteger permits, AtomicInteger successes) {
+    }
+
+    /**
+     * Outcomes counted in one pass over the window.
+     */
+    private record Counts(int calls, int failures, int slowCalls) {
+
+        float failureRate() {
+            return calls == 0 ? 0 : failures * 100f / calls;
+        }
+
+        float slowCallRate() {
+            return calls == 0 ? 0 : slowCalls * 100f / calls;
+        }
+    }
+
+    private final String name;
+    private final Config config;
+    private final LongSupplier clock;
+    private final Consumer<CircuitBreakerEvent> listener;
+    private final AtomicReference<Phase> phase;
+    private final AtomicReferenceArray<Outcome> window;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public CircuitBreaker(String name, Config config, LongSupplier clock, Consumer<CircuitBreakerEvent> listener) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.listener = listener;
+        this.window = new AtomicReferenceArray<>(config.windowSize());
+        this.phase = new AtomicReference<>(new Phase(State.CLOSED, clock.getAsLong(), null, null));
+    }
+
+    /**
+     * @return Whether the call may proceed; a permitted call must be reported with {@link #record}
+     */
+    public boolean tryAcquirePermission() {
+        Phase current = phase.get();
+        if (current.state() == State.OPEN) {
+            if (clock.getAsLong() - current.since() < config.waitInOpenNanos()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            transition(current, State.HALF_OPEN);
+            current = phase.get();
+        }
+        if (current.state() == State.HALF_OPEN) {
+            if (current.permits().getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                return true;
+            }
+            rejected.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void record(boolean success, long durationNanos) {
+        boolean slow = durationNanos >= config.slowCallNanos();
+        Phase current = phase.get();
+        switch (current.state()) {
+            case HALF_OPEN -> {
+                if (!success || slow) {
+                    transition(current, State.OPEN);
+                } else if (current.successes().incrementAndGet() >= config.probes()) {
+                    transition(current, State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                addToWindow(Outcome.of(success, slow));
+                if (shouldOpen()) {
+                    transition(current, State.OPEN);
+                }
+            }
+            default -> {
+                // A call permitted before the breaker opened; the window restarts when it closes
+            }
+        }
+    }
+
+    /**
+     * Returns a permission that was acquired but not used, so a half-open breaker does not run out of probes.
+     */
+    public void releasePermission() {
+        Phase current = phase.get();
+        if (current.state() == State.HALF_OPEN) {
+            current.permits().incrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return phase.get().state();
+    }
+
+    public float getFailureRate() {
+        return count().failureRate();
+    }
+
+    public float getSlowCallRate() {
+        return count().slowCallRate();
+    }
+
+    public long getRejectedCalls() {
+        return rejected.get();
+    }
+
+    private void addToWindow(Outcome outcome) {
+        int slot = (int) (cursor.getAndIncrement() % config.windowSize());
+        window.set(slot, outcome);
+    }
+
+    private boolean shouldOpen() {
+        Counts counts = count();
+        if (counts.calls() < config.minimumCalls()) {
+            return false;
+        }
+        return counts.failures() * 100L >= (long) config.failureRateThreshold() * counts.calls()
+            || counts.slowCalls() * 100L >= (long) config.slowCallRateThreshold() * counts.calls();
+    }
+
+    /**
+     * Counts the outcomes in the window. Each slot is read once, so every failed or slow call counted
+     * is also counted as a call, even while other threads record.
+     */
+    private Counts count() {
+        int calls = 0;
+        int failures = 0;
+        int slowCalls = 0;
+        for (int i = 0; i < config.windowSize(); i++) {
+            Outcome outcome = window.get(i);
+            if (outcome != null) {
+                calls++;
+                failures += outcome.failed;
+                slowCalls += outcome.slow;
+            }
+        }
+        return new Counts(calls, failures, slowCalls);
+    }
+
+    private void transition(Phase from, State to) {
+        Phase next = to == State.HALF_OPEN
+            ? new Phase(to, clock.getAsLong(), new AtomicInteger(config.probes()), new AtomicInteger())
+            : new Phase(to, clock.getAsLong(), null, null);
+        if (!phase.compareAndSet(from, next)) {
+            return;
+        }
+        if (to == State.CLOSED) {
+            clearWindow();
+        }
+        Counts counts = count();
+        listener.accept(new CircuitBreakerEvent(name, from.state(), to, counts.failureRate(), counts.slowCallRate()));
+    }
+
+    private void clearWindow() {
+        for (int i = 0; i < config.windowSize(); i++) {
+            window.set(i, null);
+        }
+    }
+}
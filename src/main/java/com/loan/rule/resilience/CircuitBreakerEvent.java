@@ -0,0 +1,11 @@
+package com.loan.rule.resilience;
+
+/**
+ * Published as a Spring application event whenever a rule's circuit breaker changes state.
+ *
+ * @param failureRate Failure percentage of the window when the transition happened
+ * @param slowCallRate Slow-call percentage of the window when the transition happened
+ */
+public record CircuitBreakerEvent(String name, CircuitBreaker.State from, CircuitBreaker.State to,
+                                  float failureRate, float slowCallRate) {
+}
@@ -0,0 +1,93 @@
+package com.loan.rule.resilience;
+
+import com.loan.rule.annotation.RuleExecution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link CircuitBreaker} per rule name, shared by all requests. State changes are logged,
+ * published as {@link CircuitBreakerEvent}s and counted in {@code rule.circuit.transitions}; each
+ * breaker also exports its state, rates and rejected calls.
+ */
+@Slf4j
+@Component
+public class CircuitBreakerRegistry implements MeterBinder {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public CircuitBreakerRegistry(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CircuitBreaker get(String ruleName, RuleExecution execution) {
+        CircuitBreaker breaker = breakers.get(ruleName);
+        if (breaker != null) {
+            return breaker;
+        }
+        return breakers.computeIfAbsent(ruleName, name -> {
+            CircuitBreaker created = new CircuitBreaker(name, CircuitBreaker.Config.of(execution), System::nanoTime,
+                this::onTransition);
+            register(created);
+            return created;
+        });
+    }
+
+    public Collection<CircuitBreaker> getAll() {
+        return breakers.values();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        breakers.values().forEach(this::register);
+    }
+
+    private void onTransition(CircuitBreakerEvent event) {
+        log.warn("Circuit breaker for rule {} changed from {} to {} (failure rate {}%, slow-call rate {}%)",
+            event.name(), event.from(), event.to(), event.failureRate(), event.slowCallRate());
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            Counter.builder("rule.circuit.transitions")
+                .description("Circuit breaker state changes")
+                .tags("rule", event.name(), "from", event.from().name(), "to", event.to().name())
+                .register(registry)
+                .increment();
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    private void register(CircuitBreaker breaker) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("rule.circuit.state", breaker, b -> b.getState().ordinal())
+            .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+            .tag("rule", breaker.getName())
+            .register(registry);
+        Gauge.builder("rule.circuit.failure.rate", breaker, CircuitBreaker::getFailureRate)
+            .description("Failed calls in the breaker's window, in percent")
+            .tag("rule", breaker.getName())
+            .register(registry);
+        Gauge.builder("rule.circuit.slow.rate", breaker, CircuitBreaker::getSlowCallRate)
+            .description("Slow calls in the breaker's window, in percent")
+            .tag("rule", breaker.getName())
+            .register(registry);
+        FunctionCounter.builder("rule.circuit.rejected", breaker, CircuitBreaker::getRejectedCalls)
+            .description("Calls rejected by an open or saturated half-open breaker")
+            .tag("rule", breaker.getName())
+            .register(registry);
+    }
+}
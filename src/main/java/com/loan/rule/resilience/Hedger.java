@@ -0,0 +1,211 @@
+package com.loan.rule.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedges calls to one idempotent dependency: if the first attempt has not answered after a fixed
+ * delay, or after the p95 of recent calls, a second attempt is sent and whichever answers first wins;
+ * the other is cancelled. Each call earns {@code budgetRatio} of a hedge and a hedge spends a whole
+ * one, so hedges stay a bounded fraction of the traffic even when every call is slow.
+ */
+public final class Hedger {
+
+    private static final int SAMPLES = 256;
+    private static final int P95_REFRESH_INTERVAL = 16;
+    private static final long TOKEN = 1000;
+
+    /**
+     * @param delayNanos Fixed hedge delay; 0 hedges at the observed p95
+     * @param minSamples Calls observed before the p95 is trusted
+     * @param maxBurst Hedges that may be sent in a row once the budget has been saved up
+     */
+    public record Config(long delayNanos, double budgetRatio, int minSamples, int maxBurst) {
+    }
+
+    private final String name;
+    private final Config config;
+    private final Executor executor;
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong budget;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private volatile long p95Nanos = -1;
+
+    public Hedger(String name, Config config, Executor executor) {
+        this.name = name;
+        this.config = config;
+        this.executor = executor;
+        this.budget = new AtomicLong(config.maxBurst() * TOKEN);
+    }
+
+    /**
+     * Runs the attempt, hedging it when it is slow. The attempt may run twice concurrently, so it
+     * must be idempotent; the losing attempt is interrupted.
+     *
+     * @throws Exception the failure of the last attempt to finish, if none succeeded
+     */
+    public <T> T call(Callable<T> attempt) throws Exception {
+        calls.increment();
+        budget.accumulateAndGet((long) (config.budgetRatio() * TOKEN), (current, earned) ->
+            Math.min(config.maxBurst() * TOKEN, current + earned));
+        long start = System.nanoTime();
+        BlockingQueue<Attempt<T>> finished = new LinkedBlockingQueue<>();
+        Attempt<T> primary = new Attempt<>(attempt, finished);
+        executor.execute(primary);
+
+        long delay = hedgeDelayNanos();
+        if (delay < 0) {
+            return record(start, await(primary));
+        }
+        try {
+            return record(start, primary.get(delay, TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            // Slow enough to hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            throw e;
+        }
+        if (!tryAcquireBudget()) {
+            budgetExhausted.increment();
+            return record(start, await(primary));
+        }
+
+        Attempt<T> hedge = new Attempt<>(attempt, finished);
+        try {
+            executor.execute(hedge);
+        } catch (RejectedExecutionException e) {
+            // No thread to spare for a hedge; keep waiting on the first attempt
+            return record(start, await(primary));
+        }
+        hedges.increment();
+        try {
+            Attempt<T> first = finished.take();
+            Attempt<T> other = first == primary ? hedge : primary;
+            try {
+                T result = first.get();
+                other.cancel(true);
+                if (first == hedge) {
+                    hedgeWins.increment();
+                }
+                return record(start, result);
+            } catch (ExecutionException e) {
+                // The other attempt may still succeed
+                T result = await(other);
+                if (other == hedge) {
+                    hedgeWins.increment();
+                }
+                return record(start, result);
+            }
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            hedge.cancel(true);
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The observed p95 in nanoseconds, or -1 before {@code minSamples} calls
+     */
+    public long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long getBudgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    private long hedgeDelayNanos() {
+        return config.delayNanos() > 0 ? config.delayNanos() : p95Nanos;
+    }
+
+    private boolean tryAcquireBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private <T> T record(long start, T result) {
+        long count = sampleCount.incrementAndGet();
+        latencies.set((int) ((count - 1) % SAMPLES), System.nanoTime() - start);
+        if (count >= config.minSamples() && count % P95_REFRESH_INTERVAL == 0) {
+            int size = (int) Math.min(count, SAMPLES);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            p95Nanos = sorted[(int) Math.ceil(size * 0.95) - 1];
+        }
+        return result;
+    }
+
+    private static <T> T await(Attempt<T> attempt) throws Exception {
+        try {
+            return attempt.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            attempt.cancel(true);
+            throw e;
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        return e.getCause() instanceof Exception cause ? cause : e;
+    }
+
+    /**
+     * Reports itself to the call's queue once it completes, so the caller can wait for the first one.
+     */
+    private static final class Attempt<T> extends FutureTask<T> {
+        private final BlockingQueue<Attempt<T>> finished;
+
+        Attempt(Callable<T> callable, BlockingQueue<Attempt<T>> finished) {
+            super(callable);
+            this.finished = finished;
+        }
+
+        @Override
+        protected void done() {
+            finished.offer(this);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.loan.rule.resilience;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.service.executor.IoExecutorStrategy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link Hedger} for every dependency opted in under {@code rule-engine.hedging.dependencies},
+ * keyed as in {@link OutboundDependency}. Attempts run on the elastic I/O pool.
+ */
+@Component
+public class HedgerRegistry implements MeterBinder {
+
+    private final Map<String, Hedger> hedgers;
+
+    public HedgerRegistry(RuleEngineProperties properties, IoExecutorStrategy ioExecutor) {
+        RuleEngineProperties.Hedging settings = properties.getHedging();
+        Map<String, Hedger> configured = new HashMap<>();
+        if (settings.isEnabled()) {
+            settings.getDependencies().forEach((name, delay) -> configured.put(name, new Hedger(name,
+                new Hedger.Config(delay != null ? delay.toNanos() : 0, settings.getBudgetRatio(),
+                    settings.getMinSamples(), settings.getMaxBurst()),
+                ioExecutor.getExecutor())));
+        }
+        this.hedgers = Map.copyOf(configured);
+    }
+
+    /**
+     * @return The hedger for the API rule's endpoint, or null if it is not opted in
+     */
+    public Hedger forApi(String endpoint) {
+        String dependency = OutboundDependency.api(endpoint);
+        return dependency != null ? hedgers.get(dependency) : null;
+    }
+
+    /**
+     * @return The hedger for the rule database, or null if it is not opted in
+     */
+    public Hedger forDatabase() {
+        return hedgers.get(OutboundDependency.DATABASE);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        hedgers.values().forEach(hedger -> {
+            FunctionCounter.builder("rule.hedge.calls", hedger, Hedger::getCalls)
+                .description("Calls to a hedged dependency")
+                .tag("dependency", hedger.getName())
+                .register(registry);
+            FunctionCounter.builder("rule.hedge.sent", hedger, Hedger::getHedges)
+                .description("Second attempts sent because the first one was slow")
+                .tag("dependency", hedger.getName())
+                .register(registry);
+            FunctionCounter.builder("rule.hedge.wins", hedger, Hedger::getHedgeWins)
+                .description("Hedges that answered before the first attempt")
+                .tag("dependency", hedger.getName())
+                .register(registry);
+            FunctionCounter.builder("rule.hedge.budget.exhausted", hedger, Hedger::getBudgetExhausted)
+                .description("Slow calls not hedged because the hedge budget was spent")
+                .tag("dependency", hedger.getName())
+                .register(registry);
+            Gauge.builder("rule.hedge.p95", hedger, h -> h.getP95Nanos() / 1e6)
+                .description("Observed p95 latency hedges are sent after, in milliseconds")
+                .tag("dependency", hedger.getName())
+                .register(registry);
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.loan.rule.resilience;
+
+import java.net.URI;
+
+/**
+ * Names of the outbound dependencies rules call, shared by the limiters, hedgers and batchers
+ * so configuration, metrics and actuator use the same keys.
+ */
+public final class OutboundDependency {
+
+    public static final String DATABASE = "database";
+
+    /**
+     * The credit bureau behind {@link com.loan.service.CreditScoreService}.
+     */
+    public static final String CREDIT_SCORE = "credit-score";
+
+    private OutboundDependency() {
+    }
+
+    /**
+     * @return {@code api:host[:port]} for the endpoint, or null if it is blank
+     */
+    public static String api(String endpoint) {
+        if (endpoint == null || endpoint.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(endpoint.trim());
+            if (uri.getHost() != null) {
+                return "api:" + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "");
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a URI; the endpoint itself identifies the dependency
+        }
+        return "api:" + endpoint.trim();
+    }
+}
@@ -0,0 +1,85 @@
+package com.loan.rule.script;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A SCRIPT expression compiled by {@link RuleExpressionCompiler}.
+ * <p>
+ * Evaluation copies the referenced context entries into a slot array and runs the lambda tree.
+ * Whenever the result could differ from SpEL's, {@link #evaluate(Map)} throws
+ * {@link FallbackException} instead and the caller evaluates the script with SpEL.
+ * Instances are immutable and thread-safe.
+ */
+public final class CompiledRuleExpression {
+
+    private final String expressionString;
+    private final ExpressionNode ast;
+    private final String[] slotNames;
+    private final boolean[] required;
+    private final boolean memoized;
+    private final RuleExpressionCompiler.Evaluator root;
+
+    CompiledRuleExpression(String expressionString, ExpressionNode ast, String[] slotNames, boolean[] required,
+                           boolean memoized, RuleExpressionCompiler.Evaluator root) {
+        this.expressionString = expressionString;
+        this.ast = ast;
+        this.slotNames = slotNames;
+        this.required = required;
+        this.memoized = memoized;
+        this.root = root;
+    }
+
+    /**
+     * @param context The request context; entries are read, never written
+     * @return The value SpEL would return for the same context
+     * @throws FallbackException if the expression must be evaluated by SpEL instead
+     */
+    public Object evaluate(Map<String, Object> context) {
+        return evaluate(context, null);
+    }
+
+    /**
+     * Evaluates with shared sub-expressions read from and written to the given memo.
+     * @param memo The request's memo, or null to compute everything
+     */
+    public Object evaluate(Map<String, Object> context, SubExpressionMemo memo) {
+        if (context == null) {
+            throw FallbackException.INSTANCE;
+        }
+        Object[] slots = new Object[memoized ? slotNames.length + 1 : slotNames.length];
+        if (memoized) {
+            slots[slotNames.length] = memo;
+        }
+        for (int i = 0; i < slotNames.length; i++) {
+            Object value = context.get(slotNames[i]);
+            if (value == null && required[i] && !context.containsKey(slotNames[i])) {
+                throw FallbackException.INSTANCE;
+            }
+            slots[i] = value;
+        }
+        try {
+            return root.eval(slots);
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw FallbackException.INSTANCE;
+        }
+    }
+
+    public String getExpressionString() {
+        return expressionString;
+    }
+
+    /**
+     * The constant-folded syntax tree the lambdas were generated from.
+     */
+    public ExpressionNode getAst() {
+        return ast;
+    }
+
+    /**
+     * Names of the context entries the expression reads, in slot order.
+     */
+    public List<String> getVariableNames() {
+        return List.of(slotNames);
+    }
+}
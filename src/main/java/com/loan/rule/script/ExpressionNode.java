@@ -0,0 +1,81 @@
+package com.loan.rule.script;
+
+/**
+ * Syntax tree of the SCRIPT subset understood by {@link RuleExpressionCompiler}.
+ * Nodes are records, so structurally equal sub-expressions are equal and hash alike.
+ */
+public sealed interface ExpressionNode {
+
+    record Literal(Object value) implements ExpressionNode {
+        @Override
+        public String toString() {
+            return value instanceof String text ? "'" + text.replace("'", "''") + "'" : String.valueOf(value);
+        }
+    }
+
+    /**
+     * A context entry, read either as a root property ({@code age}) or as a variable ({@code #age}).
+     * Properties must exist in the context; variables resolve to null when absent.
+     */
+    record Variable(String name, boolean hashPrefixed) implements ExpressionNode {
+        @Override
+        public String toString() {
+            return hashPrefixed ? "#" + name : name;
+        }
+    }
+
+    record Unary(Operator operator, ExpressionNode operand) implements ExpressionNode {
+        @Override
+        public String toString() {
+            return operator.symbol + "(" + operand + ")";
+        }
+    }
+
+    record Binary(Operator operator, ExpressionNode left, ExpressionNode right) implements ExpressionNode {
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator.symbol + " " + right + ")";
+        }
+    }
+
+    record Conditional(ExpressionNode condition, ExpressionNode whenTrue, ExpressionNode whenFalse)
+        implements ExpressionNode {
+        @Override
+        public String toString() {
+            return "(" + condition + " ? " + whenTrue + " : " + whenFalse + ")";
+        }
+    }
+
+    enum Operator {
+        AND("&&"),
+        OR("||"),
+        NOT("!"),
+        NEGATE("-"),
+        UNARY_PLUS("+"),
+        EQ("=="),
+        NE("!="),
+        LT("<"),
+        LE("<="),
+        GT(">"),
+        GE(">="),
+        ADD("+"),
+        SUBTRACT("-"),
+        MULTIPLY("*"),
+        DIVIDE("/"),
+        MODULUS("%");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public boolean isRelational() {
+            return this == EQ || this == NE || this == LT || this == LE || this == GT || this == GE;
+        }
+
+        public boolean isLogical() {
+            return this == AND || this == OR || this == NOT;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.loan.rule.script;
+
+/**
+ * Signals that a natively compiled expression met a value it does not handle exactly like SpEL,
+ * such as a missing property, an unexpected operand type or an arithmetic error. The caller
+ * re-evaluates the same script with SpEL. A single shared instance without a stack trace is used,
+ * so falling back costs no more than a normal return.
+ */
+public final class FallbackException extends RuntimeException {
+
+    static final FallbackException INSTANCE = new FallbackException();
+
+    private FallbackException() {
+        super("Native evaluation deferred to SpEL", null, false, false);
+    }
+}
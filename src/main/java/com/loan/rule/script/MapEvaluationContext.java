@@ -0,0 +1,121 @@
+package com.loan.rule.script;
+
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.support.ReflectiveConstructorResolver;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardOperatorOverloader;
+import org.springframework.expression.spel.support.StandardTypeComparator;
+import org.springframework.expression.spel.support.StandardTypeConverter;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only evaluation context that binds a SCRIPT expression directly to the request context map.
+ * <p>
+ * Nothing is copied: the map is the root object, so {@code age >= 18} reads {@code context.get("age")},
+ * and {@code #age} resolves against the same map. All resolvers, accessors and converters are shared
+ * static instances, so creating a context costs a single small allocation. The context never writes
+ * to the map, which makes one instance safe to reuse for every rule evaluated against the same request.
+ */
+public final class MapEvaluationContext implements EvaluationContext {
+
+    private static final List<PropertyAccessor> PROPERTY_ACCESSORS =
+        List.of(new ReadOnlyMapAccessor(), new ReflectivePropertyAccessor(false));
+    private static final List<ConstructorResolver> CONSTRUCTOR_RESOLVERS =
+        List.of(new ReflectiveConstructorResolver());
+    private static final List<MethodResolver> METHOD_RESOLVERS = List.of(new ReflectiveMethodResolver());
+    private static final TypeLocator TYPE_LOCATOR = new StandardTypeLocator();
+    private static final TypeConverter TYPE_CONVERTER = new StandardTypeConverter();
+    private static final TypeComparator TYPE_COMPARATOR = new StandardTypeComparator();
+    private static final OperatorOverloader OPERATOR_OVERLOADER = new StandardOperatorOverloader();
+
+    private final Map<String, Object> variables;
+    private final TypedValue root;
+
+    public MapEvaluationContext(Map<String, Object> variables) {
+        this.variables = variables;
+        this.root = new TypedValue(variables);
+    }
+
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public TypedValue getRootObject() {
+        return root;
+    }
+
+    @Override
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return PROPERTY_ACCESSORS;
+    }
+
+    @Override
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return CONSTRUCTOR_RESOLVERS;
+    }
+
+    @Override
+    public List<MethodResolver> getMethodResolvers() {
+        return METHOD_RESOLVERS;
+    }
+
+    @Override
+    public BeanResolver getBeanResolver() {
+        return null;
+    }
+
+    @Override
+    public TypeLocator getTypeLocator() {
+        return TYPE_LOCATOR;
+    }
+
+    @Override
+    public TypeConverter getTypeConverter() {
+        return TYPE_CONVERTER;
+    }
+
+    @Override
+    public TypeComparator getTypeComparator() {
+        return TYPE_COMPARATOR;
+    }
+
+    @Override
+    public OperatorOverloader getOperatorOverloader() {
+        return OPERATOR_OVERLOADER;
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        throw new UnsupportedOperationException("Rule script context is read-only, cannot set variable: " + name);
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        return variables.get(name);
+    }
+
+    /**
+     * {@link MapAccessor} that refuses writes, keeping its compiled-code support.
+     */
+    private static final class ReadOnlyMapAccessor extends MapAccessor {
+        @Override
+        public boolean canWrite(EvaluationContext context, Object target, String name) {
+            return false;
+        }
+    }
+}
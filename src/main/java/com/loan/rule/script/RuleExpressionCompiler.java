@@ -0,0 +1,323 @@
+package com.loan.rule.script;
+
+import com.loan.rule.script.ExpressionNode.Binary;
+import com.loan.rule.script.ExpressionNode.Conditional;
+import com.loan.rule.script.ExpressionNode.Literal;
+import com.loan.rule.script.ExpressionNode.Operator;
+import com.loan.rule.script.ExpressionNode.Unary;
+import com.loan.rule.script.ExpressionNode.Variable;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiles the arithmetic and boolean subset of SpEL used by most SCRIPT rules into a tree of small
+ * lambdas that HotSpot can inline, for example {@code age >= 18 && monthlyIncome >= 5000000}.
+ * <p>
+ * Compilation parses the script with {@link RuleExpressionParser}, folds constant sub-expressions,
+ * assigns every referenced context entry a fixed slot so evaluation never hashes a name twice, and
+ * builds boolean-returning {@link Condition} nodes for predicates to avoid boxing between
+ * {@code &&}/{@code ||} and comparisons. Comparisons against a numeric constant get a dedicated node
+ * with int and BigDecimal fast paths. Operator semantics come from {@link SpelOperations}; anything
+ * outside the subset is rejected with {@link UnsupportedExpressionException}.
+ * <p>
+ * Sub-expressions shared with other rules can be given ids; their values are then looked up in,
+ * and stored to, the {@link SubExpressionMemo} passed to {@link CompiledRuleExpression#evaluate(Map, SubExpressionMemo)}.
+ */
+public final class RuleExpressionCompiler {
+
+    private static final Object[] NO_SLOTS = new Object[0];
+
+    private RuleExpressionCompiler() {
+    }
+
+    public static CompiledRuleExpression compile(String script) {
+        return compile(script, Map.of());
+    }
+
+    /**
+     * @param sharedIds Sub-expressions to memoize, mapped to their index in the request's {@link SubExpressionMemo}
+     */
+    public static CompiledRuleExpression compile(String script, Map<ExpressionNode, Integer> sharedIds) {
+        ExpressionNode node = analyze(script);
+        Map<String, Slot> slots = new LinkedHashMap<>();
+        collectSlots(node, slots);
+
+        String[] names = new String[slots.size()];
+        boolean[] required = new boolean[slots.size()];
+        for (Slot slot : slots.values()) {
+            names[slot.index] = slot.name;
+            required[slot.index] = slot.required;
+        }
+        // The memo travels in the slot array, one past the last variable
+        Evaluator root = new Builder(slots, sharedIds, names.length).evaluator(node);
+        return new CompiledRuleExpression(script, node, names, required, !sharedIds.isEmpty(), root);
+    }
+
+    /**
+     * Parses and constant-folds a script without generating code.
+     * @throws UnsupportedExpressionException if the script is outside the supported subset
+     */
+    public static ExpressionNode analyze(String script) {
+        return fold(RuleExpressionParser.parse(script));
+    }
+
+    /**
+     * Evaluates a node against the bound slot values.
+     */
+    @FunctionalInterface
+    interface Evaluator {
+        Object eval(Object[] slots);
+    }
+
+    @FunctionalInterface
+    interface Condition {
+        boolean test(Object[] slots);
+    }
+
+    @FunctionalInterface
+    private interface Comparison {
+        int compare(Object[] slots);
+    }
+
+    // ---- constant folding ----
+
+    static ExpressionNode fold(ExpressionNode node) {
+        if (node instanceof Unary unary) {
+            ExpressionNode operand = fold(unary.operand());
+            return evaluateIfConstant(new Unary(unary.operator(), operand), operand instanceof Literal);
+        }
+        if (node instanceof Binary binary) {
+            ExpressionNode left = fold(binary.left());
+            ExpressionNode right = fold(binary.right());
+            // SpEL short-circuits, so the right operand of a decided && or || is never evaluated
+            if (binary.operator() == Operator.AND && left instanceof Literal l && Boolean.FALSE.equals(l.value())) {
+                return left;
+            }
+            if (binary.operator() == Operator.OR && left instanceof Literal l && Boolean.TRUE.equals(l.value())) {
+                return left;
+            }
+            return evaluateIfConstant(new Binary(binary.operator(), left, right),
+                left instanceof Literal && right instanceof Literal);
+        }
+        if (node instanceof Conditional conditional) {
+            ExpressionNode condition = fold(conditional.condition());
+            ExpressionNode whenTrue = fold(conditional.whenTrue());
+            ExpressionNode whenFalse = fold(conditional.whenFalse());
+            if (condition instanceof Literal literal && literal.value() instanceof Boolean value) {
+                return value ? whenTrue : whenFalse;
+            }
+            return new Conditional(condition, whenTrue, whenFalse);
+        }
+        return node;
+    }
+
+    private static ExpressionNode evaluateIfConstant(ExpressionNode node, boolean constant) {
+        if (!constant) {
+            return node;
+        }
+        try {
+            return new Literal(new Builder(Map.of(), Map.of(), 0).evaluator(node).eval(NO_SLOTS));
+        } catch (FallbackException | ArithmeticException | NumberFormatException e) {
+            // Leave it to runtime, where SpEL reports the error exactly as it always has
+            return node;
+        }
+    }
+
+    // ---- slot allocation ----
+
+    private static void collectSlots(ExpressionNode node, Map<String, Slot> slots) {
+        if (node instanceof Variable variable) {
+            Slot slot = slots.computeIfAbsent(variable.name(), name -> new Slot(name, slots.size()));
+            // Properties must exist in the map; #variables silently resolve to null
+            slot.required |= !variable.hashPrefixed();
+        } else if (node instanceof Unary unary) {
+            collectSlots(unary.operand(), slots);
+        } else if (node instanceof Binary binary) {
+            collectSlots(binary.left(), slots);
+            collectSlots(binary.right(), slots);
+        } else if (node instanceof Conditional conditional) {
+            collectSlots(conditional.condition(), slots);
+            collectSlots(conditional.whenTrue(), slots);
+            collectSlots(conditional.whenFalse(), slots);
+        }
+    }
+
+    private static final class Slot {
+        private final String name;
+        private final int index;
+        private boolean required;
+
+        private Slot(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+    }
+
+    // ---- lambda generation ----
+
+    private record Builder(Map<String, Slot> slots, Map<ExpressionNode, Integer> sharedIds, int memoSlot) {
+
+        Evaluator evaluator(ExpressionNode node) {
+            Integer sharedId = sharedIds.get(node);
+            if (sharedId == null) {
+                return plainEvaluator(node);
+            }
+            int id = sharedId;
+            Evaluator evaluator = plainEvaluator(node);
+            return s -> {
+                SubExpressionMemo memo = (SubExpressionMemo) s[memoSlot];
+                return memo != null ? memo.get(id, evaluator, s) : evaluator.eval(s);
+            };
+        }
+
+        private Evaluator plainEvaluator(ExpressionNode node) {
+            if (node instanceof Literal literal) {
+                Object value = literal.value();
+                return s -> value;
+            }
+            if (node instanceof Variable variable) {
+                int index = slots.get(variable.name()).index;
+                return s -> s[index];
+            }
+            if (node instanceof Conditional conditional) {
+                Condition condition = condition(conditional.condition());
+                Evaluator whenTrue = evaluator(conditional.whenTrue());
+                Evaluator whenFalse = evaluator(conditional.whenFalse());
+                return s -> condition.test(s) ? whenTrue.eval(s) : whenFalse.eval(s);
+            }
+            if (node instanceof Unary unary) {
+                Evaluator operand = evaluator(unary.operand());
+                return switch (unary.operator()) {
+                    case NOT -> box(plainCondition(node));
+                    case NEGATE -> s -> SpelOperations.negate(operand.eval(s));
+                    case UNARY_PLUS -> s -> SpelOperations.unaryPlus(operand.eval(s));
+                    default -> throw new IllegalStateException("Unexpected unary operator " + unary.operator());
+                };
+            }
+            Binary binary = (Binary) node;
+            if (binary.operator().isLogical() || binary.operator().isRelational()) {
+                return box(plainCondition(node));
+            }
+            Evaluator left = evaluator(binary.left());
+            Evaluator right = evaluator(binary.right());
+            return switch (binary.operator()) {
+                case ADD -> s -> SpelOperations.add(left.eval(s), right.eval(s));
+                case SUBTRACT -> s -> SpelOperations.subtract(left.eval(s), right.eval(s));
+                case MULTIPLY -> s -> SpelOperations.multiply(left.eval(s), right.eval(s));
+                case DIVIDE -> s -> SpelOperations.divide(left.eval(s), right.eval(s));
+                case MODULUS -> s -> SpelOperations.modulus(left.eval(s), right.eval(s));
+                default -> throw new IllegalStateException("Unexpected binary operator " + binary.operator());
+            };
+        }
+
+        Condition condition(ExpressionNode node) {
+            if (sharedIds.containsKey(node)) {
+                Evaluator shared = evaluator(node);
+                return s -> SpelOperations.toBoolean(shared.eval(s));
+            }
+            return plainCondition(node);
+        }
+
+        private Condition plainCondition(ExpressionNode node) {
+            if (node instanceof Literal literal && literal.value() instanceof Boolean value) {
+                boolean constant = value;
+                return s -> constant;
+            }
+            if (node instanceof Unary unary && unary.operator() == Operator.NOT) {
+                Condition operand = condition(unary.operand());
+                return s -> !operand.test(s);
+            }
+            if (node instanceof Binary binary) {
+                Operator operator = binary.operator();
+                if (operator == Operator.AND) {
+                    Condition left = condition(binary.left());
+                    Condition right = condition(binary.right());
+                    return s -> left.test(s) && right.test(s);
+                }
+                if (operator == Operator.OR) {
+                    Condition left = condition(binary.left());
+                    Condition right = condition(binary.right());
+                    return s -> left.test(s) || right.test(s);
+                }
+                if (operator == Operator.EQ || operator == Operator.NE) {
+                    Condition equal = equality(binary.left(), binary.right());
+                    return operator == Operator.EQ ? equal : s -> !equal.test(s);
+                }
+                if (operator.isRelational()) {
+                    return relational(operator, comparison(binary.left(), binary.right()));
+                }
+            }
+            Evaluator value = evaluator(node);
+            return s -> SpelOperations.toBoolean(value.eval(s));
+        }
+
+        private Condition equality(ExpressionNode leftNode, ExpressionNode rightNode) {
+            Evaluator left = evaluator(leftNode);
+            if (rightNode instanceof Literal literal && literal.value() instanceof Integer constant) {
+                int c = constant;
+                return s -> {
+                    Object value = left.eval(s);
+                    return value instanceof Integer i ? i == c : SpelOperations.equal(value, constant);
+                };
+            }
+            Evaluator right = evaluator(rightNode);
+            return s -> SpelOperations.equal(left.eval(s), right.eval(s));
+        }
+
+        private Comparison comparison(ExpressionNode leftNode, ExpressionNode rightNode) {
+            Evaluator left = evaluator(leftNode);
+            if (rightNode instanceof Literal literal && literal.value() instanceof Number constant) {
+                BigDecimal decimal = toDecimal(constant);
+                if (constant instanceof Integer integer) {
+                    int c = integer;
+                    return s -> {
+                        Object value = left.eval(s);
+                        if (value instanceof Integer i) {
+                            return Integer.compare(i, c);
+                        }
+                        if (value instanceof BigDecimal d && decimal != null) {
+                            return d.compareTo(decimal);
+                        }
+                        return SpelOperations.compare(value, constant);
+                    };
+                }
+                return s -> {
+                    Object value = left.eval(s);
+                    if (value instanceof BigDecimal d && decimal != null) {
+                        return d.compareTo(decimal);
+                    }
+                    return SpelOperations.compare(value, constant);
+                };
+            }
+            Evaluator right = evaluator(rightNode);
+            return s -> SpelOperations.compare(left.eval(s), right.eval(s));
+        }
+
+        private static Condition relational(Operator operator, Comparison comparison) {
+            return switch (operator) {
+                case LT -> s -> comparison.compare(s) < 0;
+                case LE -> s -> comparison.compare(s) <= 0;
+                case GT -> s -> comparison.compare(s) > 0;
+                case GE -> s -> comparison.compare(s) >= 0;
+                default -> throw new IllegalStateException("Unexpected relational operator " + operator);
+            };
+        }
+
+        private static Evaluator box(Condition condition) {
+            return s -> condition.test(s) ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+        /**
+         * The constant widened the way SpEL widens it against a BigDecimal, or null for NaN and infinities.
+         */
+        private static BigDecimal toDecimal(Number constant) {
+            try {
+                return SpelOperations.decimal(constant);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
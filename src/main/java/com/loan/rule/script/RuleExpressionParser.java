@@ -0,0 +1,383 @@
+package com.loan.rule.script;
+
+import com.loan.rule.script.ExpressionNode.Binary;
+import com.loan.rule.script.ExpressionNode.Conditional;
+import com.loan.rule.script.ExpressionNode.Literal;
+import com.loan.rule.script.ExpressionNode.Operator;
+import com.loan.rule.script.ExpressionNode.Unary;
+import com.loan.rule.script.ExpressionNode.Variable;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recursive-descent parser for the arithmetic and boolean subset of SpEL used by SCRIPT rules.
+ * <p>
+ * Precedence follows SpEL: ternary, {@code or}, {@code and}, a single (non-associative) relational
+ * operator, additive, multiplicative, unary. Literals, bare and {@code #}-prefixed names and
+ * parentheses are the only primaries; method calls, navigation, indexing, collections, type
+ * references, assignment, elvis and power operators are rejected with
+ * {@link UnsupportedExpressionException}.
+ */
+final class RuleExpressionParser {
+
+    private static final Map<String, Operator> TEXTUAL_OPERATORS = Map.ofEntries(
+        Map.entry("and", Operator.AND),
+        Map.entry("or", Operator.OR),
+        Map.entry("not", Operator.NOT),
+        Map.entry("eq", Operator.EQ),
+        Map.entry("ne", Operator.NE),
+        Map.entry("lt", Operator.LT),
+        Map.entry("le", Operator.LE),
+        Map.entry("gt", Operator.GT),
+        Map.entry("ge", Operator.GE),
+        Map.entry("div", Operator.DIVIDE),
+        Map.entry("mod", Operator.MODULUS)
+    );
+
+    private final String text;
+    private int pos;
+    private Token token;
+
+    private RuleExpressionParser(String text) {
+        this.text = text;
+        advance();
+    }
+
+    static ExpressionNode parse(String script) {
+        RuleExpressionParser parser = new RuleExpressionParser(script);
+        ExpressionNode node = parser.expression();
+        if (parser.token.kind != Kind.END) {
+            throw parser.unsupported("unexpected '" + parser.token.text + "'");
+        }
+        return node;
+    }
+
+    private ExpressionNode expression() {
+        ExpressionNode condition = logicalOr();
+        if (token.kind == Kind.QUESTION) {
+            advance();
+            ExpressionNode whenTrue = expression();
+            expect(Kind.COLON);
+            ExpressionNode whenFalse = expression();
+            return new Conditional(condition, whenTrue, whenFalse);
+        }
+        return condition;
+    }
+
+    private ExpressionNode logicalOr() {
+        ExpressionNode node = logicalAnd();
+        while (token.operator == Operator.OR) {
+            advance();
+            node = new Binary(Operator.OR, node, logicalAnd());
+        }
+        return node;
+    }
+
+    private ExpressionNode logicalAnd() {
+        ExpressionNode node = relational();
+        while (token.operator == Operator.AND) {
+            advance();
+            node = new Binary(Operator.AND, node, relational());
+        }
+        return node;
+    }
+
+    private ExpressionNode relational() {
+        ExpressionNode node = sum();
+        if (token.operator != null && token.operator.isRelational()) {
+            Operator operator = token.operator;
+            advance();
+            node = new Binary(operator, node, sum());
+        }
+        return node;
+    }
+
+    private ExpressionNode sum() {
+        ExpressionNode node = product();
+        while (token.kind == Kind.PLUS || token.kind == Kind.MINUS) {
+            Operator operator = token.kind == Kind.PLUS ? Operator.ADD : Operator.SUBTRACT;
+            advance();
+            node = new Binary(operator, node, product());
+        }
+        return node;
+    }
+
+    private ExpressionNode product() {
+        ExpressionNode node = unary();
+        while (token.operator == Operator.MULTIPLY || token.operator == Operator.DIVIDE
+            || token.operator == Operator.MODULUS) {
+            Operator operator = token.operator;
+            advance();
+            node = new Binary(operator, node, unary());
+        }
+        return node;
+    }
+
+    private ExpressionNode unary() {
+        if (token.kind == Kind.PLUS) {
+            advance();
+            return new Unary(Operator.UNARY_PLUS, unary());
+        }
+        if (token.kind == Kind.MINUS) {
+            advance();
+            return new Unary(Operator.NEGATE, unary());
+        }
+        if (token.operator == Operator.NOT) {
+            advance();
+            return new Unary(Operator.NOT, unary());
+        }
+        return primary();
+    }
+
+    private ExpressionNode primary() {
+        Token current = token;
+        switch (current.kind) {
+            case LITERAL -> {
+                advance();
+                return new Literal(current.value);
+            }
+            case NAME -> {
+                advance();
+                return new Variable(current.text, false);
+            }
+            case HASH_NAME -> {
+                advance();
+                return new Variable(current.text, true);
+            }
+            case LPAREN -> {
+                advance();
+                ExpressionNode node = expression();
+                expect(Kind.RPAREN);
+                return node;
+            }
+            default -> throw unsupported("unexpected '" + current.text + "'");
+        }
+    }
+
+    private void expect(Kind kind) {
+        if (token.kind != kind) {
+            throw unsupported("expected " + kind + " but found '" + token.text + "'");
+        }
+        advance();
+    }
+
+    private UnsupportedExpressionException unsupported(String reason) {
+        return new UnsupportedExpressionException(reason + " at position " + pos + " in: " + text);
+    }
+
+    // ---- tokenizer ----
+
+    private void advance() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= text.length()) {
+            token = new Token(Kind.END, "<end>", null, null);
+            return;
+        }
+
+        char c = text.charAt(pos);
+        char next = pos + 1 < text.length() ? text.charAt(pos + 1) : '\0';
+        if (Character.isDigit(c)) {
+            token = number();
+        } else if (c == '\'' || c == '"') {
+            token = string(c);
+        } else if (isNameStart(c)) {
+            token = name(false);
+        } else if (c == '#') {
+            pos++;
+            if (pos >= text.length() || !isNameStart(text.charAt(pos))) {
+                throw unsupported("unsupported '#' reference");
+            }
+            token = name(true);
+        } else if (c == '&' && next == '&') {
+            token = symbol(2, Operator.AND);
+        } else if (c == '|' && next == '|') {
+            token = symbol(2, Operator.OR);
+        } else if (c == '=' && next == '=') {
+            token = symbol(2, Operator.EQ);
+        } else if (c == '!' && next == '=') {
+            token = symbol(2, Operator.NE);
+        } else if (c == '<' && next == '=') {
+            token = symbol(2, Operator.LE);
+        } else if (c == '>' && next == '=') {
+            token = symbol(2, Operator.GE);
+        } else if (c == '!') {
+            token = symbol(1, Operator.NOT);
+        } else if (c == '<') {
+            token = symbol(1, Operator.LT);
+        } else if (c == '>') {
+            token = symbol(1, Operator.GT);
+        } else if (c == '*') {
+            token = symbol(1, Operator.MULTIPLY);
+        } else if (c == '/') {
+            token = symbol(1, Operator.DIVIDE);
+        } else if (c == '%') {
+            token = symbol(1, Operator.MODULUS);
+        } else if (c == '+' && next != '+') {
+            pos++;
+            token = new Token(Kind.PLUS, "+", null, null);
+        } else if (c == '-' && next != '-') {
+            pos++;
+            token = new Token(Kind.MINUS, "-", null, null);
+        } else if (c == '?' && next != ':' && next != '.' && next != '[') {
+            pos++;
+            token = new Token(Kind.QUESTION, "?", null, null);
+        } else if (c == ':') {
+            pos++;
+            token = new Token(Kind.COLON, ":", null, null);
+        } else if (c == '(') {
+            pos++;
+            token = new Token(Kind.LPAREN, "(", null, null);
+        } else if (c == ')') {
+            pos++;
+            token = new Token(Kind.RPAREN, ")", null, null);
+        } else {
+            throw unsupported("unsupported character '" + c + "'");
+        }
+    }
+
+    private Token symbol(int length, Operator operator) {
+        String symbol = text.substring(pos, pos + length);
+        pos += length;
+        return new Token(Kind.OPERATOR, symbol, null, operator);
+    }
+
+    private Token name(boolean hashPrefixed) {
+        int start = pos;
+        while (pos < text.length() && isNamePart(text.charAt(pos))) {
+            pos++;
+        }
+        String name = text.substring(start, pos);
+        if (pos < text.length() && (text.charAt(pos) == '.' || text.charAt(pos) == '(' || text.charAt(pos) == '[')) {
+            throw unsupported("method calls, navigation and indexing are not supported");
+        }
+        if (hashPrefixed) {
+            if (name.equals("this") || name.equals("root")) {
+                throw unsupported("#" + name + " is not supported");
+            }
+            return new Token(Kind.HASH_NAME, name, null, null);
+        }
+
+        String lower = name.toLowerCase(Locale.ROOT);
+        switch (lower) {
+            case "true" -> {
+                return new Token(Kind.LITERAL, name, Boolean.TRUE, null);
+            }
+            case "false" -> {
+                return new Token(Kind.LITERAL, name, Boolean.FALSE, null);
+            }
+            case "null" -> {
+                return new Token(Kind.LITERAL, name, null, null);
+            }
+            case "new", "instanceof", "matches", "between" -> throw unsupported("'" + name + "' is not supported");
+            default -> {
+                Operator operator = TEXTUAL_OPERATORS.get(lower);
+                if (operator != null) {
+                    return new Token(Kind.OPERATOR, name, null, operator);
+                }
+                return new Token(Kind.NAME, name, null, null);
+            }
+        }
+    }
+
+    private Token number() {
+        int start = pos;
+        if (text.charAt(pos) == '0' && pos + 1 < text.length()
+            && (text.charAt(pos + 1) == 'x' || text.charAt(pos + 1) == 'X')) {
+            throw unsupported("hexadecimal literals are not supported");
+        }
+        while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+            pos++;
+        }
+        boolean real = false;
+        if (pos + 1 < text.length() && text.charAt(pos) == '.' && Character.isDigit(text.charAt(pos + 1))) {
+            real = true;
+            pos++;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            real = true;
+            pos++;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (pos >= text.length() || !Character.isDigit(text.charAt(pos))) {
+                throw unsupported("malformed exponent");
+            }
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        String literal = text.substring(start, pos);
+        char suffix = pos < text.length() ? text.charAt(pos) : '\0';
+
+        Object value;
+        try {
+            if (suffix == 'L' || suffix == 'l') {
+                if (real) {
+                    throw unsupported("real literal with long suffix");
+                }
+                pos++;
+                value = Long.parseLong(literal);
+            } else if (suffix == 'f' || suffix == 'F') {
+                pos++;
+                value = Float.parseFloat(literal);
+            } else if (suffix == 'd' || suffix == 'D') {
+                pos++;
+                value = Double.parseDouble(literal);
+            } else if (real) {
+                value = Double.parseDouble(literal);
+            } else {
+                value = Integer.parseInt(literal);
+            }
+        } catch (NumberFormatException e) {
+            throw unsupported("numeric literal out of range: " + literal);
+        }
+        if (pos < text.length() && (isNamePart(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            throw unsupported("malformed numeric literal");
+        }
+        return new Token(Kind.LITERAL, text.substring(start, pos), value, null);
+    }
+
+    private Token string(char quote) {
+        int start = pos;
+        StringBuilder value = new StringBuilder();
+        pos++;
+        while (true) {
+            if (pos >= text.length()) {
+                throw unsupported("unterminated string literal");
+            }
+            char c = text.charAt(pos++);
+            if (c == quote) {
+                if (pos < text.length() && text.charAt(pos) == quote) {
+                    value.append(quote);
+                    pos++;
+                } else {
+                    break;
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        return new Token(Kind.LITERAL, text.substring(start, pos), value.toString(), null);
+    }
+
+    private static boolean isNameStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private enum Kind {
+        LITERAL, NAME, HASH_NAME, OPERATOR, PLUS, MINUS, QUESTION, COLON, LPAREN, RPAREN, END
+    }
+
+    private record Token(Kind kind, String text, Object value, Operator operator) {
+    }
+}
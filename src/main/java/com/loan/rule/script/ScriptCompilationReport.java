@@ -0,0 +1,23 @@
+package com.loan.rule.script;
+
+/**
+ * Compilation status and observed evaluation cost of one SCRIPT expression.
+ * {@code speedup} is the ratio of average interpreted to average compiled time,
+ * or null until both modes have been observed. {@code nativeEvaluations} counts calls answered by
+ * {@link RuleExpressionCompiler} output and {@code nativeFallbacks} the calls it handed to SpEL.
+ */
+public record ScriptCompilationReport(
+    Long ruleId,
+    String script,
+    ScriptExpression.CompilationState state,
+    long interpretedEvaluations,
+    long avgInterpretedNanos,
+    long compiledEvaluations,
+    long avgCompiledNanos,
+    Double speedup,
+    String fallbackReason,
+    boolean nativeCompiled,
+    long nativeEvaluations,
+    long nativeFallbacks
+) {
+}
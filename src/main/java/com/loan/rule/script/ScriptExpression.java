@@ -0,0 +1,174 @@
+package com.loan.rule.script;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A parsed SCRIPT rule expression together with its compilation state.
+ * <p>
+ * Expressions are parsed with the SpEL compiler switched off so this class decides when to
+ * compile: as soon as one warm interpreted run has been timed in {@link SpelCompilerMode#IMMEDIATE}
+ * mode, after {@code mixedThreshold} runs in {@link SpelCompilerMode#MIXED} mode. The first
+ * (cold) evaluation is never timed so it does not inflate the reported speedup. If the compiled form
+ * fails at runtime the expression reverts to interpretation and the call is re-evaluated;
+ * after {@link #MAX_COMPILE_FAILURES} failures it stays interpreted for good.
+ * <p>
+ * When the script also compiled with {@link RuleExpressionCompiler}, map-based evaluations run the
+ * native form first and only use SpEL for the calls it hands back via {@link FallbackException}.
+ */
+@Slf4j
+public class ScriptExpression {
+
+    static final int MAX_COMPILE_FAILURES = 3;
+
+    public enum CompilationState {
+        INTERPRETED,
+        COMPILED,
+        NOT_COMPILABLE
+    }
+
+    private final Long ruleId;
+    private final SpelExpression expression;
+    private final CompiledRuleExpression nativeExpression;
+    private final SpelCompilerMode compilerMode;
+    private final int compileThreshold;
+
+    private final AtomicReference<CompilationState> state = new AtomicReference<>(CompilationState.INTERPRETED);
+    private final AtomicInteger runsSinceCompileAttempt = new AtomicInteger();
+    private final AtomicInteger compileFailures = new AtomicInteger();
+    private final LongAdder interpretedCount = new LongAdder();
+    private final LongAdder interpretedNanos = new LongAdder();
+    private final LongAdder compiledCount = new LongAdder();
+    private final LongAdder compiledNanos = new LongAdder();
+    private final LongAdder nativeCount = new LongAdder();
+    private final LongAdder nativeFallbacks = new LongAdder();
+    private volatile boolean warm;
+    private volatile String fallbackReason;
+
+    ScriptExpression(Long ruleId, SpelExpression expression, CompiledRuleExpression nativeExpression,
+                     SpelCompilerMode compilerMode, int mixedThreshold) {
+        this.ruleId = ruleId;
+        this.expression = expression;
+        this.nativeExpression = nativeExpression;
+        this.compilerMode = compilerMode;
+        this.compileThreshold = compilerMode == SpelCompilerMode.IMMEDIATE ? 2 : Math.max(2, mixedThreshold);
+    }
+
+    /**
+     * Evaluates the expression against the given context map without copying it.
+     * Entries are readable both as properties ({@code age}) and as variables ({@code #age}).
+     */
+    public Object getValue(Map<String, Object> variables) {
+        return evaluate(variables, null);
+    }
+
+    public Object getValue(EvaluationContext evalContext) {
+        if (evalContext instanceof MapEvaluationContext mapContext) {
+            return evaluate(mapContext.getVariables(), mapContext);
+        }
+        return evaluateSpel(evalContext);
+    }
+
+    /**
+     * @param mapContext A context over {@code variables} to reuse for SpEL, or null to create one if needed
+     */
+    private Object evaluate(Map<String, Object> variables, MapEvaluationContext mapContext) {
+        if (nativeExpression != null) {
+            try {
+                Object value = nativeExpression.evaluate(variables);
+                nativeCount.increment();
+                return value;
+            } catch (FallbackException e) {
+                nativeFallbacks.increment();
+            }
+        }
+        return evaluateSpel(mapContext != null ? mapContext : new MapEvaluationContext(variables));
+    }
+
+    private Object evaluateSpel(EvaluationContext evalContext) {
+        if (state.get() == CompilationState.COMPILED) {
+            long start = System.nanoTime();
+            try {
+                Object value = expression.getValue(evalContext);
+                compiledNanos.add(System.nanoTime() - start);
+                compiledCount.increment();
+                return value;
+            } catch (SpelEvaluationException e) {
+                if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                    throw e;
+                }
+                revertToInterpreted(e);
+            }
+        }
+
+        long start = System.nanoTime();
+        Object value = expression.getValue(evalContext);
+        if (warm) {
+            interpretedNanos.add(System.nanoTime() - start);
+            interpretedCount.increment();
+        } else {
+            warm = true;
+        }
+        maybeCompile();
+        return value;
+    }
+
+    public String getExpressionString() {
+        return expression.getExpressionString();
+    }
+
+    public ScriptCompilationReport getReport() {
+        long interpreted = interpretedCount.sum();
+        long compiled = compiledCount.sum();
+        long avgInterpreted = interpreted == 0 ? 0 : interpretedNanos.sum() / interpreted;
+        long avgCompiled = compiled == 0 ? 0 : compiledNanos.sum() / compiled;
+        Double speedup = avgInterpreted > 0 && avgCompiled > 0 ? (double) avgInterpreted / avgCompiled : null;
+        return new ScriptCompilationReport(ruleId, getExpressionString(), state.get(),
+            interpreted, avgInterpreted, compiled, avgCompiled, speedup, fallbackReason,
+            nativeExpression != null, nativeCount.sum(), nativeFallbacks.sum());
+    }
+
+    private void maybeCompile() {
+        if (compilerMode == SpelCompilerMode.OFF || state.get() != CompilationState.INTERPRETED) {
+            return;
+        }
+        if (runsSinceCompileAttempt.incrementAndGet() < compileThreshold) {
+            return;
+        }
+        runsSinceCompileAttempt.set(0);
+
+        if (expression.compileExpression()) {
+            if (state.compareAndSet(CompilationState.INTERPRETED, CompilationState.COMPILED)) {
+                log.debug("Compiled script expression for rule {}: {}", ruleId, getExpressionString());
+            }
+        } else {
+            state.set(CompilationState.NOT_COMPILABLE);
+            fallbackReason = "Expression is not compilable";
+            log.debug("Script expression for rule {} is not compilable, staying interpreted: {}",
+                ruleId, getExpressionString());
+        }
+    }
+
+    private void revertToInterpreted(SpelEvaluationException e) {
+        expression.revertToInterpreted();
+        String cause = e.getCause() != null ? e.getCause().toString() : e.getMessage();
+        fallbackReason = "Compiled expression failed: " + cause;
+        if (compileFailures.incrementAndGet() >= MAX_COMPILE_FAILURES) {
+            state.set(CompilationState.NOT_COMPILABLE);
+            log.warn("Script expression for rule {} failed {} times in compiled form, interpreting from now on: {}",
+                ruleId, MAX_COMPILE_FAILURES, cause);
+        } else {
+            state.set(CompilationState.INTERPRETED);
+            log.debug("Script expression for rule {} reverted to interpreted mode: {}", ruleId, cause);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.loan.rule.script;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared, bounded cache of parsed SCRIPT rule expressions.
+ * <p>
+ * Entries are keyed by rule id and script content, so an edited script never hits a stale
+ * entry: the first lookup with the new content misses, drops the old versions of that rule
+ * and parses again. Each entry carries its own compilation state, see {@link ScriptExpression}.
+ */
+@Slf4j
+@Component
+public class ScriptExpressionCache implements MeterBinder {
+
+    private final SpelExpressionParser parser;
+    private final ConcurrentMap<CacheKey, ScriptExpression> expressions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxSize;
+    private final SpelCompilerMode compilerMode;
+    private final int mixedThreshold;
+    private final boolean nativeEnabled;
+
+    public ScriptExpressionCache(RuleEngineProperties properties) {
+        this.maxSize = Math.max(1, properties.getScriptCache().getMaxSize());
+        this.compilerMode = properties.getScriptCompiler().getMode();
+        this.mixedThreshold = properties.getScriptCompiler().getMixedThreshold();
+        this.nativeEnabled = properties.getScriptCompiler().isNativeEnabled();
+        // Compilation is driven by ScriptExpression, so SpEL itself never compiles on its own
+        this.parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.OFF, getClass().getClassLoader()));
+        log.info("Script expression cache initialized with max size {}, compiler mode {} and native compiler {}",
+            maxSize, compilerMode, nativeEnabled ? "enabled" : "disabled");
+    }
+
+    public ScriptExpression get(Rule rule) {
+        return get(rule.getId(), rule.getRuleScript());
+    }
+
+    /**
+     * Returns the parsed expression for the given script, parsing it on a miss.
+     * @param ruleId The id of the owning rule, or null for ad-hoc scripts
+     * @param script The SpEL script
+     * @return The parsed expression
+     */
+    public ScriptExpression get(Long ruleId, String script) {
+        CacheKey key = new CacheKey(ruleId, script);
+        ScriptExpression expression = expressions.get(key);
+        if (expression != null) {
+            hits.increment();
+            return expression;
+        }
+
+        misses.increment();
+        if (ruleId != null) {
+            invalidate(ruleId);
+        }
+        SpelExpression spelExpression = (SpelExpression) parser.parseExpression(script);
+        expression = new ScriptExpression(ruleId, spelExpression, compileNative(ruleId, script),
+            compilerMode, mixedThreshold);
+        evictIfFull();
+        ScriptExpression existing = expressions.putIfAbsent(key, expression);
+        return existing != null ? existing : expression;
+    }
+
+    /**
+     * Drops every cached version of the given rule.
+     */
+    public void invalidate(Long ruleId) {
+        if (expressions.keySet().removeIf(key -> ruleId.equals(key.ruleId()))) {
+            log.debug("Invalidated cached script expressions for rule: {}", ruleId);
+        }
+    }
+
+    public void invalidateAll() {
+        expressions.clear();
+    }
+
+    public List<ScriptCompilationReport> getCompilationReports() {
+        return expressions.values().stream()
+            .map(ScriptExpression::getReport)
+            .toList();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expressions.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rule.script.cache.hits", hits, LongAdder::sum)
+            .description("SCRIPT rule expression cache hits")
+            .register(registry);
+        FunctionCounter.builder("rule.script.cache.misses", misses, LongAdder::sum)
+            .description("SCRIPT rule expression cache misses")
+            .register(registry);
+        FunctionCounter.builder("rule.script.cache.evictions", evictions, LongAdder::sum)
+            .description("SCRIPT rule expressions evicted because the cache was full")
+            .register(registry);
+        Gauge.builder("rule.script.cache.size", expressions, ConcurrentMap::size)
+            .description("Parsed SCRIPT rule expressions currently cached")
+            .register(registry);
+    }
+
+    private CompiledRuleExpression compileNative(Long ruleId, String script) {
+        if (!nativeEnabled) {
+            return null;
+        }
+        try {
+            return RuleExpressionCompiler.compile(script);
+        } catch (UnsupportedExpressionException e) {
+            log.debug("Script for rule {} stays on SpEL: {}", ruleId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void evictIfFull() {
+        Iterator<CacheKey> iterator = expressions.keySet().iterator();
+        while (expressions.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private record CacheKey(Long ruleId, String script) {
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, int size) {
+    }
+}
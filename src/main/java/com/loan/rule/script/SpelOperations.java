@@ -0,0 +1,265 @@
+package com.loan.rule.script;
+
+import com.loan.rule.math.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Operator semantics of SpEL's {@code OpPlus}, {@code OpLT}, {@code OpEQ} and friends, reimplemented
+ * for the operand types SCRIPT rules actually see. Numbers are promoted the same way SpEL does
+ * (BigDecimal, Double, Float, Long, then int), BigDecimal division keeps the larger operand scale
+ * with {@link RoundingMode#HALF_EVEN}, and non-BigDecimal operands are widened through
+ * {@code new BigDecimal(n.toString())}.
+ * <p>
+ * Any combination SpEL would hand to its type converter, comparator or operator overloader, as well
+ * as BigInteger and custom {@link Number} types, throws {@link FallbackException} so the caller
+ * re-evaluates with SpEL and gets SpEL's answer or error.
+ */
+final class SpelOperations {
+
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int FLOAT = 3;
+    private static final int DOUBLE = 4;
+    private static final int DECIMAL = 5;
+
+    private SpelOperations() {
+    }
+
+    static Object add(Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            return l + r;
+        }
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> decimal(l).add(decimal(r));
+                case DOUBLE -> l.doubleValue() + r.doubleValue();
+                case FLOAT -> l.floatValue() + r.floatValue();
+                case LONG -> l.longValue() + r.longValue();
+                default -> l.intValue() + r.intValue();
+            };
+        }
+        if (left instanceof String l && right instanceof String r) {
+            return l.concat(r);
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static Object subtract(Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            return l - r;
+        }
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> decimal(l).subtract(decimal(r));
+                case DOUBLE -> l.doubleValue() - r.doubleValue();
+                case FLOAT -> l.floatValue() - r.floatValue();
+                case LONG -> l.longValue() - r.longValue();
+                default -> l.intValue() - r.intValue();
+            };
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static Object multiply(Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            return l * r;
+        }
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> decimal(l).multiply(decimal(r));
+                case DOUBLE -> l.doubleValue() * r.doubleValue();
+                case FLOAT -> l.floatValue() * r.floatValue();
+                case LONG -> l.longValue() * r.longValue();
+                default -> l.intValue() * r.intValue();
+            };
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static Object divide(Object left, Object right) {
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> divide(decimal(l), decimal(r));
+                case DOUBLE -> l.doubleValue() / r.doubleValue();
+                case FLOAT -> l.floatValue() / r.floatValue();
+                case LONG -> l.longValue() / r.longValue();
+                default -> l.intValue() / r.intValue();
+            };
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static BigDecimal divide(BigDecimal left, BigDecimal right) {
+        return FixedPoint.divide(left, right, Math.max(left.scale(), right.scale()), RoundingMode.HALF_EVEN);
+    }
+
+    static Object modulus(Object left, Object right) {
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> decimal(l).remainder(decimal(r));
+                case DOUBLE -> l.doubleValue() % r.doubleValue();
+                case FLOAT -> l.floatValue() % r.floatValue();
+                case LONG -> l.longValue() % r.longValue();
+                default -> l.intValue() % r.intValue();
+            };
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static Object negate(Object operand) {
+        if (operand instanceof Integer i) {
+            return -i;
+        }
+        if (operand instanceof Long l) {
+            return -l;
+        }
+        if (operand instanceof Double d) {
+            return -d;
+        }
+        if (operand instanceof Float f) {
+            return -f;
+        }
+        if (operand instanceof BigDecimal d) {
+            return d.negate();
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static Object unaryPlus(Object operand) {
+        if (operand instanceof Number number && rank(number) > 0) {
+            return operand;
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    /**
+     * Three-way comparison as used by SpEL's relational operators.
+     */
+    static int compare(Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            return Integer.compare(l, r);
+        }
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> compareDecimal(l, r);
+                // Not Double.compare: -0.0 must equal 0.0 like the primitive operators do
+                case DOUBLE -> primitiveCompare(l.doubleValue(), r.doubleValue());
+                case FLOAT -> primitiveCompare(l.floatValue(), r.floatValue());
+                default -> Long.compare(l.longValue(), r.longValue());
+            };
+        }
+        if (left instanceof String l && right instanceof String r) {
+            return l.compareTo(r);
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static boolean lessThan(Object left, Object right) {
+        return compare(left, right) < 0;
+    }
+
+    static boolean lessOrEqual(Object left, Object right) {
+        return compare(left, right) <= 0;
+    }
+
+    static boolean greaterThan(Object left, Object right) {
+        return compare(left, right) > 0;
+    }
+
+    static boolean greaterOrEqual(Object left, Object right) {
+        return compare(left, right) >= 0;
+    }
+
+    static boolean equal(Object left, Object right) {
+        if (left instanceof Integer l && right instanceof Integer r) {
+            return l.intValue() == r.intValue();
+        }
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (promote(l, r)) {
+                case DECIMAL -> compareDecimal(l, r) == 0;
+                case DOUBLE -> l.doubleValue() == r.doubleValue();
+                case FLOAT -> l.floatValue() == r.floatValue();
+                default -> l.longValue() == r.longValue();
+            };
+        }
+        if (left instanceof CharSequence l && right instanceof CharSequence r) {
+            return l.toString().equals(r.toString());
+        }
+        if (left instanceof Boolean l && right instanceof Boolean r) {
+            return l.equals(r);
+        }
+        if (left == null || right == null) {
+            return left == right;
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static boolean toBoolean(Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        throw FallbackException.INSTANCE;
+    }
+
+    static BigDecimal decimal(Number number) {
+        if (number instanceof BigDecimal d) {
+            return d;
+        }
+        // Same value and scale as parsing toString(), without the string
+        if (number instanceof Integer || number instanceof Long) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    /**
+     * Compares with integral operands on scaled longs instead of widening them to BigDecimal.
+     */
+    private static int compareDecimal(Number left, Number right) {
+        if (left instanceof BigDecimal l && (right instanceof Integer || right instanceof Long)) {
+            return FixedPoint.compare(l, right.longValue());
+        }
+        if (right instanceof BigDecimal r && (left instanceof Integer || left instanceof Long)) {
+            return -FixedPoint.compare(r, left.longValue());
+        }
+        return decimal(left).compareTo(decimal(right));
+    }
+
+    private static int promote(Number left, Number right) {
+        int l = rank(left);
+        int r = rank(right);
+        if (l == 0 || r == 0) {
+            throw FallbackException.INSTANCE;
+        }
+        return Math.max(l, r);
+    }
+
+    private static int rank(Number number) {
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return INT;
+        }
+        if (number instanceof Long) {
+            return LONG;
+        }
+        if (number instanceof Double) {
+            return DOUBLE;
+        }
+        if (number instanceof Float) {
+            return FLOAT;
+        }
+        if (number instanceof BigDecimal) {
+            return DECIMAL;
+        }
+        return 0;
+    }
+
+    private static int primitiveCompare(double left, double right) {
+        if (Double.isNaN(left) || Double.isNaN(right)) {
+            // Every relational operator is false for NaN, which no three-way result can express
+            throw FallbackException.INSTANCE;
+        }
+        return left < right ? -1 : (left > right ? 1 : 0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.loan.rule.script;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-request store for sub-expressions shared between SCRIPT rules of one workflow step.
+ * <p>
+ * Shared nodes are numbered when the step plan is built, so a lookup is an array read rather than
+ * a hash of the syntax tree. Rules evaluated in parallel may both compute a missing value; they
+ * compute the same value, so the first one stored wins and nothing is locked.
+ */
+public final class SubExpressionMemo {
+
+    private static final Object NULL = new Object();
+
+    private final AtomicReferenceArray<Object> values;
+    private final AtomicInteger computed = new AtomicInteger();
+    private final AtomicInteger reused = new AtomicInteger();
+
+    public SubExpressionMemo(int size) {
+        this.values = new AtomicReferenceArray<>(size);
+    }
+
+    Object get(int id, RuleExpressionCompiler.Evaluator evaluator, Object[] slots) {
+        Object value = values.get(id);
+        if (value != null) {
+            reused.incrementAndGet();
+            return value == NULL ? null : value;
+        }
+        Object result = evaluator.eval(slots);
+        values.compareAndSet(id, null, result == null ? NULL : result);
+        computed.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Number of shared sub-expression evaluations actually performed.
+     */
+    public int getComputed() {
+        return computed.get();
+    }
+
+    /**
+     * Number of evaluations saved by reusing an already computed value.
+     */
+    public int getReused() {
+        return reused.get();
+    }
+}
@@ -0,0 +1,12 @@
+package com.loan.rule.script;
+
+/**
+ * Thrown when a script uses syntax outside the subset handled by {@link RuleExpressionCompiler};
+ * such scripts are evaluated by SpEL instead.
+ */
+public class UnsupportedExpressionException extends RuntimeException {
+
+    public UnsupportedExpressionException(String message) {
+        super(message);
+    }
+}
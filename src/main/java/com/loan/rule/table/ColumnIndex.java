@@ -0,0 +1,17 @@
+package com.loan.rule.table;
+
+import java.util.BitSet;
+
+/**
+ * Index over one input column of a decision table.
+ */
+interface ColumnIndex {
+
+    String column();
+
+    /**
+     * Rows whose cell for this column accepts the value, including wildcard rows.
+     * The returned set is shared and must not be modified.
+     */
+    BitSet lookup(Object value);
+}
@@ -0,0 +1,175 @@
+package com.loan.rule.table;
+
+import com.loan.rule.table.DecisionTableDefinition.ColumnType;
+import com.loan.rule.table.DecisionTableDefinition.Input;
+import com.loan.rule.table.DecisionTableDefinition.Row;
+import com.loan.rule.table.NumericIntervalIndex.Interval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A decision table compiled into one index per input column.
+ * <p>
+ * Evaluation looks each input up in its column index (a binary search for NUMBER columns, a hash
+ * probe for ENUM columns) and intersects the resulting row sets, so no row is ever tested on its
+ * own. With a single output column the table returns the output value, otherwise a map of output
+ * name to value. {@link HitPolicy#FIRST} returns the first matching row's output or null;
+ * {@link HitPolicy#COLLECT} returns a list with the output of every matching row.
+ * Instances are immutable and thread-safe.
+ */
+public final class DecisionTable {
+
+    private final HitPolicy hitPolicy;
+    private final List<String> outputs;
+    private final List<Object> rowOutputs;
+    private final ColumnIndex[] columns;
+    private final BitSet allRows;
+
+    private DecisionTable(HitPolicy hitPolicy, List<String> outputs, List<Object> rowOutputs, ColumnIndex[] columns) {
+        this.hitPolicy = hitPolicy;
+        this.outputs = outputs;
+        this.rowOutputs = rowOutputs;
+        this.columns = columns;
+        this.allRows = new BitSet(rowOutputs.size());
+        this.allRows.set(0, rowOutputs.size());
+    }
+
+    /**
+     * Validates the definition and builds the column indexes.
+     * @throws IllegalArgumentException if the definition is inconsistent
+     */
+    public static DecisionTable compile(DecisionTableDefinition definition) {
+        if (definition.getOutputs() == null || definition.getOutputs().isEmpty()) {
+            throw new IllegalArgumentException("Decision table must declare at least one output");
+        }
+        List<Input> inputs = definition.getInputs() != null ? definition.getInputs() : List.of();
+        List<Row> rows = definition.getRows() != null ? definition.getRows() : List.of();
+        List<String> outputs = List.copyOf(definition.getOutputs());
+
+        Set<String> inputNames = new HashSet<>();
+        for (Input input : inputs) {
+            if (input.getName() == null || !inputNames.add(input.getName())) {
+                throw new IllegalArgumentException("Decision table input names must be present and unique");
+            }
+        }
+
+        List<Object> rowOutputs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            Map<String, Object> when = row.getWhen() != null ? row.getWhen() : Map.of();
+            Map<String, Object> then = row.getThen() != null ? row.getThen() : Map.of();
+            checkColumns("row " + (i + 1) + " condition", when.keySet(), inputNames);
+            checkColumns("row " + (i + 1) + " output", then.keySet(), outputs);
+
+            if (outputs.size() == 1) {
+                rowOutputs.add(then.get(outputs.get(0)));
+            } else {
+                Map<String, Object> output = new LinkedHashMap<>();
+                outputs.forEach(name -> output.put(name, then.get(name)));
+                rowOutputs.add(Collections.unmodifiableMap(output));
+            }
+        }
+
+        ColumnIndex[] columns = new ColumnIndex[inputs.size()];
+        for (int c = 0; c < inputs.size(); c++) {
+            Input input = inputs.get(c);
+            columns[c] = input.getType() == ColumnType.ENUM
+                ? EnumHashIndex.build(input.getName(), enumCells(input.getName(), rows))
+                : NumericIntervalIndex.build(input.getName(), numericCells(input.getName(), rows));
+        }
+
+        HitPolicy hitPolicy = definition.getHitPolicy() != null ? definition.getHitPolicy() : HitPolicy.FIRST;
+        return new DecisionTable(hitPolicy, outputs, Collections.unmodifiableList(rowOutputs), columns);
+    }
+
+    public Object evaluate(Map<String, Object> context) {
+        BitSet matches = matchingRows(context);
+        if (hitPolicy == HitPolicy.FIRST) {
+            int first = matches.nextSetBit(0);
+            return first >= 0 ? rowOutputs.get(first) : null;
+        }
+        List<Object> collected = new ArrayList<>(matches.cardinality());
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            collected.add(rowOutputs.get(row));
+        }
+        return collected;
+    }
+
+    /**
+     * Indexes of all rows whose conditions hold for the context; a fresh set owned by the caller.
+     */
+    public BitSet matchingRows(Map<String, Object> context) {
+        if (columns.length == 0) {
+            return (BitSet) allRows.clone();
+        }
+        BitSet matches = (BitSet) columns[0].lookup(context.get(columns[0].column())).clone();
+        for (int c = 1; c < columns.length && !matches.isEmpty(); c++) {
+            matches.and(columns[c].lookup(context.get(columns[c].column())));
+        }
+        return matches;
+    }
+
+    public HitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+
+    /**
+     * Names of the input columns, which are the context keys the table reads.
+     */
+    public List<String> getInputs() {
+        return Arrays.stream(columns).map(ColumnIndex::column).toList();
+    }
+
+    public List<String> getOutputs() {
+        return outputs;
+    }
+
+    public int getRowCount() {
+        return rowOutputs.size();
+    }
+
+    private static List<Interval> numericCells(String column, List<Row> rows) {
+        List<Interval> cells = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Object cell = row.getWhen() != null ? row.getWhen().get(column) : null;
+            cells.add(isWildcard(cell) ? null : Interval.parse(column, cell));
+        }
+        return cells;
+    }
+
+    private static List<List<String>> enumCells(String column, List<Row> rows) {
+        List<List<String>> cells = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Object cell = row.getWhen() != null ? row.getWhen().get(column) : null;
+            if (isWildcard(cell)) {
+                cells.add(null);
+            } else if (cell instanceof Collection<?> values) {
+                cells.add(values.stream().map(String::valueOf).toList());
+            } else {
+                cells.add(List.of(String.valueOf(cell)));
+            }
+        }
+        return cells;
+    }
+
+    private static boolean isWildcard(Object cell) {
+        return cell == null || "-".equals(cell) || "*".equals(cell);
+    }
+
+    private static void checkColumns(String location, Collection<String> used, Collection<String> declared) {
+        for (String name : used) {
+            if (!declared.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + name + "' in " + location);
+            }
+        }
+    }
+}
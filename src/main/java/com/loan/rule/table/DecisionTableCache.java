@@ -0,0 +1,81 @@
+package com.loan.rule.table;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared, bounded cache of compiled decision tables, keyed by rule id and table JSON like
+ * {@link com.loan.rule.script.ScriptExpressionCache}: editing a table compiles it again on next use.
+ */
+@Slf4j
+@Component
+public class DecisionTableCache {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<CacheKey, DecisionTable> tables = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public DecisionTableCache(ObjectMapper objectMapper, RuleEngineProperties properties) {
+        // Decimal outputs such as limit factors must stay exact
+        this.objectMapper = objectMapper.copy().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.maxSize = Math.max(1, properties.getDecisionTableCache().getMaxSize());
+    }
+
+    public DecisionTable get(Rule rule) {
+        CacheKey key = new CacheKey(rule.getId(), rule.getRuleScript());
+        DecisionTable table = tables.get(key);
+        if (table != null) {
+            return table;
+        }
+
+        if (rule.getId() != null) {
+            invalidate(rule.getId());
+        }
+        table = compile(rule);
+        evictIfFull();
+        DecisionTable existing = tables.putIfAbsent(key, table);
+        return existing != null ? existing : table;
+    }
+
+    /**
+     * Drops every cached version of the given rule.
+     */
+    public void invalidate(Long ruleId) {
+        tables.keySet().removeIf(key -> ruleId.equals(key.ruleId()));
+    }
+
+    public void invalidateAll() {
+        tables.clear();
+    }
+
+    private DecisionTable compile(Rule rule) {
+        try {
+            DecisionTable table = DecisionTable.compile(
+                objectMapper.readValue(rule.getRuleScript(), DecisionTableDefinition.class));
+            log.debug("Compiled decision table for rule {} with {} rows", rule.getName(), table.getRowCount());
+            return table;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid decision table JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private void evictIfFull() {
+        Iterator<CacheKey> iterator = tables.keySet().iterator();
+        while (tables.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record CacheKey(Long ruleId, String definition) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.loan.rule.table;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON form of a decision table, stored in {@code rules.rule_script} of a DECISION_TABLE rule.
+ * <pre>
+ * {
+ *   "hitPolicy": "FIRST",
+ *   "inputs": [{"name": "creditScore", "type": "NUMBER"}, {"name": "employmentType", "type": "ENUM"}],
+ *   "outputs": ["limitFactor"],
+ *   "rows": [
+ *     {"when": {"creditScore": "&gt;= 750", "employmentType": "PERMANENT"}, "then": {"limitFactor": 1.8}},
+ *     {"when": {"creditScore": "[650..750)"}, "then": {"limitFactor": 1.2}},
+ *     {"then": {"limitFactor": 1.0}}
+ *   ]
+ * }
+ * </pre>
+ * NUMBER cells are a number, a comparison ({@code < <= > >= =}) or an interval such as
+ * {@code [650..750)}; ENUM cells are a value or a list of values. A missing cell, {@code "-"}
+ * or {@code "*"} matches anything, including a missing input.
+ */
+@Data
+public class DecisionTableDefinition {
+
+    private HitPolicy hitPolicy = HitPolicy.FIRST;
+    private List<Input> inputs = new ArrayList<>();
+    private List<String> outputs = new ArrayList<>();
+    private List<Row> rows = new ArrayList<>();
+
+    public enum ColumnType {
+        NUMBER,
+        ENUM
+    }
+
+    @Data
+    public static class Input {
+        private String name;
+        private ColumnType type = ColumnType.NUMBER;
+    }
+
+    @Data
+    public static class Row {
+        private Map<String, Object> when = new LinkedHashMap<>();
+        private Map<String, Object> then = new LinkedHashMap<>();
+    }
+}
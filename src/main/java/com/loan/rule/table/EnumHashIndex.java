@@ -0,0 +1,56 @@
+package com.loan.rule.table;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index for ENUM columns: one precomputed row set per listed value, each already including
+ * the wildcard rows, so a lookup is a single hash probe.
+ */
+final class EnumHashIndex implements ColumnIndex {
+
+    private final String column;
+    private final Map<String, BitSet> rowsByValue;
+    private final BitSet wildcardRows;
+
+    private EnumHashIndex(String column, Map<String, BitSet> rowsByValue, BitSet wildcardRows) {
+        this.column = column;
+        this.rowsByValue = rowsByValue;
+        this.wildcardRows = wildcardRows;
+    }
+
+    /**
+     * @param cells One entry per row: the accepted values, or null for a wildcard
+     */
+    static EnumHashIndex build(String column, List<List<String>> cells) {
+        BitSet wildcardRows = new BitSet(cells.size());
+        Map<String, BitSet> rowsByValue = new HashMap<>();
+        for (int row = 0; row < cells.size(); row++) {
+            if (cells.get(row) == null) {
+                wildcardRows.set(row);
+                continue;
+            }
+            for (String value : cells.get(row)) {
+                rowsByValue.computeIfAbsent(value, v -> new BitSet(cells.size())).set(row);
+            }
+        }
+        rowsByValue.values().forEach(rows -> rows.or(wildcardRows));
+        return new EnumHashIndex(column, rowsByValue, wildcardRows);
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public BitSet lookup(Object value) {
+        if (value == null) {
+            return wildcardRows;
+        }
+        String key = value instanceof Enum<?> constant ? constant.name() : value.toString();
+        return rowsByValue.getOrDefault(key, wildcardRows);
+    }
+}
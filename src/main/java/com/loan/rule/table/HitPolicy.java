@@ -0,0 +1,9 @@
+package com.loan.rule.table;
+
+/**
+ * How a decision table combines the rows that match an input.
+ */
+public enum HitPolicy {
+    FIRST,      // Output of the first matching row, in table order
+    COLLECT     // Outputs of every matching row, in table order
+}
@@ -0,0 +1,187 @@
+package com.loan.rule.table;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Interval index for NUMBER columns.
+ * <p>
+ * The distinct bounds of all cells split the number line into elementary segments: each bound
+ * itself and the open gaps between and around them. Every cell either covers a segment completely
+ * or not at all, so the matching rows are precomputed per segment and a lookup is one binary
+ * search over the bounds.
+ */
+final class NumericIntervalIndex implements ColumnIndex {
+
+    private final String column;
+    private final BigDecimal[] bounds;
+    // segments[2i] is the gap below bounds[i], segments[2i + 1] is bounds[i] itself
+    private final BitSet[] segments;
+    private final BitSet wildcardRows;
+
+    private NumericIntervalIndex(String column, BigDecimal[] bounds, BitSet[] segments, BitSet wildcardRows) {
+        this.column = column;
+        this.bounds = bounds;
+        this.segments = segments;
+        this.wildcardRows = wildcardRows;
+    }
+
+    /**
+     * @param cells One entry per row: the accepted interval, or null for a wildcard
+     */
+    static NumericIntervalIndex build(String column, List<Interval> cells) {
+        TreeSet<BigDecimal> distinct = new TreeSet<>();
+        for (Interval cell : cells) {
+            if (cell != null) {
+                if (cell.lower() != null) {
+                    distinct.add(cell.lower());
+                }
+                if (cell.upper() != null) {
+                    distinct.add(cell.upper());
+                }
+            }
+        }
+        BigDecimal[] bounds = distinct.toArray(new BigDecimal[0]);
+
+        BitSet wildcardRows = new BitSet(cells.size());
+        BitSet[] segments = new BitSet[2 * bounds.length + 1];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new BitSet(cells.size());
+        }
+        for (int row = 0; row < cells.size(); row++) {
+            Interval cell = cells.get(row);
+            if (cell == null) {
+                wildcardRows.set(row);
+            }
+            for (int i = 0; i <= bounds.length; i++) {
+                BigDecimal below = i > 0 ? bounds[i - 1] : null;
+                BigDecimal above = i < bounds.length ? bounds[i] : null;
+                if (cell == null || cell.coversGap(below, above)) {
+                    segments[2 * i].set(row);
+                }
+                if (i < bounds.length && (cell == null || cell.contains(bounds[i]))) {
+                    segments[2 * i + 1].set(row);
+                }
+            }
+        }
+        return new NumericIntervalIndex(column, bounds, segments, wildcardRows);
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public BitSet lookup(Object value) {
+        if (value == null) {
+            return wildcardRows;
+        }
+        int index = Arrays.binarySearch(bounds, toDecimal(column, value));
+        return index >= 0 ? segments[2 * index + 1] : segments[2 * (-index - 1)];
+    }
+
+    static BigDecimal toDecimal(String column, Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        }
+        if (value instanceof Number number) {
+            try {
+                return new BigDecimal(number.toString());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Column '" + column + "' cannot match " + number);
+            }
+        }
+        throw new IllegalArgumentException("Column '" + column + "' expects a number but got "
+            + value.getClass().getSimpleName());
+    }
+
+    /**
+     * A numeric cell; a null bound is unbounded on that side.
+     */
+    record Interval(BigDecimal lower, boolean lowerInclusive, BigDecimal upper, boolean upperInclusive) {
+
+        static Interval parse(String column, Object cell) {
+            if (cell instanceof Number number) {
+                BigDecimal value = toDecimal(column, number);
+                return new Interval(value, true, value, true);
+            }
+            String text = String.valueOf(cell).trim();
+            try {
+                if (text.startsWith(">=")) {
+                    return new Interval(new BigDecimal(text.substring(2).trim()), true, null, false);
+                }
+                if (text.startsWith("<=")) {
+                    return new Interval(null, false, new BigDecimal(text.substring(2).trim()), true);
+                }
+                if (text.startsWith(">")) {
+                    return new Interval(new BigDecimal(text.substring(1).trim()), false, null, false);
+                }
+                if (text.startsWith("<")) {
+                    return new Interval(null, false, new BigDecimal(text.substring(1).trim()), false);
+                }
+                if (text.startsWith("=")) {
+                    BigDecimal value = new BigDecimal(text.substring(1).trim());
+                    return new Interval(value, true, value, true);
+                }
+                int separator = text.indexOf("..");
+                if (separator > 0 && text.length() > separator + 3) {
+                    char open = text.charAt(0);
+                    char close = text.charAt(text.length() - 1);
+                    if ((open == '[' || open == '(' || open == ']') && (close == ']' || close == ')' || close == '[')) {
+                        Interval interval = new Interval(
+                            new BigDecimal(text.substring(1, separator).trim()), open == '[',
+                            new BigDecimal(text.substring(separator + 2, text.length() - 1).trim()), close == ']');
+                        interval.validate(column, text);
+                        return interval;
+                    }
+                }
+                BigDecimal value = new BigDecimal(text);
+                return new Interval(value, true, value, true);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid NUMBER cell '" + text + "' in column '" + column + "'");
+            }
+        }
+
+        boolean contains(BigDecimal value) {
+            if (lower != null) {
+                int c = value.compareTo(lower);
+                if (c < 0 || (c == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                int c = value.compareTo(upper);
+                return c < 0 || (c == 0 && upperInclusive);
+            }
+            return true;
+        }
+
+        /**
+         * Whether the open gap between two adjacent index bounds lies inside this interval.
+         * Both of this interval's bounds are index bounds, so partial overlap is impossible.
+         */
+        boolean coversGap(BigDecimal below, BigDecimal above) {
+            boolean lowerOk = lower == null || (below != null && lower.compareTo(below) <= 0);
+            boolean upperOk = upper == null || (above != null && upper.compareTo(above) >= 0);
+            return lowerOk && upperOk;
+        }
+
+        private void validate(String column, String text) {
+            int c = lower.compareTo(upper);
+            if (c > 0 || (c == 0 && !(lowerInclusive && upperInclusive))) {
+                throw new IllegalArgumentException("Empty interval '" + text + "' in column '" + column + "'");
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.loan.rule.validator;
 
 import com.loan.domain.Rule;
-import com.loan.rule.BaseRule;
+import com.loan.rule.StatelessRule;
 import com.loan.rule.annotation.RuleClass;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,16 +18,16 @@ public class RuleClassValidator implements org.springframework.beans.factory.Ini
     @Autowired
     private ApplicationContext applicationContext;
     
-    private final Map<String, Class<? extends BaseRule>> ruleClasses = new HashMap<>();
+    private final Map<String, Class<? extends StatelessRule>> ruleClasses = new HashMap<>();
     
     @Override
     public void afterPropertiesSet() {
-        // Tìm tất cả các bean là BaseRule
-        Map<String, BaseRule> ruleBeans = applicationContext.getBeansOfType(BaseRule.class);
+        // Tìm tất cả các bean là StatelessRule
+        Map<String, StatelessRule> ruleBeans = applicationContext.getBeansOfType(StatelessRule.class);
         
         // Lưu tên class và class tương ứng
-        for (BaseRule rule : ruleBeans.values()) {
-            Class<? extends BaseRule> ruleClass = rule.getClass();
+        for (StatelessRule rule : ruleBeans.values()) {
+            Class<? extends StatelessRule> ruleClass = rule.getClass();
             String className = ruleClass.getSimpleName();
             
             // Kiểm tra annotation
@@ -58,7 +58,7 @@ public class RuleClassValidator implements org.springframework.beans.factory.Ini
         }
         
         // Kiểm tra annotation nếu có
-        Class<? extends BaseRule> actualClass = ruleClasses.get(ruleClass);
+        Class<? extends StatelessRule> actualClass = ruleClasses.get(ruleClass);
         RuleClass annotation = actualClass.getAnnotation(RuleClass.class);
         if (annotation != null) {
             // Kiểm tra product code nếu được chỉ định
@@ -73,7 +73,7 @@ public class RuleClassValidator implements org.springframework.beans.factory.Ini
         return true;
     }
     
-    public Map<String, Class<? extends BaseRule>> getRuleClasses() {
+    public Map<String, Class<? extends StatelessRule>> getRuleClasses() {
         return new HashMap<>(ruleClasses);
     }
 } 
\ No newline at end of file
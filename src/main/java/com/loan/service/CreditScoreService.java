@@ -1,6 +1,12 @@
 package com.loan.service;
 
+import com.loan.rule.Deadline;
+
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 public interface CreditScoreService {
     /**
@@ -9,4 +15,33 @@ public interface CreditScoreService {
      * @return The customer's credit score, or null if not found
      */
     BigDecimal getCreditScore(String customerId);
-} 
\ No newline at end of file
+
+    /**
+     * Retrieves the credit score for a customer, waiting no longer than the request's deadline
+     * @param customerId The ID of the customer
+     * @param deadline The deadline of the request, or null for the default budget
+     * @return The customer's credit score, or null if not found
+     * @throws TimeoutException If the score did not arrive before the deadline
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    default BigDecimal getCreditScore(String customerId, Deadline deadline)
+        throws TimeoutException, InterruptedException {
+        return getCreditScore(customerId);
+    }
+
+    /**
+     * Retrieves the credit scores of several customers in one call
+     * @param customerIds The IDs of the customers
+     * @return The credit scores by customer ID; customers without a score are left out
+     */
+    default Map<String, BigDecimal> getCreditScores(List<String> customerIds) {
+        Map<String, BigDecimal> scores = new HashMap<>();
+        for (String customerId : customerIds) {
+            BigDecimal score = getCreditScore(customerId);
+            if (score != null) {
+                scores.put(customerId, score);
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,68 @@
+package com.loan.service;
+
+import com.loan.domain.Rule;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.annotation.RuleExecution;
+import com.loan.rule.resilience.Bulkhead;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Immutable result of planning one set of rules for {@link ParallelRuleExecutor}: the rules grouped
+ * into topological levels, each with its resolved bean, dependencies, timeout and resilience policy.
+ * Rules of a level depend only on rules of earlier levels.
+ */
+final class ExecutionPlan {
+
+    private final List<List<PlannedRule>> levels;
+    private final Map<String, Set<String>> dependencies;
+
+    ExecutionPlan(List<List<PlannedRule>> levels, Map<String, Set<String>> dependencies) {
+        this.levels = levels;
+        this.dependencies = dependencies;
+    }
+
+    List<List<PlannedRule>> getLevels() {
+        return levels;
+    }
+
+    Map<String, Set<String>> getDependencies() {
+        return dependencies;
+    }
+
+    int getRuleCount() {
+        return levels.stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @param execution Circuit breaker and fallback policy; null when the class declares none
+     * @param executor Where the rule runs, chosen by {@link com.loan.service.executor.RuleExecutorStrategies}
+     * @param bulkhead Limits the rule's concurrency across requests; null when none is configured
+     */
+    record PlannedRule(Rule rule, StatelessRule bean, Set<String> dependencies, long timeoutMs,
+                       RuleExecution execution, RetryPolicy retry, Executor executor, Bulkhead bulkhead) {
+
+        /**
+         * Runs the task on the rule's executor, inside its bulkhead if it has one.
+         *
+         * @param onRejected Told instead of running the task if the bulkhead is full or the executor
+         *                   rejects it, now or once the task leaves the bulkhead's queue
+         */
+        void submit(Runnable task, Consumer<RejectedExecutionException> onRejected) {
+            try {
+                if (bulkhead != null) {
+                    bulkhead.execute(executor, task, onRejected);
+                } else {
+                    executor.execute(task);
+                }
+            } catch (RejectedExecutionException e) {
+                onRejected.accept(e);
+            }
+        }
+    }
+}
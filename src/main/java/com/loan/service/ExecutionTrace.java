@@ -0,0 +1,61 @@
+package com.loan.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeline of one parallel rule execution. The critical path is the chain of dependencies ending at
+ * the rule that finished last, each step going back to the dependency that finished last; with
+ * dataflow scheduling its length, not the sum of all rule times, bounds the step latency.
+ *
+ * @param spans Running time of every rule, relative to the start of the execution
+ */
+public record ExecutionTrace(long wallNanos, Map<String, Span> spans, List<String> criticalPath) {
+
+    public record Span(long startNanos, long endNanos) {
+        public long durationNanos() {
+            return endNanos - startNanos;
+        }
+    }
+
+    static ExecutionTrace of(long wallNanos, Map<String, Span> spans, Map<String, Set<String>> dependencies) {
+        List<String> path = new ArrayList<>();
+        String current = latest(spans, spans.keySet());
+        while (current != null) {
+            path.add(current);
+            current = latest(spans, dependencies.getOrDefault(current, Set.of()));
+        }
+        Collections.reverse(path);
+        return new ExecutionTrace(wallNanos, Map.copyOf(spans), List.copyOf(path));
+    }
+
+    public long totalRuleNanos() {
+        return spans.values().stream().mapToLong(Span::durationNanos).sum();
+    }
+
+    public long criticalPathNanos() {
+        return criticalPath.stream().mapToLong(name -> spans.get(name).durationNanos()).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("wall %d ms, critical path %s = %d ms, sum of rule times %d ms",
+            TimeUnit.NANOSECONDS.toMillis(wallNanos), String.join(" -> ", criticalPath),
+            TimeUnit.NANOSECONDS.toMillis(criticalPathNanos()), TimeUnit.NANOSECONDS.toMillis(totalRuleNanos()));
+    }
+
+    private static String latest(Map<String, Span> spans, Set<String> names) {
+        String latest = null;
+        for (String name : names) {
+            Span span = spans.get(name);
+            if (span != null && (latest == null || span.endNanos() > spans.get(latest).endNanos())) {
+                latest = name;
+            }
+        }
+        return latest;
+    }
+}
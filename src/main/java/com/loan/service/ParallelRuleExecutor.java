@@ -1,17 +1,37 @@
 package com.loan.service;
 
+import com.loan.config.RuleEngineProperties;
 import com.loan.domain.ExecutionStatus;
 import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
 import com.loan.model.RuleResult;
-import com.loan.rule.BaseRule;
+import com.loan.rule.Deadline;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
 import com.loan.rule.annotation.RuleClass;
+import com.loan.rule.annotation.RuleClasses;
 import com.loan.rule.annotation.RuleExecution;
+import com.loan.rule.fallback.FallbackInvoker;
+import com.loan.rule.fallback.FallbackInvokers;
+import com.loan.rule.plan.PlanCache;
+import com.loan.rule.resilience.BulkheadFullException;
+import com.loan.rule.resilience.BulkheadRegistry;
+import com.loan.rule.resilience.CircuitBreaker;
+import com.loan.rule.resilience.CircuitBreakerRegistry;
+import com.loan.service.executor.RuleExecutorStrategies;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,171 +39,360 @@ import java.util.stream.Collectors;
 public class ParallelRuleExecutor {
 
     @Autowired
-    private Map<String, BaseRule> ruleBeans;
+    private Map<String, StatelessRule> ruleBeans;
 
-    private final ExecutorService executorService;
-    private final Map<String, CompletableFuture<RuleResult>> ruleFutures = new ConcurrentHashMap<>();
-    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    @Autowired
+    private RuleVariableAnalyzer variableAnalyzer;
+
+    @Autowired
+    private FallbackInvokers fallbackInvokers;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
 
-    public ParallelRuleExecutor() {
-        this.executorService = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors()
-        );
+    private final RuleExecutorStrategies executorStrategies;
+    private final RuleEngineProperties properties;
+    private final PlanCache<ExecutionPlan> plans = new PlanCache<>();
+    // Only waits out retry backoffs; every retry it fires is submitted to the rule's executor
+    private final ScheduledExecutorService retryTimer;
+
+    @Autowired
+    public ParallelRuleExecutor(RuleExecutorStrategies executorStrategies, RuleEngineProperties properties) {
+        this.executorStrategies = executorStrategies;
+        this.properties = properties;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rule-retry-");
+        threadFactory.setDaemon(true);
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryTimer.shutdownNow();
     }
 
     public Map<String, RuleResult> executeRules(List<Rule> rules, Map<String, Object> initialContext) {
-        // Reset futures map
-        ruleFutures.clear();
+        return executeRules(null, rules, initialContext);
+    }
 
-        // Tạo map kết quả
-        Map<String, RuleResult> results = new ConcurrentHashMap<>();
-        
-        // Tạo context chung
-        Map<String, Object> sharedContext = new ConcurrentHashMap<>(initialContext);
+    public Map<String, RuleResult> executeRules(WorkflowStep step, List<Rule> rules, Map<String, Object> initialContext) {
+        return executeRules(step, rules, initialContext, log.isDebugEnabled()
+            ? trace -> log.debug("Parallel rule execution: {}", trace) : null);
+    }
 
+    /**
+     * Once a rule's failure vetoes the step under its {@link VetoPolicy}, unfinished rules are cancelled
+     * and left out of the returned results.
+     *
+     * @param step The step the rules belong to, or null for an ad-hoc rule set
+     * @param tracer Receives the timeline of the execution once all rules have completed; may be null
+     */
+    public Map<String, RuleResult> executeRules(WorkflowStep step, List<Rule> rules, Map<String, Object> initialContext,
+                                                Consumer<ExecutionTrace> tracer) {
         try {
-            // Sắp xếp rules theo dependencies
-            List<Rule> sortedRules = sortRulesByDependencies(rules);
-
-            // Thực thi rules
-            for (Rule rule : sortedRules) {
-                executeRule(rule, sharedContext, results);
+            ExecutionPlan plan = planFor(step, rules);
+
+            // All state of this call lives in its own execution, so concurrent requests never see each other's futures
+            Deadline deadline = Deadline.from(initialContext);
+            Execution execution = new Execution(initialContext, plan.getDependencies(),
+                properties.getRetry().getBudgetPerRequest(),
+                deadline != null ? deadline : Deadline.after(properties.getDeadline().getDefaultTimeout()),
+                VetoPolicy.of(step, properties.getVeto()));
+
+            // Thực thi rules, level by level so every dependency has its future
+            for (List<ExecutionPlan.PlannedRule> level : plan.getLevels()) {
+                for (ExecutionPlan.PlannedRule plannedRule : level) {
+                    executeRule(plannedRule, execution);
+                }
             }
 
             // Đợi tất cả rules hoàn thành
-            CompletableFuture.allOf(
-                ruleFutures.values().toArray(new CompletableFuture[0])
-            ).get(30, TimeUnit.SECONDS);
-
-            // Lấy kết quả
-            ruleFutures.forEach((ruleName, future) -> {
-                try {
-                    results.put(ruleName, future.get());
-                } catch (Exception e) {
-                    log.error("Error getting result for rule {}: {}", ruleName, e.getMessage());
-                    results.put(ruleName, RuleResult.builder()
-                        .status(ExecutionStatus.ERROR)
-                        .errorMessage("Error executing rule: " + e.getMessage())
-                        .build());
-                }
-            });
+            Map<String, RuleResult> results = execution.awaitResults();
+            if (tracer != null) {
+                tracer.accept(execution.trace());
+            }
+            return results;
 
         } catch (Exception e) {
             log.error("Error executing rules: {}", e.getMessage());
             throw new RuntimeException("Error executing rules", e);
         }
+    }
+
+    private void executeRule(ExecutionPlan.PlannedRule plannedRule, Execution execution) {
+        Rule rule = plannedRule.rule();
+
+        // A failed or timed-out dependency still lets its dependents run, without its output
+        Map<String, CompletableFuture<RuleResult>> upstream = new LinkedHashMap<>();
+        for (String dependency : plannedRule.dependencies()) {
+            upstream.put(dependency, execution.futures.get(dependency).exceptionally(e -> null));
+        }
+
+        // Start as soon as the last dependency completes, so independent branches overlap
+        Function<Void, CompletableFuture<RuleResult>> start = ignored -> {
+            // The step is already rejected, so the rule is dropped rather than run
+            if (execution.decided.isDone()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // No point starting work whose answer would arrive after the caller stopped waiting
+            if (execution.deadline.isExpired()) {
+                return CompletableFuture.completedFuture(RuleResult.builder()
+                    .status(ExecutionStatus.ERROR)
+                    .errorMessage("Deadline exceeded before the rule started")
+                    .build());
+            }
+            // Tạo input cho rule, với kết quả của các rule phụ thuộc
+            Map<String, Object> ruleInput = new HashMap<>(execution.sharedContext);
+            upstream.forEach((dependency, dependencyFuture) -> {
+                RuleResult dependencyResult = dependencyFuture.join();
+                if (dependencyResult != null && dependencyResult.getStatus() == ExecutionStatus.SUCCESS) {
+                    ruleInput.put(dependency, dependencyResult.getResult());
+                }
+            });
+            return runProtected(plannedRule, ruleInput, execution)
+                .orTimeout(execution.deadline.capMillis(plannedRule.timeoutMs()), TimeUnit.MILLISECONDS);
+        };
+        CompletableFuture<Void> ready = CompletableFuture.allOf(upstream.values().toArray(new CompletableFuture[0]));
+        // A dependent starts on its own executor, not on the thread that completed its last dependency
+        CompletableFuture<RuleResult> future = (upstream.isEmpty() ? ready.thenCompose(start)
+            : ready.thenComposeAsync(start, plannedRule.executor()))
+            .whenComplete((result, error) -> {
+                execution.finished(rule.getName());
+                if (error == null && result != null) {
+                    execution.results.put(rule.getName(), result);
+                    execution.decide(rule.getName(), result);
+                }
+            });
+
+        execution.futures.put(rule.getName(), future);
+    }
 
-        return results;
+    /**
+     * Returns the cached plan for this version of the rule set, planning it on first use.
+     */
+    private ExecutionPlan planFor(WorkflowStep step, List<Rule> rules) {
+        return plans.get(step, rules, this::plan);
     }
 
-    private void executeRule(Rule rule, Map<String, Object> sharedContext, 
-                           Map<String, RuleResult> results) {
-        BaseRule ruleBean = ruleBeans.get(rule.getRuleClass());
-        if (ruleBean == null) {
-            throw new IllegalArgumentException("Rule not found: " + rule.getRuleClass());
+    private ExecutionPlan plan(List<Rule> rules) {
+        // Declared dependencies plus those inferred from the variables each rule reads
+        Map<String, Set<String>> declared = declaredDependencies(rules);
+        Map<String, Set<String>> dependencies = variableAnalyzer.inferDependencies(rules);
+        for (Map.Entry<String, Set<String>> entry : declared.entrySet()) {
+            dependencies.computeIfAbsent(entry.getKey(), name -> new LinkedHashSet<>()).addAll(entry.getValue());
         }
 
-        RuleClass ruleClassAnnotation = ruleBean.getClass().getAnnotation(RuleClass.class);
-        RuleExecution ruleExecutionAnnotation = ruleBean.getClass().getAnnotation(RuleExecution.class);
-        
-        if (ruleClassAnnotation == null) {
-            throw new IllegalArgumentException("Rule class not annotated: " + rule.getRuleClass());
+        // Sắp xếp rules theo dependencies
+        List<Rule> sortedRules;
+        try {
+            sortedRules = sortRulesByDependencies(rules, dependencies);
+        } catch (IllegalStateException e) {
+            // Rules reading each other's results look circular; only a cycle in what was declared is an error
+            log.warn("Ignoring inferred dependencies: {}", e.getMessage());
+            dependencies = declared;
+            sortedRules = sortRulesByDependencies(rules, dependencies);
         }
 
-        // Kiểm tra dependencies
-        if (ruleClassAnnotation.dependsOn().length > 0) {
-            for (String dependency : ruleClassAnnotation.dependsOn()) {
-                CompletableFuture<RuleResult> dependencyFuture = ruleFutures.get(dependency);
-                if (dependencyFuture == null) {
+        Map<String, Integer> levelOf = new HashMap<>();
+        List<List<ExecutionPlan.PlannedRule>> levels = new ArrayList<>();
+        for (Rule rule : sortedRules) {
+            if (rule == null) {
+                throw new IllegalStateException("Dependency not found in rule set");
+            }
+            StatelessRule ruleBean = resolveBean(rule);
+            if (ruleBean == null) {
+                throw new IllegalArgumentException("Rule not found: " + rule.getRuleClass());
+            }
+            RuleClass ruleClassAnnotation = ruleBean.getClass().getAnnotation(RuleClass.class);
+            if (ruleClassAnnotation == null) {
+                throw new IllegalArgumentException("Rule class not annotated: " + rule.getRuleClass());
+            }
+
+            Set<String> ruleDependencies = Set.copyOf(dependencies.getOrDefault(rule.getName(), Set.of()));
+            int level = 0;
+            for (String dependency : ruleDependencies) {
+                Integer dependencyLevel = levelOf.get(dependency);
+                if (dependencyLevel == null) {
                     throw new IllegalStateException(
                         "Dependency not found: " + dependency + " for rule: " + rule.getName());
                 }
+                level = Math.max(level, dependencyLevel + 1);
+            }
+            levelOf.put(rule.getName(), level);
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
             }
+            RuleExecution ruleExecutionAnnotation = ruleBean.getClass().getAnnotation(RuleExecution.class);
+            levels.get(level).add(new ExecutionPlan.PlannedRule(rule, ruleBean, ruleDependencies,
+                ruleClassAnnotation.timeout(), ruleExecutionAnnotation,
+                RetryPolicy.of(rule, ruleExecutionAnnotation, properties.getRetry()),
+                executorStrategies.select(ruleBean).getExecutor(), bulkheadRegistry.forRule(rule, ruleBean)));
         }
 
-        // Tạo input cho rule
-        Map<String, Object> ruleInput = new HashMap<>(sharedContext);
-        
-        // Thêm kết quả của các rule phụ thuộc vào input
-        if (ruleClassAnnotation.dependsOn().length > 0) {
-            for (String dependency : ruleClassAnnotation.dependsOn()) {
-                RuleResult dependencyResult = results.get(dependency);
-                if (dependencyResult != null && dependencyResult.getStatus() == ExecutionStatus.SUCCESS) {
-                    ruleInput.put(dependency, dependencyResult.getResult());
-                }
+        Map<String, Set<String>> plannedDependencies = new HashMap<>();
+        levels.forEach(level -> level.forEach(p -> plannedDependencies.put(p.rule().getName(), p.dependencies())));
+        log.debug("Planned {} rules in {} levels", levelOf.size(), levels.size());
+        return new ExecutionPlan(levels.stream().map(List::copyOf).toList(), Map.copyOf(plannedDependencies));
+    }
+
+    /**
+     * Looks the bean up by name, as rule_class has always been matched, then by the class it names.
+     */
+    private StatelessRule resolveBean(Rule rule) {
+        StatelessRule ruleBean = ruleBeans.get(rule.getRuleClass());
+        if (ruleBean != null) {
+            return ruleBean;
+        }
+        Class<?> ruleClass = RuleClasses.resolve(rule.getRuleClass());
+        if (ruleClass == null) {
+            return null;
+        }
+        return ruleBeans.values().stream()
+            .filter(bean -> ClassUtils.getUserClass(bean) == ruleClass)
+            .findFirst()
+            .orElse(null);
+    }
+
+    private CompletableFuture<RuleResult> runProtected(ExecutionPlan.PlannedRule plannedRule,
+                                                       Map<String, Object> ruleInput, Execution execution) {
+        Rule rule = plannedRule.rule();
+        RuleExecution ruleExecutionAnnotation = plannedRule.execution();
+
+        // Kiểm tra circuit breaker
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.get(rule.getName(), ruleExecutionAnnotation);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.warn("Circuit breaker is open for rule: {}", rule.getName());
+            if (ruleExecutionAnnotation != null && ruleExecutionAnnotation.fallbackEnabled()) {
+                return fallbackAsync(plannedRule, ruleInput);
             }
+            return CompletableFuture.completedFuture(RuleResult.builder()
+                .status(ExecutionStatus.ERROR)
+                .errorMessage("Circuit breaker is open")
+                .build());
         }
 
-        // Thực thi rule với retry và circuit breaker
-        CompletableFuture<RuleResult> future = CompletableFuture.supplyAsync(() -> {
-            try {
-                // Kiểm tra circuit breaker
-                CircuitBreaker circuitBreaker = getCircuitBreaker(rule.getName(), ruleExecutionAnnotation);
-                if (!circuitBreaker.allowExecution()) {
-                    log.warn("Circuit breaker is open for rule: {}", rule.getName());
-                    if (ruleExecutionAnnotation != null && ruleExecutionAnnotation.fallbackEnabled()) {
-                        return executeFallback(ruleBean, rule, ruleInput, ruleExecutionAnnotation.fallbackMethod());
-                    }
-                    return RuleResult.builder()
-                        .status(ExecutionStatus.ERROR)
-                        .errorMessage("Circuit breaker is open")
-                        .build();
+        // Thực thi rule với retry
+        // The timeout also stops pending retries, which check this future before each attempt
+        long startNanos = System.nanoTime();
+        CompletableFuture<RuleResult> attempts = new CompletableFuture<RuleResult>()
+            .orTimeout(execution.deadline.capMillis(plannedRule.timeoutMs()), TimeUnit.MILLISECONDS);
+        AtomicReference<Future<?>> running = new AtomicReference<>();
+        execution.inFlight.add(attempts);
+        attempt(plannedRule, ruleInput, execution, 0, attempts, running);
+        // A rule that timed out gives its thread back instead of running on unobserved
+        attempts.whenComplete((result, error) -> {
+            Future<?> current = running.get();
+            if (error != null && current != null) {
+                current.cancel(true);
+            }
+            execution.inFlight.remove(attempts);
+        });
+        return attempts.handle((result, error) -> {
+            if (error instanceof CancellationException) {
+                // Dropped because the step was decided; this says nothing about the rule's health
+                circuitBreaker.releasePermission();
+                return CompletableFuture.<RuleResult>completedFuture(null);
+            }
+            if (error instanceof RejectedExecutionException) {
+                // Rejected by a full bulkhead or executor before running, so the breaker learns nothing from it
+                circuitBreaker.releasePermission();
+                log.warn(error instanceof BulkheadFullException ? "Bulkhead is full for rule: {}"
+                    : "Executor rejected rule: {}", rule.getName());
+                if (ruleExecutionAnnotation != null && ruleExecutionAnnotation.fallbackEnabled()) {
+                    return fallbackAsync(plannedRule, ruleInput);
                 }
-
-                // Thực thi rule với retry
-                RuleResult result = executeWithRetry(ruleBean, ruleInput, ruleExecutionAnnotation);
-                
-                // Cập nhật circuit breaker
-                circuitBreaker.recordResult(result.getStatus() == ExecutionStatus.SUCCESS);
-                
-                return result;
-            } catch (Exception e) {
-                log.error("Error executing rule {}: {}", rule.getName(), e.getMessage());
-                return RuleResult.builder()
+                return CompletableFuture.completedFuture(RuleResult.builder()
                     .status(ExecutionStatus.ERROR)
-                    .errorMessage("Error executing rule: " + e.getMessage())
+                    .errorMessage(error.getMessage())
+                    .build());
+            }
+            if (error != null) {
+                log.error("Error executing rule {}: {}", rule.getName(), error.getMessage());
+                result = RuleResult.builder()
+                    .status(ExecutionStatus.ERROR)
+                    .errorMessage("Error executing rule: " + error.getMessage())
                     .build();
             }
-        }, executorService).orTimeout(ruleClassAnnotation.timeout(), TimeUnit.MILLISECONDS);
-
-        ruleFutures.put(rule.getName(), future);
+            // Cập nhật circuit breaker
+            circuitBreaker.record(result.getStatus() == ExecutionStatus.SUCCESS, System.nanoTime() - startNanos);
+            return CompletableFuture.completedFuture(result);
+        }).thenCompose(Function.identity());
     }
 
-    private RuleResult executeWithRetry(BaseRule ruleBean, Map<String, Object> input, RuleExecution annotation) {
-        if (annotation == null || annotation.maxRetries() == 0) {
-            return ruleBean.execute(input);
+    /**
+     * Runs the rule's fallback on its executor, since the caller may be a completion or timer thread.
+     */
+    private CompletableFuture<RuleResult> fallbackAsync(ExecutionPlan.PlannedRule plannedRule,
+                                                        Map<String, Object> ruleInput) {
+        Rule rule = plannedRule.rule();
+        try {
+            return CompletableFuture.supplyAsync(
+                () -> executeFallback(plannedRule.bean(), rule, ruleInput), plannedRule.executor());
+        } catch (RejectedExecutionException e) {
+            log.warn("Executor rejected the fallback of rule {}: {}", rule.getName(), e.getMessage());
+            return CompletableFuture.completedFuture(RuleResult.builder()
+                .status(ExecutionStatus.ERROR)
+                .errorMessage("Error in fallback: " + e.getMessage())
+                .build());
         }
+    }
 
-        int attempts = 0;
-        Exception lastException = null;
-        while (attempts <= annotation.maxRetries()) {
+    /**
+     * Runs one attempt on the rule's executor, inside its bulkhead. A failed attempt is retried after a backoff delay that
+     * holds no worker thread, while the rule's retries and the request's retry budget last and the retry can still start
+     * before the deadline. The retry timer only hands the retry back to the executor, so rule code never runs on it.
+     *
+     * @param running The attempt currently submitted, which is interrupted if the rule times out
+     */
+    private void attempt(ExecutionPlan.PlannedRule plannedRule, Map<String, Object> ruleInput, Execution execution,
+                         int retry, CompletableFuture<RuleResult> attempts, AtomicReference<Future<?>> running) {
+        Runnable task = () -> {
+            if (attempts.isDone()) {
+                return;
+            }
+            if (execution.deadline.isExpired()) {
+                attempts.completeExceptionally(new TimeoutException("Deadline exceeded"));
+                return;
+            }
+            if (retry == 0) {
+                execution.started(plannedRule.rule().getName());
+            }
             try {
-                return ruleBean.execute(input);
+                attempts.complete(plannedRule.bean().execute(plannedRule.rule(), ruleInput));
             } catch (Exception e) {
-                attempts++;
-                lastException = e;
-                if (attempts > annotation.maxRetries()) {
-                    throw e;
+                RetryPolicy policy = plannedRule.retry();
+                long delay = policy.delayMillis(retry + 1);
+                if (retry >= policy.maxRetries() || attempts.isDone()
+                    || delay >= execution.deadline.remainingMillis() || !execution.tryAcquireRetry()) {
+                    attempts.completeExceptionally(e);
+                    return;
                 }
-                log.warn("Retry attempt {} for ruleBean {}: {}", attempts, ruleBean.getClass().getSimpleName(), e.getMessage());
+                log.warn("Retry attempt {} for rule {} in {} ms: {}", retry + 1, plannedRule.rule().getName(),
+                    delay, e.getMessage());
                 try {
-                    Thread.sleep(annotation.retryDelay());
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Retry interrupted", ie);
+                    retryTimer.schedule(() -> attempt(plannedRule, ruleInput, execution, retry + 1, attempts, running),
+                        delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException rejected) {
+                    attempts.completeExceptionally(e);
                 }
             }
-        }
-        throw new RuntimeException("Max retry attempts exceeded", lastException);
+        };
+        FutureTask<Void> submitted = new FutureTask<>(task, null);
+        running.set(submitted);
+        // Never run inline: the caller may be a completion or timer thread
+        plannedRule.submit(submitted, attempts::completeExceptionally);
     }
 
-    private RuleResult executeFallback(BaseRule ruleBean, Rule rule,
-                                     Map<String, Object> input,
-                                     String fallbackMethod) {
+    private RuleResult executeFallback(StatelessRule ruleBean, Rule rule, Map<String, Object> input) {
         try {
-            return (RuleResult) ruleBean.getClass()
-                .getMethod(fallbackMethod, Rule.class, Map.class)
-                .invoke(ruleBean, rule, input);
+            // Bound at startup, so the open-circuit path does no reflection
+            FallbackInvoker fallback = fallbackInvokers.get(ruleBean);
+            if (fallback == null) {
+                throw new IllegalStateException("No fallback method bound for " + ruleBean.getClass().getSimpleName());
+            }
+            return fallback.invoke(rule, input);
         } catch (Exception e) {
             log.error("Error executing fallback for rule {}: {}", 
                 rule.getName(), e.getMessage());
@@ -194,31 +403,29 @@ public class ParallelRuleExecutor {
         }
     }
 
-    private CircuitBreaker getCircuitBreaker(String ruleName, RuleExecution annotation) {
-        return circuitBreakers.computeIfAbsent(ruleName, k -> {
-            if (annotation == null) {
-                return new CircuitBreaker(5, 60000); // Default values
+    private Map<String, Set<String>> declaredDependencies(List<Rule> rules) {
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        for (Rule rule : rules) {
+            StatelessRule ruleBean = resolveBean(rule);
+            if (ruleBean != null) {
+                RuleClass annotation = ruleBean.getClass().getAnnotation(RuleClass.class);
+                if (annotation != null && annotation.dependsOn().length > 0) {
+                    dependencies.put(rule.getName(), new LinkedHashSet<>(Arrays.asList(annotation.dependsOn())));
+                }
             }
-            return new CircuitBreaker(
-                annotation.circuitBreakerThreshold(),
-                annotation.circuitBreakerResetTimeout()
-            );
-        });
+        }
+        return dependencies;
     }
 
-    private List<Rule> sortRulesByDependencies(List<Rule> rules) {
+    private List<Rule> sortRulesByDependencies(List<Rule> rules, Map<String, Set<String>> dependencies) {
         Map<String, Set<String>> dependencyGraph = new HashMap<>();
         Map<String, Rule> ruleMap = new HashMap<>();
 
         // Xây dựng đồ thị phụ thuộc
         for (Rule rule : rules) {
-            BaseRule ruleBean = ruleBeans.get(rule.getRuleClass());
-            if (ruleBean != null) {
-                RuleClass annotation = ruleBean.getClass().getAnnotation(RuleClass.class);
-                if (annotation != null) {
-                    dependencyGraph.put(rule.getName(), 
-                        new HashSet<>(Arrays.asList(annotation.dependsOn())));
-                }
+            if (resolveBean(rule) != null) {
+                dependencyGraph.put(rule.getName(),
+                    dependencies.getOrDefault(rule.getName(), Collections.emptySet()));
             }
             ruleMap.put(rule.getName(), rule);
         }
@@ -258,47 +465,95 @@ public class ParallelRuleExecutor {
         sorted.add(ruleMap.get(ruleName));
     }
 
-    private static class CircuitBreaker {
-        private final int threshold;
-        private final long resetTimeout;
-        private int failureCount;
-        private long lastFailureTime;
-        private boolean isOpen;
-
-        public CircuitBreaker(int threshold, long resetTimeout) {
-            this.threshold = threshold;
-            this.resetTimeout = resetTimeout;
-            this.failureCount = 0;
-            this.lastFailureTime = 0;
-            this.isOpen = false;
+    /**
+     * Futures, results, context and timeline of one {@link #executeRules} call.
+     */
+    private static final class Execution {
+        private final Map<String, Object> sharedContext;
+        private final Map<String, Set<String>> dependencies;
+        private final Map<String, CompletableFuture<RuleResult>> futures = new ConcurrentHashMap<>();
+        private final Map<String, RuleResult> results = new ConcurrentHashMap<>();
+        private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+        private final Map<String, ExecutionTrace.Span> spans = new ConcurrentHashMap<>();
+        private final AtomicInteger retryBudget;
+        private final Deadline deadline;
+        private final VetoPolicy vetoPolicy;
+        // Completed with the name of the rule whose failure rejected the step
+        private final CompletableFuture<String> decided = new CompletableFuture<>();
+        private final Set<CompletableFuture<RuleResult>> inFlight = ConcurrentHashMap.newKeySet();
+        private final long startNanos = System.nanoTime();
+
+        private Execution(Map<String, Object> initialContext, Map<String, Set<String>> dependencies,
+                          int retryBudget, Deadline deadline, VetoPolicy vetoPolicy) {
+            // Tạo context chung
+            this.sharedContext = new ConcurrentHashMap<>(initialContext);
+            this.dependencies = dependencies;
+            this.retryBudget = new AtomicInteger(retryBudget);
+            this.deadline = deadline;
+            this.vetoPolicy = vetoPolicy;
+            // Rules read the remaining budget from their input
+            sharedContext.put(Deadline.CONTEXT_KEY, deadline);
         }
 
-        public synchronized boolean allowExecution() {
-            if (isOpen) {
-                if (System.currentTimeMillis() - lastFailureTime >= resetTimeout) {
-                    reset();
-                    return true;
-                }
-                return false;
-            }
-            return true;
+        private boolean tryAcquireRetry() {
+            return retryBudget.getAndUpdate(left -> Math.max(0, left - 1)) > 0;
         }
 
-        public synchronized void recordResult(boolean success) {
-            if (success) {
-                reset();
-            } else {
-                failureCount++;
-                lastFailureTime = System.currentTimeMillis();
-                if (failureCount >= threshold) {
-                    isOpen = true;
-                }
+        private void started(String ruleName) {
+            startTimes.put(ruleName, System.nanoTime() - startNanos);
+        }
+
+        private void finished(String ruleName) {
+            long end = System.nanoTime() - startNanos;
+            // A rule that timed out before it got a thread has an empty span
+            spans.put(ruleName, new ExecutionTrace.Span(startTimes.getOrDefault(ruleName, end), end));
+        }
+
+        private void decide(String ruleName, RuleResult result) {
+            if (!vetoPolicy.shortCircuit() || !vetoPolicy.vetoes(ruleName, result) || !decided.complete(ruleName)) {
+                return;
             }
+            log.info("Rule {} rejected the step, cancelling {} running rules", ruleName, inFlight.size());
+            inFlight.forEach(attempts -> attempts.completeExceptionally(
+                new CancellationException("Step already rejected by rule " + ruleName)));
         }
 
-        private void reset() {
-            failureCount = 0;
-            isOpen = false;
+        private ExecutionTrace trace() {
+            return ExecutionTrace.of(System.nanoTime() - startNanos, spans, dependencies);
+        }
+
+        private Map<String, RuleResult> awaitResults() throws Exception {
+            try {
+                CompletableFuture.anyOf(CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])),
+                    decided).get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // Some rule timed out or failed; each one's error is reported with its result below
+            } catch (TimeoutException e) {
+                log.warn("Deadline exceeded with {} rules unfinished",
+                    futures.values().stream().filter(future -> !future.isDone()).count());
+            }
+            if (decided.isDone()) {
+                // The outcome is fixed: return what had finished, without the cancelled rules
+                return new HashMap<>(results);
+            }
+
+            // Lấy kết quả
+            futures.forEach((ruleName, future) -> {
+                future.completeExceptionally(new TimeoutException("Deadline exceeded"));
+                try {
+                    RuleResult result = future.get();
+                    if (result != null) {
+                        results.put(ruleName, result);
+                    }
+                } catch (Exception e) {
+                    log.error("Error getting result for rule {}: {}", ruleName, e.getMessage());
+                    results.put(ruleName, RuleResult.builder()
+                        .status(ExecutionStatus.ERROR)
+                        .errorMessage("Error executing rule: " + e.getMessage())
+                        .build());
+                }
+            });
+            return results;
         }
     }
-} 
\ No newline at end of file
+}
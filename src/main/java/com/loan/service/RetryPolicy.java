@@ -0,0 +1,41 @@
+package com.loan.service;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.rule.annotation.RuleExecution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often and how long apart a failed rule is attempted again. The rule's own
+ * {@code retry_count}/{@code retry_delay_ms} columns win over its class's {@link RuleExecution};
+ * delays double per attempt up to {@code maxDelayMs} and are jittered to spread retries of
+ * concurrent requests.
+ *
+ * @param jitter Fraction of each delay that is randomized, between 0 and 1
+ */
+record RetryPolicy(int maxRetries, long baseDelayMs, double multiplier, long maxDelayMs, double jitter) {
+
+    static final RetryPolicy NONE = new RetryPolicy(0, 0, 1, 0, 0);
+
+    static RetryPolicy of(Rule rule, RuleExecution execution, RuleEngineProperties.Retry settings) {
+        int maxRetries = rule.getRetryCount() != null ? rule.getRetryCount()
+            : execution != null ? execution.maxRetries() : 0;
+        long baseDelay = rule.getRetryDelayMs() != null ? rule.getRetryDelayMs()
+            : execution != null ? execution.retryDelay() : 0;
+        if (maxRetries <= 0) {
+            return NONE;
+        }
+        return new RetryPolicy(maxRetries, Math.max(0, baseDelay), Math.max(1, settings.getMultiplier()),
+            settings.getMaxDelay().toMillis(), Math.min(1, Math.max(0, settings.getJitter())));
+    }
+
+    /**
+     * @param retry 1 for the first retry
+     */
+    long delayMillis(int retry) {
+        double delay = Math.min(maxDelayMs, baseDelayMs * Math.pow(multiplier, retry - 1));
+        // Keep (1 - jitter) of the delay and randomize the rest
+        return (long) (delay * (1 - jitter) + ThreadLocalRandom.current().nextDouble() * delay * jitter);
+    }
+}
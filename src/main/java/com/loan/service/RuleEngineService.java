@@ -2,11 +2,17 @@ package com.loan.service;
 
 import com.loan.domain.Rule;
 import com.loan.model.RuleResult;
+import com.loan.rule.analysis.RuleVariables;
+import com.loan.rule.script.ScriptCompilationReport;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface RuleEngineService {
     RuleResult executeRule(Rule rule, Map<String, Object> context);
     Object evaluateScript(String script, Map<String, Object> context);
     boolean validateRuleInput(Rule rule, Map<String, Object> input);
     Object convertOutput(Object result, String outputType);
+    List<ScriptCompilationReport> getScriptCompilationReports();
+    Optional<RuleVariables> getRuleVariables(Long ruleId);
 } 
\ No newline at end of file
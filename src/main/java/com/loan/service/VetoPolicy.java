@@ -0,0 +1,33 @@
+package com.loan.service;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.ExecutionStatus;
+import com.loan.domain.WorkflowStep;
+import com.loan.model.RuleResult;
+
+import java.util.Set;
+
+/**
+ * Decides which rule failures reject a workflow step, and whether the step stops at the first one.
+ * Advisory rules may fail without rejecting the step. Configured per step code under
+ * {@code rule-engine.veto.steps}.
+ *
+ * @param shortCircuit Stop the step, cancelling and dropping unfinished rules, once a veto decides it
+ */
+public record VetoPolicy(boolean shortCircuit, Set<String> advisoryRules) {
+
+    public static VetoPolicy of(WorkflowStep step, RuleEngineProperties.Veto settings) {
+        RuleEngineProperties.Veto.Step configured = step != null ? settings.getSteps().get(step.getStepCode()) : null;
+        if (configured == null) {
+            return new VetoPolicy(settings.isShortCircuit(), Set.of());
+        }
+        return new VetoPolicy(configured.isShortCircuit(), Set.copyOf(configured.getAdvisoryRules()));
+    }
+
+    /**
+     * @return Whether this result of the rule rejects the step
+     */
+    public boolean vetoes(String ruleName, RuleResult result) {
+        return result != null && result.getStatus() == ExecutionStatus.ERROR && !advisoryRules.contains(ruleName);
+    }
+}
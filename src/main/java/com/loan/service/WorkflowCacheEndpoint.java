@@ -0,0 +1,34 @@
+package com.loan.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator view of the workflow cache: {@code GET /actuator/workflowcache} shows its version and size,
+ * {@code POST /actuator/workflowcache} refreshes it now instead of at the next scheduled refresh.
+ */
+@Component
+@Endpoint(id = "workflowcache")
+public class WorkflowCacheEndpoint {
+
+    private final WorkflowDefinitionCache cache;
+
+    public WorkflowCacheEndpoint(WorkflowDefinitionCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> workflowCache() {
+        return Map.of("version", cache.getVersion(), "workflows", cache.size());
+    }
+
+    @WriteOperation
+    public Map<String, Object> refresh() {
+        cache.refresh();
+        return workflowCache();
+    }
+}
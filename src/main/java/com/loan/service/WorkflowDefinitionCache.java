@@ -0,0 +1,227 @@
+package com.loan.service;
+
+import com.loan.domain.Rule;
+import com.loan.domain.Workflow;
+import com.loan.domain.WorkflowStep;
+import com.loan.repository.WorkflowRepository;
+import com.loan.repository.WorkflowRevision;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable in-memory snapshot of the active workflows, each with its steps indexed by step code, so
+ * executing a step does not load its definition from the database.
+ * <p>
+ * The snapshot is loaded on startup. Every refresh, in the background or through
+ * {@code /actuator/workflowcache}, compares the revisions of the active workflows and reloads only the
+ * products whose revision moved; a product whose definition changed gets a new copy and the cache
+ * version is bumped, unchanged products keep theirs.
+ * The workflows and steps handed out are detached copies with unmodifiable step and rule lists and
+ * must be treated as read-only. Until the first load succeeds, lookups fall through to the repository.
+ */
+@Slf4j
+@Component
+public class WorkflowDefinitionCache implements MeterBinder {
+
+    private final WorkflowRepository workflowRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Map.of(), Map.of(), false));
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    public WorkflowDefinitionCache(WorkflowRepository workflowRepository) {
+        this.workflowRepository = workflowRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${rule-engine.workflow-cache.refresh-interval:PT30S}",
+        fixedDelayString = "${rule-engine.workflow-cache.refresh-interval:PT30S}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Reads the revision of every active workflow in one query and reloads only the workflows whose
+     * revision changed, were added or were deactivated; when none did, nothing else is queried. On
+     * failure the current snapshot is kept. Scheduled and actuator refreshes run one at a time.
+     */
+    public synchronized void refresh() {
+        Snapshot current = snapshot.get();
+        Map<String, Revision> revisions = new HashMap<>();
+        Map<String, WorkflowDefinition> next = new HashMap<>();
+        try {
+            for (WorkflowRevision revision : workflowRepository.findActiveWorkflowRevisions()) {
+                revisions.put(revision.getProductCode(), Revision.of(revision));
+            }
+            if (current.loaded() && revisions.equals(current.revisions())) {
+                return;
+            }
+            for (String productCode : List.copyOf(revisions.keySet())) {
+                WorkflowDefinition previous = current.workflows().get(productCode);
+                if (previous != null && revisions.get(productCode).equals(current.revisions().get(productCode))) {
+                    next.put(productCode, previous);
+                    continue;
+                }
+                reloads.increment();
+                Optional<Workflow> loaded = workflowRepository.findActiveWorkflowWithStepsAndRules(productCode);
+                if (loaded.isEmpty()) {
+                    // Deactivated since it was listed; forget its revision so the next refresh looks again
+                    revisions.remove(productCode);
+                    continue;
+                }
+                WorkflowDefinition definition = WorkflowDefinition.of(loaded.get());
+                next.put(productCode, definition.equals(previous) ? previous : definition);
+            }
+        } catch (Exception e) {
+            log.error("Could not reload workflow definitions, keeping {} cached workflows",
+                current.workflows().size(), e);
+            return;
+        }
+        if (current.loaded() && next.equals(current.workflows())) {
+            // Only a timestamp moved; keep the copies and the version
+            snapshot.set(new Snapshot(current.workflows(), Map.copyOf(revisions), true));
+            return;
+        }
+        snapshot.set(new Snapshot(Map.copyOf(next), Map.copyOf(revisions), true));
+        log.info("Workflow definitions loaded for {} products, version {}", next.size(),
+            version.incrementAndGet());
+    }
+
+    /**
+     * @return The active workflow of the product, or empty if it has none
+     */
+    public Optional<Workflow> getWorkflow(String productCode) {
+        return Optional.ofNullable(get(productCode)).map(WorkflowDefinition::workflow);
+    }
+
+    /**
+     * @return The step of the product's active workflow, or null if the workflow has no such step
+     * @throws IllegalArgumentException If the product has no active workflow
+     */
+    public WorkflowStep getStep(String productCode, String stepCode) {
+        WorkflowDefinition definition = get(productCode);
+        if (definition == null) {
+            throw new IllegalArgumentException("Workflow not found for product: " + productCode);
+        }
+        return definition.steps().get(stepCode);
+    }
+
+    /**
+     * Incremented on every reload that changed a definition.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        return snapshot.get().workflows().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("workflow.cache.hits", hits, LongAdder::sum)
+            .description("Workflow lookups served from the cached definitions")
+            .register(registry);
+        FunctionCounter.builder("workflow.cache.misses", misses, LongAdder::sum)
+            .description("Workflow lookups loaded from the database before the cache was ready")
+            .register(registry);
+        FunctionCounter.builder("workflow.cache.reloads", reloads, LongAdder::sum)
+            .description("Workflows reloaded from the database because their revision changed")
+            .register(registry);
+        Gauge.builder("workflow.cache.size", this, WorkflowDefinitionCache::size)
+            .description("Active workflows currently cached")
+            .register(registry);
+        Gauge.builder("workflow.cache.version", version, AtomicLong::get)
+            .description("Reloads of the workflow cache that changed a definition")
+            .register(registry);
+    }
+
+    private WorkflowDefinition get(String productCode) {
+        Snapshot current = snapshot.get();
+        if (current.loaded()) {
+            hits.increment();
+            return current.workflows().get(productCode);
+        }
+        misses.increment();
+        return workflowRepository.findActiveWorkflowWithStepsAndRules(productCode)
+            .map(WorkflowDefinition::of)
+            .orElse(null);
+    }
+
+    private record Snapshot(Map<String, WorkflowDefinition> workflows, Map<String, Revision> revisions,
+                            boolean loaded) {
+    }
+
+    private record Revision(LocalDateTime workflowUpdatedAt, LocalDateTime stepsUpdatedAt, Long steps,
+                            LocalDateTime rulesUpdatedAt, Long ruleLinks, Long ruleIds) {
+
+        static Revision of(WorkflowRevision revision) {
+            return new Revision(revision.getWorkflowUpdatedAt(), revision.getStepsUpdatedAt(), revision.getSteps(),
+                revision.getRulesUpdatedAt(), revision.getRuleLinks(), revision.getRuleIds());
+        }
+    }
+
+    /**
+     * A detached copy of one workflow. Definitions are compared by content, so an unchanged reload keeps
+     * the cached copy.
+     */
+    private record WorkflowDefinition(String productCode, Workflow workflow, Map<String, WorkflowStep> steps) {
+
+        static WorkflowDefinition of(Workflow loaded) {
+            Workflow workflow = Workflow.builder()
+                .id(loaded.getId())
+                .productCode(loaded.getProductCode())
+                .name(loaded.getName())
+                .isActive(loaded.isActive())
+                .description(loaded.getDescription())
+                .build();
+
+            List<WorkflowStep> steps = new ArrayList<>();
+            Map<String, WorkflowStep> byStepCode = new LinkedHashMap<>();
+            for (WorkflowStep loadedStep : loaded.getSteps() != null ? loaded.getSteps() : List.<WorkflowStep>of()) {
+                List<Rule> rules = loadedStep.getRules() != null ? List.copyOf(loadedStep.getRules()) : List.of();
+                WorkflowStep step = WorkflowStep.builder()
+                    .id(loadedStep.getId())
+                    .workflow(workflow)
+                    .stepCode(loadedStep.getStepCode())
+                    .stepName(loadedStep.getStepName())
+                    .stepOrder(loadedStep.getStepOrder())
+                    .isAutomated(loadedStep.isAutomated())
+                    .cronExpression(loadedStep.getCronExpression())
+                    .rules(rules)
+                    .description(loadedStep.getDescription())
+                    .parallelExecution(loadedStep.isParallelExecution())
+                    .build();
+                steps.add(step);
+                // The first step with a code wins, as with the linear search this replaces
+                byStepCode.putIfAbsent(step.getStepCode(), step);
+            }
+            workflow.setSteps(List.copyOf(steps));
+            return new WorkflowDefinition(workflow.getProductCode(), workflow, Collections.unmodifiableMap(byStepCode));
+        }
+    }
+}
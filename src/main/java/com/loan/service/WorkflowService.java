@@ -3,10 +3,13 @@ package com.loan.service;
 import com.loan.domain.Workflow;
 import com.loan.domain.WorkflowStep;
 import com.loan.model.LoanApprovalResult;
+import com.loan.rule.Deadline;
 import java.util.Map;
 
 public interface WorkflowService {
     LoanApprovalResult executeWorkflowStep(String productCode, String stepCode, Map<String, Object> context);
+    LoanApprovalResult executeWorkflowStep(String productCode, String stepCode, Map<String, Object> context,
+                                           Deadline deadline);
     Workflow getWorkflow(String productCode);
     WorkflowStep getWorkflowStep(String productCode, String stepCode);
     void validateWorkflow(Workflow workflow);
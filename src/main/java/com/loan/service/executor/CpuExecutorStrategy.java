@@ -0,0 +1,36 @@
+package com.loan.service.executor;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * One thread per core, for rules that compute rather than wait.
+ */
+@Component
+public class CpuExecutorStrategy implements RuleExecutorStrategy {
+
+    public static final String NAME = "cpu";
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), new CustomizableThreadFactory("rule-cpu-"));
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executorService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,52 @@
+package com.loan.service.executor;
+
+import com.loan.config.RuleEngineProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elastic pool for rules that mostly block on I/O: it grows a thread per concurrent call up to
+ * {@code rule-engine.executor.io-max-threads} and shrinks back when idle. Once all threads are busy,
+ * up to {@code io-max-queue} tasks wait; further tasks are rejected with
+ * {@link java.util.concurrent.RejectedExecutionException} rather than run on the submitting thread,
+ * which may be a completion or timer thread that must not block.
+ */
+@Component
+public class IoExecutorStrategy implements RuleExecutorStrategy {
+
+    public static final String NAME = "io";
+
+    private final ThreadPoolExecutor executorService;
+
+    public IoExecutorStrategy(RuleEngineProperties properties) {
+        RuleEngineProperties.Executor settings = properties.getExecutor();
+        int maxThreads = Math.max(1, settings.getIoMaxThreads());
+        // Core threads time out too, so the pool still grows before queueing and shrinks when idle
+        this.executorService = new ThreadPoolExecutor(maxThreads, maxThreads,
+            settings.getIoKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(Math.max(1, settings.getIoMaxQueue())),
+            new CustomizableThreadFactory("rule-io-"), new ThreadPoolExecutor.AbortPolicy());
+        executorService.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executorService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,76 @@
+package com.loan.service.executor;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.annotation.RuleClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Picks the executor a rule runs on: the strategy named by {@link RuleClass#executor()}, else the one
+ * configured for its rule type under {@code rule-engine.executor.rule-types}, else the default one.
+ */
+@Component
+public class RuleExecutorStrategies {
+
+    private final Map<String, RuleExecutorStrategy> strategies = new HashMap<>();
+    private final Map<String, String> ruleTypes;
+    private final RuleExecutorStrategy defaultStrategy;
+
+    public RuleExecutorStrategies(List<RuleExecutorStrategy> strategies, RuleEngineProperties properties) {
+        strategies.forEach(strategy -> this.strategies.put(strategy.getName(), strategy));
+        this.ruleTypes = Map.copyOf(properties.getExecutor().getRuleTypes());
+        this.defaultStrategy = strategy(properties.getExecutor().getDefaultStrategy());
+        // Fail at startup on a misspelt strategy name
+        ruleTypes.values().forEach(this::strategy);
+    }
+
+    private RuleExecutorStrategies(RuleExecutorStrategy only) {
+        this.ruleTypes = Map.of();
+        this.defaultStrategy = only;
+    }
+
+    /**
+     * Runs every rule on the given executor, whatever strategy it asks for.
+     */
+    public static RuleExecutorStrategies single(Executor executor) {
+        return new RuleExecutorStrategies(new RuleExecutorStrategy() {
+            @Override
+            public String getName() {
+                return CpuExecutorStrategy.NAME;
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return executor;
+            }
+        });
+    }
+
+    public RuleExecutorStrategy select(StatelessRule ruleBean) {
+        RuleClass annotation = ClassUtils.getUserClass(ruleBean).getAnnotation(RuleClass.class);
+        if (annotation != null && StringUtils.hasText(annotation.executor())) {
+            return strategy(annotation.executor());
+        }
+        String configured = ruleTypes.get(ruleBean.getRuleType());
+        return configured != null ? strategy(configured) : defaultStrategy;
+    }
+
+    private RuleExecutorStrategy strategy(String name) {
+        if (strategies.isEmpty()) {
+            return defaultStrategy;
+        }
+        RuleExecutorStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown rule executor strategy '" + name + "', expected one of "
+                + strategies.keySet());
+        }
+        return strategy;
+    }
+}
@@ -0,0 +1,18 @@
+package com.loan.service.executor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A pool that {@link com.loan.service.ParallelRuleExecutor} can run rules on. Implementations are
+ * Spring beans; a rule picks one by name through {@link com.loan.rule.annotation.RuleClass#executor()}
+ * or the {@code rule-engine.executor.*} properties.
+ */
+public interface RuleExecutorStrategy {
+
+    /**
+     * @return The name rules select this strategy by, such as {@code cpu} or {@code io}
+     */
+    String getName();
+
+    Executor getExecutor();
+}
@@ -0,0 +1,61 @@
+package com.loan.service.executor;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A virtual thread per rule on JDK 21 and later. The service is built for Java 17, so the executor is
+ * looked up at runtime; on older JDKs rules that ask for it run on the {@link IoExecutorStrategy} pool.
+ */
+@Slf4j
+@Component
+public class VirtualThreadExecutorStrategy implements RuleExecutorStrategy {
+
+    public static final String NAME = "virtual";
+
+    private final ExecutorService virtualThreads;
+    private final Executor executor;
+
+    public VirtualThreadExecutorStrategy(IoExecutorStrategy fallback) {
+        this.virtualThreads = newVirtualThreadPerTaskExecutor();
+        this.executor = virtualThreads != null ? virtualThreads : fallback.getExecutor();
+        if (virtualThreads == null) {
+            log.info("Virtual threads are not available on Java {}, '{}' rules use the '{}' pool",
+                Runtime.version().feature(), NAME, IoExecutorStrategy.NAME);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public boolean isAvailable() {
+        return virtualThreads != null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
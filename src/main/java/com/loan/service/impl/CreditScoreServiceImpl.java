@@ -1,12 +1,23 @@
 package com.loan.service.impl;
 
+import com.loan.config.RuleEngineProperties;
+import com.loan.rule.Deadline;
+import com.loan.rule.batch.MicroBatcher;
+import com.loan.rule.batch.MicroBatcherRegistry;
+import com.loan.rule.resilience.OutboundDependency;
 import com.loan.service.CreditScoreService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
@@ -15,8 +26,31 @@ public class CreditScoreServiceImpl implements CreditScoreService {
     // In-memory cache for demonstration
     private final Map<String, BigDecimal> creditScoreCache = new ConcurrentHashMap<>();
 
+    // Lookups of concurrent requests go to the bureau together when credit-score is opted in
+    private final MicroBatcher<String, BigDecimal> batcher;
+    private final RuleEngineProperties properties;
+
+    public CreditScoreServiceImpl(MicroBatcherRegistry batchers, RuleEngineProperties properties) {
+        this.batcher = batchers.create(OutboundDependency.CREDIT_SCORE, this::getCreditScores);
+        this.properties = properties;
+    }
+
     @Override
     public BigDecimal getCreditScore(String customerId) {
+        try {
+            return getCreditScore(customerId, null);
+        } catch (TimeoutException | InterruptedException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public BigDecimal getCreditScore(String customerId, Deadline deadline)
+        throws TimeoutException, InterruptedException {
+        if (batcher != null) {
+            return await(batcher.submit(customerId),
+                deadline != null ? deadline : Deadline.after(properties.getDeadline().getDefaultTimeout()));
+        }
         log.info("Retrieving credit score for customer: {}", customerId);
         
         // In a real implementation, this would call an external credit bureau service
@@ -24,9 +58,38 @@ public class CreditScoreServiceImpl implements CreditScoreService {
         return creditScoreCache.computeIfAbsent(customerId, this::generateRandomScore);
     }
 
+    @Override
+    public Map<String, BigDecimal> getCreditScores(List<String> customerIds) {
+        log.info("Retrieving credit scores for {} customers", customerIds.size());
+
+        // A real implementation would make one bulk request to the credit bureau
+        Map<String, BigDecimal> scores = new HashMap<>();
+        for (String customerId : customerIds) {
+            scores.put(customerId, creditScoreCache.computeIfAbsent(customerId, this::generateRandomScore));
+        }
+        return scores;
+    }
+
+    private static BigDecimal await(CompletableFuture<BigDecimal> score, Deadline deadline)
+        throws TimeoutException, InterruptedException {
+        try {
+            return score.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Deadline exceeded waiting for the batched credit score");
+        }
+    }
+
     private BigDecimal generateRandomScore(String customerId) {
         // Generate a random score between 300 and 850
         double randomScore = 300 + Math.random() * 550;
         return new BigDecimal(String.format("%.0f", randomScore));
     }
-} 
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.loan.service.impl;
 
 import com.loan.model.LoanApprovalRequest;
 import com.loan.model.LoanApprovalResult;
+import com.loan.rule.Deadline;
 import com.loan.service.KafkaService;
 import com.loan.service.WorkflowService;
 import lombok.RequiredArgsConstructor;
@@ -44,12 +45,27 @@ public class KafkaServiceImpl implements KafkaService {
     public void handleLoanApprovalRequest(LoanApprovalRequest request) {
         try {
             log.info("Received loan approval request: {}", request.getRequestId());
-            
-            LoanApprovalResult result = workflowService.executeWorkflowStep(
-                request.getProductCode(),
-                request.getWorkflowStep(),
-                request.getData()
-            );
+
+            LoanApprovalResult result;
+            if (request.getDeadline() == null) {
+                result = workflowService.executeWorkflowStep(
+                    request.getProductCode(),
+                    request.getWorkflowStep(),
+                    request.getData()
+                );
+            } else {
+                Deadline deadline = Deadline.atEpochMillis(request.getDeadline());
+                if (deadline.isExpired()) {
+                    // The producer has stopped waiting; answering late would only add load
+                    throw new IllegalStateException("Deadline expired before the request was processed");
+                }
+                result = workflowService.executeWorkflowStep(
+                    request.getProductCode(),
+                    request.getWorkflowStep(),
+                    request.getData(),
+                    deadline
+                );
+            }
 
             sendLoanApprovalResult(result);
         } catch (Exception e) {
@@ -7,7 +7,11 @@ import com.loan.model.RuleResult;
 import com.loan.repository.RuleRepository;
 import com.loan.repository.RuleExecutionLogRepository;
 import com.loan.rule.BaseRule;
-import com.loan.rule.RuleFactory;
+import com.loan.rule.RuleRegistry;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.analysis.RuleVariables;
+import com.loan.rule.script.ScriptCompilationReport;
+import com.loan.rule.script.ScriptExpressionCache;
 import com.loan.service.RuleEngineService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +19,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -24,7 +30,9 @@ public class RuleEngineServiceImpl implements RuleEngineService {
 
     private final RuleRepository ruleRepository;
     private final RuleExecutionLogRepository ruleExecutionLogRepository;
-    private final RuleFactory ruleFactory;
+    private final RuleRegistry ruleRegistry;
+    private final ScriptExpressionCache scriptExpressionCache;
+    private final RuleVariableAnalyzer variableAnalyzer;
 
     @Override
     @Transactional
@@ -37,8 +45,8 @@ public class RuleEngineServiceImpl implements RuleEngineService {
             .build();
 
         try {
-            // Create rule instance
-            BaseRule ruleInstance = ruleFactory.createRule(rule);
+            // Look up the prebuilt rule instance
+            BaseRule ruleInstance = ruleRegistry.get(rule);
 
             // Validate input
             if (!ruleInstance.validateInput(context)) {
@@ -99,7 +107,18 @@ public class RuleEngineServiceImpl implements RuleEngineService {
 
     @Override
     public Object evaluateScript(String script, java.util.Map<String, Object> context) {
-        // Not implemented, return null or throw exception as needed
-        return null;
+        // Ad-hoc scripts share the SCRIPT rule cache and compiler, keyed without a rule id
+        return scriptExpressionCache.get(null, script).getValue(context);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public List<ScriptCompilationReport> getScriptCompilationReports() {
+        return scriptExpressionCache.getCompilationReports();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RuleVariables> getRuleVariables(Long ruleId) {
+        return ruleRepository.findById(ruleId).map(variableAnalyzer::analyze);
+    }
+}
@@ -6,33 +6,57 @@ import com.loan.domain.Rule;
 import com.loan.domain.ExecutionStatus;
 import com.loan.model.LoanApprovalResult;
 import com.loan.model.RuleResult;
-import com.loan.repository.WorkflowRepository;
+import com.loan.config.RuleEngineProperties;
+import com.loan.rule.Deadline;
+import com.loan.rule.plan.RequestScope;
+import com.loan.rule.plan.RuleOrderOptimizer;
+import com.loan.rule.plan.StepPlanner;
 import com.loan.service.WorkflowService;
 import com.loan.service.RuleEngineService;
 import com.loan.service.ParallelRuleExecutor;
+import com.loan.service.VetoPolicy;
+import com.loan.service.WorkflowDefinitionCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WorkflowServiceImpl implements WorkflowService {
 
-    private final WorkflowRepository workflowRepository;
+    private final WorkflowDefinitionCache workflowDefinitionCache;
     private final RuleEngineService ruleEngineService;
     private final ParallelRuleExecutor parallelRuleExecutor;
+    private final StepPlanner stepPlanner;
+    private final RuleEngineProperties properties;
+    private final RuleOrderOptimizer ruleOrderOptimizer;
 
     @Override
-    @Transactional(readOnly = true)
     public LoanApprovalResult executeWorkflowStep(String productCode, String stepCode, Map<String, Object> context) {
+        return executeWorkflowStep(productCode, stepCode, context,
+            Deadline.after(properties.getDeadline().getDefaultTimeout()));
+    }
+
+    @Override
+    public LoanApprovalResult executeWorkflowStep(String productCode, String stepCode, Map<String, Object> context,
+                                                  Deadline deadline) {
+        // Every rule of the step sees the deadline in its context; it leaves with the request
+        context.put(Deadline.CONTEXT_KEY, deadline);
+        try {
+            return executeStep(productCode, stepCode, context, deadline);
+        } finally {
+            context.remove(Deadline.CONTEXT_KEY, deadline);
+        }
+    }
+
+    private LoanApprovalResult executeStep(String productCode, String stepCode, Map<String, Object> context,
+                                           Deadline deadline) {
         WorkflowStep step = getWorkflowStep(productCode, stepCode);
         if (step == null) {
             return LoanApprovalResult.builder()
@@ -51,24 +75,44 @@ public class WorkflowServiceImpl implements WorkflowService {
         }
 
         // Execute rules sequentially
+        List<Rule> activeRules = step.getRules().stream()
+            .filter(Rule::isActive)
+            .toList();
         List<RuleResult> ruleResults = new ArrayList<>();
         boolean approved = true;
-
-        for (Rule rule : step.getRules()) {
-            if (!rule.isActive()) {
-                continue;
-            }
-
-            RuleResult result = ruleEngineService.executeRule(rule, context);
-            ruleResults.add(result);
-
-            if (result.getStatus() == ExecutionStatus.ERROR) {
-                approved = false;
-                break;
+        VetoPolicy vetoPolicy = VetoPolicy.of(step, properties.getVeto());
+        // Rules likely to reject cheaply go first, within the order their dependencies require
+        List<Rule> orderedRules = ruleOrderOptimizer.order(step, activeRules);
+
+        try (RequestScope scope = stepPlanner.open(step, activeRules, context)) {
+            for (Rule rule : orderedRules) {
+                if (deadline.isExpired()) {
+                    log.warn("Deadline exceeded before rule {} of step {}", rule.getName(), stepCode);
+                    ruleResults.add(RuleResult.builder()
+                        .ruleId(rule.getId())
+                        .ruleName(rule.getName())
+                        .status(ExecutionStatus.ERROR)
+                        .errorMessage("Deadline exceeded before the rule started")
+                        .build());
+                    approved = false;
+                    break;
+                }
+                long start = System.nanoTime();
+                RuleResult result = ruleEngineService.executeRule(rule, context);
+                ruleResults.add(result);
+                boolean vetoed = vetoPolicy.vetoes(rule.getName(), result);
+                ruleOrderOptimizer.record(rule, System.nanoTime() - start, vetoed);
+
+                if (vetoed) {
+                    approved = false;
+                    if (vetoPolicy.shortCircuit()) {
+                        break;
+                    }
+                }
+
+                // Add rule result to context for subsequent rules
+                context.put(rule.getName(), result.getResult());
             }
-
-            // Add rule result to context for subsequent rules
-            context.put(rule.getName(), result.getResult());
         }
 
         return LoanApprovalResult.builder()
@@ -77,25 +121,20 @@ public class WorkflowServiceImpl implements WorkflowService {
             .workflowStep(stepCode)
             .approved(approved)
             .ruleResults(ruleResults)
+            .ruleOrder(orderedRules.stream().map(Rule::getName).toList())
             .timestamp(System.currentTimeMillis())
             .build();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Workflow getWorkflow(String productCode) {
-        return workflowRepository.findActiveWorkflowWithStepsAndRules(productCode)
+        return workflowDefinitionCache.getWorkflow(productCode)
             .orElseThrow(() -> new IllegalArgumentException("Workflow not found for product: " + productCode));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public WorkflowStep getWorkflowStep(String productCode, String stepCode) {
-        Workflow workflow = getWorkflow(productCode);
-        return workflow.getSteps().stream()
-            .filter(step -> step.getStepCode().equals(stepCode))
-            .findFirst()
-            .orElse(null);
+        return workflowDefinitionCache.getStep(productCode, stepCode);
     }
 
     private LoanApprovalResult executeRulesInParallel(WorkflowStep step, Map<String, Object> context) {
@@ -117,14 +156,16 @@ public class WorkflowServiceImpl implements WorkflowService {
                 .build();
         }
 
-        try {
+        try (RequestScope scope = stepPlanner.open(step, activeRules, context)) {
             // Execute rules in parallel
-            Map<String, RuleResult> results = parallelRuleExecutor.executeRules(activeRules, context);
+            // Stops early, with only the finished rules' results, once a veto rejects the step
+            Map<String, RuleResult> results = parallelRuleExecutor.executeRules(step, activeRules, context);
 
-            // Convert results to list and check for errors
+            // Convert results to list and check for errors; failures of advisory rules do not reject the step
+            VetoPolicy vetoPolicy = VetoPolicy.of(step, properties.getVeto());
             List<RuleResult> ruleResults = new ArrayList<>(results.values());
-            boolean approved = ruleResults.stream()
-                .noneMatch(result -> result.getStatus() == ExecutionStatus.ERROR);
+            boolean approved = results.entrySet().stream()
+                .noneMatch(entry -> vetoPolicy.vetoes(entry.getKey(), entry.getValue()));
 
             return LoanApprovalResult.builder()
                 .requestId((String) context.get("requestId"))
@@ -171,7 +212,6 @@ public class WorkflowServiceImpl implements WorkflowService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean isStepAutomated(String productCode, String stepCode) {
         WorkflowStep step = getWorkflowStep(productCode, stepCode);
         return step != null && step.isAutomated();
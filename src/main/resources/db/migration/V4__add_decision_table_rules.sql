@@ -0,0 +1,144 @@
+-- Threshold tables from V2, expressed as DECISION_TABLE rules
+-- rule_script holds the table as JSON: inputs, outputs, hit policy and rows.
+-- NUMBER cells take a number, a comparison (>= 750) or an interval ([650..750)); '-' matches anything.
+
+-- 1. Credit Card - Limit factors by credit score band, employment type and late payments
+INSERT INTO rules (
+    name,
+    description,
+    product_code,
+    rule_type,
+    rule_script,
+    input_type,
+    output_type,
+    execution_order,
+    active
+) VALUES (
+    'Credit Card Limit Factors',
+    'Hệ số hạn mức theo điểm tín dụng, loại hình công việc và lịch sử thanh toán',
+    'CREDIT_CARD',
+    'DECISION_TABLE',
+    '{
+        "hitPolicy": "FIRST",
+        "inputs": [
+            {"name": "creditScore", "type": "NUMBER"},
+            {"name": "employmentType", "type": "ENUM"},
+            {"name": "latePayments", "type": "NUMBER"}
+        ],
+        "outputs": ["creditScoreFactor", "employmentFactor", "historyFactor"],
+        "rows": [
+            {"when": {"creditScore": ">= 750", "employmentType": "PERMANENT", "latePayments": "0"},
+             "then": {"creditScoreFactor": 1.5, "employmentFactor": 1.3, "historyFactor": 1.2}},
+            {"when": {"creditScore": ">= 750", "employmentType": "PERMANENT", "latePayments": "[1..2]"},
+             "then": {"creditScoreFactor": 1.5, "employmentFactor": 1.3, "historyFactor": 1.0}},
+            {"when": {"creditScore": ">= 750", "employmentType": "PERMANENT"},
+             "then": {"creditScoreFactor": 1.5, "employmentFactor": 1.3, "historyFactor": 0.8}},
+            {"when": {"creditScore": ">= 750", "latePayments": "0"},
+             "then": {"creditScoreFactor": 1.5, "employmentFactor": 1.0, "historyFactor": 1.2}},
+            {"when": {"creditScore": ">= 750", "latePayments": "[1..2]"},
+             "then": {"creditScoreFactor": 1.5, "employmentFactor": 1.0, "historyFactor": 1.0}},
+            {"when": {"creditScore": ">= 750"},
+             "then": {"creditScoreFactor": 1.5, "employmentFactor": 1.0, "historyFactor": 0.8}},
+            {"when": {"creditScore": "[650..750)", "employmentType": "PERMANENT", "latePayments": "0"},
+             "then": {"creditScoreFactor": 1.2, "employmentFactor": 1.3, "historyFactor": 1.2}},
+            {"when": {"creditScore": "[650..750)", "employmentType": "PERMANENT", "latePayments": "[1..2]"},
+             "then": {"creditScoreFactor": 1.2, "employmentFactor": 1.3, "historyFactor": 1.0}},
+            {"when": {"creditScore": "[650..750)", "employmentType": "PERMANENT"},
+             "then": {"creditScoreFactor": 1.2, "employmentFactor": 1.3, "historyFactor": 0.8}},
+            {"when": {"creditScore": "[650..750)", "latePayments": "0"},
+             "then": {"creditScoreFactor": 1.2, "employmentFactor": 1.0, "historyFactor": 1.2}},
+            {"when": {"creditScore": "[650..750)", "latePayments": "[1..2]"},
+             "then": {"creditScoreFactor": 1.2, "employmentFactor": 1.0, "historyFactor": 1.0}},
+            {"when": {"creditScore": "[650..750)"},
+             "then": {"creditScoreFactor": 1.2, "employmentFactor": 1.0, "historyFactor": 0.8}},
+            {"when": {"employmentType": "PERMANENT", "latePayments": "0"},
+             "then": {"creditScoreFactor": 1.0, "employmentFactor": 1.3, "historyFactor": 1.2}},
+            {"when": {"employmentType": "PERMANENT", "latePayments": "[1..2]"},
+             "then": {"creditScoreFactor": 1.0, "employmentFactor": 1.3, "historyFactor": 1.0}},
+            {"when": {"employmentType": "PERMANENT"},
+             "then": {"creditScoreFactor": 1.0, "employmentFactor": 1.3, "historyFactor": 0.8}},
+            {"when": {"latePayments": "0"},
+             "then": {"creditScoreFactor": 1.0, "employmentFactor": 1.0, "historyFactor": 1.2}},
+            {"when": {"latePayments": "[1..2]"},
+             "then": {"creditScoreFactor": 1.0, "employmentFactor": 1.0, "historyFactor": 1.0}},
+            {"then": {"creditScoreFactor": 1.0, "employmentFactor": 1.0, "historyFactor": 0.8}}
+        ]
+    }',
+    '{"creditScore": "number", "employmentType": "string", "latePayments": "number"}',
+    '{"creditScoreFactor": "number", "employmentFactor": "number", "historyFactor": "number"}',
+    4,
+    true
+);
+
+-- 2. Mortgage - Maximum loan-to-value ratio by property type
+INSERT INTO rules (
+    name,
+    description,
+    product_code,
+    rule_type,
+    rule_script,
+    input_type,
+    output_type,
+    execution_order,
+    active
+) VALUES (
+    'Max LTV By Property Type',
+    'Tỷ lệ cho vay tối đa trên giá trị tài sản theo loại tài sản',
+    'MORTGAGE_LOAN',
+    'DECISION_TABLE',
+    '{
+        "hitPolicy": "FIRST",
+        "inputs": [{"name": "propertyType", "type": "ENUM"}],
+        "outputs": ["maxLtv"],
+        "rows": [
+            {"when": {"propertyType": "APARTMENT"}, "then": {"maxLtv": 0.7}},
+            {"when": {"propertyType": "HOUSE"}, "then": {"maxLtv": 0.8}},
+            {"then": {"maxLtv": 0.6}}
+        ]
+    }',
+    '{"propertyType": "string"}',
+    'number',
+    8,
+    true
+);
+
+-- 3. Credit Card - All risk flags raised by income and history bands
+INSERT INTO rules (
+    name,
+    description,
+    product_code,
+    rule_type,
+    rule_script,
+    input_type,
+    output_type,
+    execution_order,
+    active
+) VALUES (
+    'Credit Card Risk Flags',
+    'Liệt kê các cờ rủi ro theo thu nhập, điểm tín dụng và lịch sử thanh toán',
+    'CREDIT_CARD',
+    'DECISION_TABLE',
+    '{
+        "hitPolicy": "COLLECT",
+        "inputs": [
+            {"name": "monthlyIncome", "type": "NUMBER"},
+            {"name": "creditScore", "type": "NUMBER"},
+            {"name": "latePayments", "type": "NUMBER"},
+            {"name": "employmentType", "type": "ENUM"}
+        ],
+        "outputs": ["flag", "severity"],
+        "rows": [
+            {"when": {"monthlyIncome": "< 8000000"}, "then": {"flag": "LOW_INCOME", "severity": "HIGH"}},
+            {"when": {"creditScore": "< 650"}, "then": {"flag": "LOW_CREDIT_SCORE", "severity": "HIGH"}},
+            {"when": {"creditScore": "[650..700)"}, "then": {"flag": "FAIR_CREDIT_SCORE", "severity": "MEDIUM"}},
+            {"when": {"latePayments": "> 2"}, "then": {"flag": "REPEATED_LATE_PAYMENTS", "severity": "HIGH"}},
+            {"when": {"latePayments": "[1..2]"}, "then": {"flag": "LATE_PAYMENTS", "severity": "LOW"}},
+            {"when": {"employmentType": ["CONTRACT", "SELF_EMPLOYED", "PART_TIME"]},
+             "then": {"flag": "UNSTABLE_EMPLOYMENT", "severity": "MEDIUM"}}
+        ]
+    }',
+    '{"monthlyIncome": "number", "creditScore": "number", "latePayments": "number", "employmentType": "string"}',
+    '[{"flag": "string", "severity": "string"}]',
+    5,
+    true
+);
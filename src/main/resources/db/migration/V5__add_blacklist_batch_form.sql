@@ -0,0 +1,5 @@
+-- Keyed bulk form of the Blacklist Check, used when rule-engine.micro-batch opts the database in.
+-- Customers without an active entry have no row and count as 0, as the single query returns.
+UPDATE rules
+SET parameters = '{"batch": {"sql": "SELECT customer_id, COUNT(*) FROM blacklist WHERE customer_id IN (:keys) AND status = ''ACTIVE'' GROUP BY customer_id", "key": "customerId", "missing": 0}}'
+WHERE name = 'Blacklist Check';
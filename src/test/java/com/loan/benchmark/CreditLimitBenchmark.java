@@ -0,0 +1,164 @@
+package com.loan.benchmark;
+
+import com.loan.rule.CreditCardLimitRule;
+import com.loan.rule.math.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link CreditCardLimitRule} formula and the income checks of the loan rules computed
+ * with BigDecimal, as they are, and on scaled longs: products with the helpers below, division with
+ * {@link FixedPoint}. The last income value does not fit the scaled-long range and measures the fallback.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.loan.benchmark.CreditLimitBenchmark} or from the IDE;
+ * add {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditLimitBenchmark {
+
+    private static final BigDecimal BASE_INCOME_MULTIPLIER = new BigDecimal("3.0");
+    private static final BigDecimal HIGH_CREDIT_SCORE_THRESHOLD = new BigDecimal("750.0");
+    private static final BigDecimal HIGH_CREDIT_SCORE_FACTOR = new BigDecimal("1.5");
+    private static final BigDecimal DEFAULT_CREDIT_SCORE_FACTOR = new BigDecimal("1.0");
+    private static final BigDecimal PERMANENT_EMPLOYMENT_FACTOR = new BigDecimal("1.3");
+    private static final BigDecimal NO_LATE_PAYMENT_FACTOR = new BigDecimal("1.2");
+    private static final BigDecimal MIN_INCOME_MULTIPLIER = new BigDecimal("0.3");
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+        10_000_000L, 100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L,
+        100_000_000_000_000_000L, 1_000_000_000_000_000_000L};
+
+    @Param({"25000000", "25000000.00", "92233720368547758.07"})
+    private String income;
+
+    private BigDecimal monthlyIncome;
+    private BigDecimal creditScore;
+    private BigDecimal loanAmount;
+    private int loanTermMonths;
+    private BigDecimal loanTerm;
+
+    @Setup
+    public void setUp() {
+        monthlyIncome = new BigDecimal(income);
+        creditScore = new BigDecimal("780");
+        loanAmount = new BigDecimal("300000000.00");
+        loanTermMonths = 36;
+        loanTerm = new BigDecimal(loanTermMonths);
+    }
+
+    // Both limits are part of the rule result, so both are consumed
+
+    @Benchmark
+    public void creditLimitBigDecimal(Blackhole blackhole) {
+        BigDecimal baseLimit = monthlyIncome.multiply(BASE_INCOME_MULTIPLIER);
+        blackhole.consume(baseLimit);
+        blackhole.consume(baseLimit
+            .multiply(creditScoreFactor())
+            .multiply(PERMANENT_EMPLOYMENT_FACTOR)
+            .multiply(NO_LATE_PAYMENT_FACTOR));
+    }
+
+    @Benchmark
+    public void creditLimitFixedPoint(Blackhole blackhole) {
+        BigDecimal baseLimit = multiply(monthlyIncome, BASE_INCOME_MULTIPLIER);
+        blackhole.consume(baseLimit);
+        blackhole.consume(multiply(baseLimit, creditScoreFactor(), PERMANENT_EMPLOYMENT_FACTOR,
+            NO_LATE_PAYMENT_FACTOR));
+    }
+
+    @Benchmark
+    public boolean incomeCheckBigDecimal() {
+        BigDecimal monthlyLoanPayment = loanAmount.divide(new BigDecimal(loanTermMonths), 2, RoundingMode.HALF_UP);
+        return monthlyIncome.multiply(MIN_INCOME_MULTIPLIER).compareTo(monthlyLoanPayment) >= 0;
+    }
+
+    @Benchmark
+    public boolean incomeCheckFixedPoint() {
+        BigDecimal monthlyLoanPayment = FixedPoint.divide(loanAmount, loanTerm, 2, RoundingMode.HALF_UP);
+        return compareProduct(monthlyIncome, MIN_INCOME_MULTIPLIER, monthlyLoanPayment) >= 0;
+    }
+
+    // Scaled-long products; the rules do not use them, so they live with the benchmark
+
+    /**
+     * {@code a.multiply(b)}.
+     */
+    static BigDecimal multiply(BigDecimal a, BigDecimal b) {
+        if (FixedPoint.fits(a) && FixedPoint.fits(b) && a.scale() + b.scale() <= FixedPoint.MAX_SCALE) {
+            long x = unscaled(a);
+            long y = unscaled(b);
+            long product = x * y;
+            if (Math.multiplyHigh(x, y) == (product >> 63)) {
+                return BigDecimal.valueOf(product, a.scale() + b.scale());
+            }
+        }
+        return a.multiply(b);
+    }
+
+    /**
+     * {@code a.multiply(b).multiply(c).multiply(d)}, computed on one long without intermediate values.
+     */
+    static BigDecimal multiply(BigDecimal a, BigDecimal b, BigDecimal c, BigDecimal d) {
+        int scale = a.scale() + b.scale() + c.scale() + d.scale();
+        if (FixedPoint.fits(a) && FixedPoint.fits(b) && FixedPoint.fits(c) && FixedPoint.fits(d)
+            && scale <= FixedPoint.MAX_SCALE && a.precision() + b.precision() + c.precision() + d.precision() <= 18) {
+            return BigDecimal.valueOf(unscaled(a) * unscaled(b) * unscaled(c) * unscaled(d), scale);
+        }
+        return a.multiply(b).multiply(c).multiply(d);
+    }
+
+    /**
+     * {@code a.multiply(b).compareTo(c)} without creating the product.
+     */
+    static int compareProduct(BigDecimal a, BigDecimal b, BigDecimal c) {
+        int scale = a.scale() + b.scale();
+        // Both sides are brought to the larger scale; only compare on longs when that cannot overflow
+        if (FixedPoint.fits(a) && FixedPoint.fits(b) && FixedPoint.fits(c) && scale <= FixedPoint.MAX_SCALE
+            && a.precision() + b.precision() + Math.max(0, c.scale() - scale) <= 18
+            && c.precision() + Math.max(0, scale - c.scale()) <= 18) {
+            long product = unscaled(a) * unscaled(b) * POWERS_OF_TEN[Math.max(0, c.scale() - scale)];
+            long other = unscaled(c) * POWERS_OF_TEN[Math.max(0, scale - c.scale())];
+            return Long.compare(product, other);
+        }
+        return a.multiply(b).compareTo(c);
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value.unscaledValue().longValue();
+    }
+
+    private BigDecimal creditScoreFactor() {
+        return creditScore.compareTo(HIGH_CREDIT_SCORE_THRESHOLD) >= 0
+            ? HIGH_CREDIT_SCORE_FACTOR : DEFAULT_CREDIT_SCORE_FACTOR;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(CreditLimitBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
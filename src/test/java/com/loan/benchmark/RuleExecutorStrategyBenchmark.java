@@ -0,0 +1,146 @@
+package com.loan.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.ExecutionStatus;
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.annotation.RuleClass;
+import com.loan.rule.fallback.FallbackInvokers;
+import com.loan.rule.resilience.BulkheadRegistry;
+import com.loan.rule.resilience.CircuitBreakerRegistry;
+import com.loan.rule.table.DecisionTableCache;
+import com.loan.service.ParallelRuleExecutor;
+import com.loan.service.executor.CpuExecutorStrategy;
+import com.loan.service.executor.IoExecutorStrategy;
+import com.loan.service.executor.RuleExecutorStrategies;
+import com.loan.service.executor.VirtualThreadExecutorStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of a mixed workflow step, three CPU-bound rules and three rules that block 5 ms on a
+ * simulated remote call, under 16 concurrent requests. {@code cpu} runs everything on the per-core
+ * pool as before; {@code io} and {@code virtual} move the blocking rules to their own strategy.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.loan.benchmark.RuleExecutorStrategyBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(16)
+@Fork(1)
+public class RuleExecutorStrategyBenchmark {
+
+    @Param({"cpu", "io", "virtual"})
+    private String ioRuleStrategy;
+
+    private CpuExecutorStrategy cpu;
+    private IoExecutorStrategy io;
+    private VirtualThreadExecutorStrategy virtual;
+    private ParallelRuleExecutor executor;
+    private List<Rule> rules;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getExecutor().getRuleTypes().put(IoRule.TYPE, ioRuleStrategy);
+        cpu = new CpuExecutorStrategy();
+        io = new IoExecutorStrategy(properties);
+        virtual = new VirtualThreadExecutorStrategy(io);
+
+        List<StatelessRule> beans = List.of(new CpuRule(), new IoRule());
+        executor = new ParallelRuleExecutor(new RuleExecutorStrategies(List.of(cpu, io, virtual), properties), properties);
+        ReflectionTestUtils.setField(executor, "ruleBeans", Map.of("cpuRule", beans.get(0), "ioRule", beans.get(1)));
+        ReflectionTestUtils.setField(executor, "variableAnalyzer", new RuleVariableAnalyzer(
+            new DecisionTableCache(new ObjectMapper(), properties), new ObjectMapper()));
+        ReflectionTestUtils.setField(executor, "fallbackInvokers", new FallbackInvokers(beans));
+        ReflectionTestUtils.setField(executor, "circuitBreakerRegistry", new CircuitBreakerRegistry(event -> { }));
+        ReflectionTestUtils.setField(executor, "bulkheadRegistry", new BulkheadRegistry(properties));
+
+        rules = List.of(rule("Score", "cpuRule"), rule("Limit", "cpuRule"), rule("Ratio", "cpuRule"),
+            rule("Bureau", "ioRule"), rule("Blacklist", "ioRule"), rule("Documents", "ioRule"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cpu.shutdown();
+        io.shutdown();
+        virtual.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, RuleResult> mixedStep() {
+        return executor.executeRules(rules, Map.of("customerId", "C1"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RuleExecutorStrategyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static Rule rule(String name, String ruleClass) {
+        return Rule.builder().name(name).ruleType("JAVA").ruleClass(ruleClass).build();
+    }
+
+    @RuleClass(name = "Cpu")
+    public static class CpuRule extends IoRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            Blackhole.consumeCPU(20_000);
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS).build();
+        }
+
+        @Override
+        public String getRuleType() {
+            return "CPU_SCORING";
+        }
+    }
+
+    @RuleClass(name = "Io")
+    public static class IoRule implements StatelessRule {
+        static final String TYPE = "IO_LOOKUP";
+
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS).build();
+        }
+
+        @Override
+        public boolean validateInput(Rule rule, Map<String, Object> context) {
+            return true;
+        }
+
+        @Override
+        public String getRuleType() {
+            return TYPE;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.loan.benchmark;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.rule.ScriptRule;
+import com.loan.rule.script.CompiledRuleExpression;
+import com.loan.rule.script.RuleExpressionCompiler;
+import com.loan.rule.script.ScriptExpressionCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways a SCRIPT rule can be evaluated: the original parse-per-call path, the cached
+ * SpEL expression interpreted and bytecode-compiled, and the native rule-expression compiler, both
+ * through {@link ScriptRule} and as a bare expression.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.loan.benchmark.ScriptRuleBenchmark} or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptRuleBenchmark {
+
+    @Param({
+        "#age >= 18 && #monthlyIncome >= 5000000 && #creditScore > 650",
+        "(#monthlyIncome - #existingDebt) * 12 > #loanAmount / 3 ? 'APPROVE' : 'REVIEW'",
+        "#annualIncome * 0.3 >= #requestedLimit"
+    })
+    private String script;
+
+    private final ExpressionParser legacyParser = new SpelExpressionParser();
+    private Map<String, Object> context;
+    private ScriptRule interpretedRule;
+    private ScriptRule compiledRule;
+    private ScriptRule nativeRule;
+    private CompiledRuleExpression nativeExpression;
+
+    @Setup
+    public void setUp() {
+        context = new HashMap<>();
+        context.put("age", 35);
+        context.put("monthlyIncome", 25_000_000L);
+        context.put("existingDebt", 4_000_000L);
+        context.put("creditScore", 720);
+        context.put("loanAmount", 300_000_000L);
+        context.put("annualIncome", new BigDecimal("300000000"));
+        context.put("requestedLimit", new BigDecimal("50000000"));
+        context.put("productCode", "CREDIT_CARD");
+
+        interpretedRule = scriptRule(SpelCompilerMode.OFF, false);
+        compiledRule = scriptRule(SpelCompilerMode.IMMEDIATE, false);
+        nativeRule = scriptRule(SpelCompilerMode.OFF, true);
+        nativeExpression = RuleExpressionCompiler.compile(script);
+
+        // Let IMMEDIATE mode pass its compile threshold before measuring
+        for (int i = 0; i < 10; i++) {
+            compiledRule.execute(context);
+        }
+    }
+
+    @Benchmark
+    public Object legacyParsePerCall() {
+        StandardEvaluationContext evalContext = new StandardEvaluationContext();
+        context.forEach(evalContext::setVariable);
+        return legacyParser.parseExpression(script).getValue(evalContext);
+    }
+
+    @Benchmark
+    public Object spelInterpreted() {
+        return interpretedRule.execute(context);
+    }
+
+    @Benchmark
+    public Object spelCompiled() {
+        return compiledRule.execute(context);
+    }
+
+    @Benchmark
+    public Object nativeCompiled() {
+        return nativeRule.execute(context);
+    }
+
+    @Benchmark
+    public Object nativeExpressionOnly() {
+        return nativeExpression.evaluate(context);
+    }
+
+    private ScriptRule scriptRule(SpelCompilerMode mode, boolean nativeEnabled) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getScriptCompiler().setMode(mode);
+        properties.getScriptCompiler().setNativeEnabled(nativeEnabled);
+
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("Benchmark script rule");
+        rule.setRuleScript(script);
+        return new ScriptRule(rule, new ScriptExpressionCache(properties));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ScriptRuleBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
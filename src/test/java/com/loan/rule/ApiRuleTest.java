@@ -0,0 +1,89 @@
+package com.loan.rule;
+
+import com.loan.domain.ExecutionStatus;
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiRuleTest {
+
+    private HttpServer server;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.createContext("/fast", exchange -> {
+            byte[] body = "{\"approved\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void slowEndpointReleasesTheThreadAtTheDeadline() {
+        ApiRule rule = new ApiRule(rule("/slow"));
+
+        long start = System.nanoTime();
+        RuleResult result = rule.execute(context(Deadline.after(Duration.ofMillis(200))));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(ExecutionStatus.ERROR, result.getStatus());
+        assertTrue(result.getErrorMessage().contains("timed out"), result.getErrorMessage());
+    }
+
+    @Test
+    void endpointAnsweringWithinTheDeadlineSucceeds() {
+        ApiRule rule = new ApiRule(rule("/fast"));
+
+        RuleResult result = rule.execute(context(Deadline.after(Duration.ofSeconds(5))));
+
+        assertEquals(ExecutionStatus.SUCCESS, result.getStatus());
+        assertEquals(Map.of("approved", true), result.getResult());
+    }
+
+    private Rule rule(String path) {
+        return Rule.builder()
+            .id(1L)
+            .name("Bureau")
+            .ruleType("API")
+            .ruleScript("http://localhost:" + server.getAddress().getPort() + path)
+            .build();
+    }
+
+    private static Map<String, Object> context(Deadline deadline) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("body", Map.of("customerId", "C1"));
+        context.put(Deadline.CONTEXT_KEY, deadline);
+        return context;
+    }
+}
@@ -0,0 +1,101 @@
+package com.loan.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.domain.ExecutionStatus;
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.table.DecisionTableCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DatabaseRuleTest {
+
+    private final AtomicInteger queryTimeout = new AtomicInteger();
+
+    @Test
+    void slowQueryIsCancelledAtTheDeadline() throws Exception {
+        DatabaseRule rule = new DatabaseRule(rule("SELECT COUNT(*) FROM blacklist WHERE customer_id = :customerId"),
+            new JdbcTemplate(slowDataSource()), analyzer());
+
+        long start = System.nanoTime();
+        RuleResult result = rule.execute(context(Deadline.after(Duration.ofMillis(200))));
+
+        assertEquals(1, queryTimeout.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertEquals(ExecutionStatus.ERROR, result.getStatus());
+    }
+
+    @Test
+    void updatesAreBoundedByTheDeadlineToo() throws Exception {
+        DatabaseRule rule = new DatabaseRule(rule("UPDATE loans SET checked = 1 WHERE customer_id = :customerId"),
+            new JdbcTemplate(slowDataSource()), analyzer());
+
+        RuleResult result = rule.execute(context(Deadline.after(Duration.ofSeconds(5))));
+
+        assertEquals(5, queryTimeout.get());
+        assertEquals(ExecutionStatus.SUCCESS, result.getStatus());
+        assertEquals(1, result.getResult());
+    }
+
+    /**
+     * Behaves like a driver on a query that takes ten seconds: it is cancelled once the query timeout
+     * set on the statement elapses, or after the ten seconds if none is set. Updates return at once.
+     */
+    private DataSource slowDataSource() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doAnswer(invocation -> {
+            queryTimeout.set(invocation.getArgument(0));
+            return null;
+        }).when(statement).setQueryTimeout(anyInt());
+        when(statement.getQueryTimeout()).thenAnswer(invocation -> queryTimeout.get());
+        when(statement.executeQuery()).thenAnswer(invocation -> slowStatement());
+        when(statement.executeUpdate()).thenReturn(1);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private Object slowStatement() throws Exception {
+        int timeout = queryTimeout.get();
+        Thread.sleep(timeout > 0 ? TimeUnit.SECONDS.toMillis(timeout) : TimeUnit.SECONDS.toMillis(10));
+        throw new SQLTimeoutException("Statement cancelled due to timeout");
+    }
+
+    private static RuleVariableAnalyzer analyzer() {
+        return new RuleVariableAnalyzer(mock(DecisionTableCache.class), new ObjectMapper());
+    }
+
+    private static Rule rule(String sql) {
+        return Rule.builder()
+            .id(1L)
+            .name("Blacklist Check")
+            .ruleType("DATABASE")
+            .ruleScript(sql)
+            .build();
+    }
+
+    private static Map<String, Object> context(Deadline deadline) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("customerId", "C1");
+        context.put(Deadline.CONTEXT_KEY, deadline);
+        return context;
+    }
+}
@@ -0,0 +1,105 @@
+package com.loan.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.ExecutionStatus;
+import com.loan.domain.Rule;
+import com.loan.repository.RuleRepository;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.script.ScriptExpressionCache;
+import com.loan.rule.table.DecisionTableCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RuleRegistryTest {
+
+    private final RuleRepository ruleRepository = mock(RuleRepository.class);
+    private final RuleRegistry registry = registry();
+
+    @Test
+    void instancesAreReusedUntilTheRuleChanges() {
+        Rule adult = rule(1L, "Adult", "age >= 18");
+        when(ruleRepository.findAll()).thenReturn(List.of(adult));
+        registry.refresh();
+        assertEquals(1, registry.size());
+
+        BaseRule instance = registry.get(rule(1L, "Adult", "age >= 18"));
+        assertSame(instance, registry.get(adult));
+        assertSame(instance, registry.get(1L).orElseThrow());
+
+        BaseRule changed = registry.get(rule(1L, "Adult", "age >= 21"));
+        assertNotSame(instance, changed);
+        assertEquals("age >= 21", changed.getRule().getRuleScript());
+        assertSame(changed, registry.get(1L).orElseThrow());
+
+        // Refreshing from an unchanged repository keeps the instances that are still current
+        when(ruleRepository.findAll()).thenReturn(List.of(rule(1L, "Adult", "age >= 21")));
+        registry.refresh();
+        assertSame(changed, registry.get(1L).orElseThrow());
+    }
+
+    @Test
+    void compositeRulesResolveSubRulesThroughTheRegistry() {
+        Rule adult = rule(1L, "Adult", "age >= 18");
+        Rule composite = Rule.builder().id(2L).name("All").ruleType("COMPOSITE").ruleClass("")
+            .ruleScript("1").active(true).build();
+        when(ruleRepository.findAll()).thenReturn(List.of(adult, composite));
+        registry.refresh();
+
+        Map<String, Object> context = new HashMap<>(Map.of("age", 30));
+        assertEquals(ExecutionStatus.SUCCESS, registry.get(composite).execute(context).getStatus());
+        verify(ruleRepository, never()).findById(any());
+
+        when(ruleRepository.findById(3L)).thenReturn(Optional.empty());
+        Rule missing = Rule.builder().id(4L).name("Missing").ruleType("COMPOSITE").ruleClass("")
+            .ruleScript("3").active(true).build();
+        assertEquals(ExecutionStatus.ERROR, registry.get(missing).execute(context).getStatus());
+    }
+
+    @Test
+    void javaRulesShareOneStatelessInstanceAcrossDefinitions() {
+        Rule standard = javaRule(5L, "Standard Limit");
+        Rule premium = javaRule(6L, "Premium Limit");
+        BaseRule first = registry.get(standard);
+        BaseRule second = registry.get(premium);
+        assertSame(((StatelessRuleAdapter) first).getDelegate(), ((StatelessRuleAdapter) second).getDelegate());
+
+        Map<String, Object> context = new HashMap<>(Map.of("customerId", "C1",
+            "monthlyIncome", new BigDecimal("10000000"), "creditScore", new BigDecimal("700"),
+            "employmentType", "PERMANENT", "latePayments", 0));
+        assertTrue(first.validateInput(context));
+        assertEquals("Standard Limit", first.execute(context).getRuleName());
+        assertEquals("Premium Limit", second.execute(context).getRuleName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private RuleRegistry registry() {
+        ObjectProvider<RuleRegistry> provider = mock(ObjectProvider.class);
+        DecisionTableCache decisionTableCache = new DecisionTableCache(new ObjectMapper(), new RuleEngineProperties());
+        RuleFactory factory = new RuleFactory(ruleRepository, null,
+            new ScriptExpressionCache(new RuleEngineProperties()), decisionTableCache,
+            new RuleVariableAnalyzer(decisionTableCache, new ObjectMapper()), null, null, null, null, provider);
+        RuleRegistry registry = new RuleRegistry(ruleRepository, factory);
+        when(provider.getObject()).thenReturn(registry);
+        return registry;
+    }
+
+    private static Rule javaRule(Long id, String name) {
+        return Rule.builder().id(id).name(name).ruleType("JAVA").ruleClass(CreditCardLimitRule.class.getName())
+            .active(true).build();
+    }
+
+    private static Rule rule(Long id, String name, String script) {
+        return Rule.builder().id(id).name(name).ruleType("SCRIPT").ruleClass("")
+            .ruleScript(script).active(true).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.loan.rule.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.rule.table.DecisionTableCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleVariableAnalyzerTest {
+
+    private final RuleVariableAnalyzer analyzer = new RuleVariableAnalyzer(
+        new DecisionTableCache(new ObjectMapper(), new RuleEngineProperties()), new ObjectMapper());
+
+    @Test
+    void scriptReadsComeFromTheExpression() {
+        RuleVariables nativeSubset = analyzer.analyze(rule(1L, "Age", "SCRIPT", null,
+            "age >= 18 && #monthlyIncome > 5000000 ? 'OK' : 'REJECT'"));
+        assertEquals(Set.of("age", "monthlyIncome"), nativeSubset.reads());
+        assertEquals(Set.of("Age"), nativeSubset.writes());
+        assertTrue(nativeSubset.complete());
+
+        // Method calls are outside the native subset; only the receiver is read from the context
+        RuleVariables spel = analyzer.analyze(rule(2L, "Purpose", "SCRIPT", null,
+            "loanPurpose.toUpperCase() == 'HOME' and documents.size() > minDocuments"));
+        assertEquals(Set.of("loanPurpose", "documents", "minDocuments"), spel.reads());
+        assertTrue(spel.complete());
+
+        assertFalse(analyzer.analyze(rule(3L, "Root", "SCRIPT", null, "#root.size() > 3")).complete());
+    }
+
+    @Test
+    void databaseReadsAreTheNamedParameters() {
+        RuleVariables variables = analyzer.analyze(rule(4L, "Blacklist Check", "DATABASE", null,
+            "SELECT COUNT(*) FROM blacklist WHERE customer_id = :customerId AND note <> ':ignored' "
+                + "AND created_at > :since AND customer_id = :customerId"));
+        assertEquals(Set.of("customerId", "since"), variables.reads());
+        assertTrue(variables.complete());
+    }
+
+    @Test
+    void javaRulesUseTheirAnnotation() {
+        RuleVariables declared = analyzer.analyze(rule(5L, "Income", "JAVA", "IncomeVerificationRule", null));
+        assertEquals(Set.of("customerId", "monthlyIncome", "loanAmount", "loanTermMonths", "monthlyDebtPayments"),
+            declared.reads());
+        assertTrue(declared.complete());
+
+        Rule composite = rule(6L, "Full Validation", "COMPOSITE", null, null);
+        composite.setInputType("{\"customerId\": \"string\"}");
+        RuleVariables undeclared = analyzer.analyze(composite);
+        assertEquals(Set.of("customerId"), undeclared.reads());
+        assertFalse(undeclared.complete());
+
+        // An unresolvable rule_class falls back to the declared inputs
+        Rule missing = rule(10L, "Missing", "JAVA", "com.example.MissingRule", null);
+        missing.setInputType("{\"customerId\": \"string\"}");
+        RuleVariables unresolved = analyzer.analyze(missing);
+        assertEquals(Set.of("customerId"), unresolved.reads());
+        assertFalse(unresolved.complete());
+    }
+
+    @Test
+    void dependenciesFollowReadsOfOtherRuleResults() {
+        Rule score = rule(7L, "Score", "SCRIPT", null, "creditScore / 10");
+        Rule limit = rule(8L, "Limit", "SCRIPT", null, "Score > 60 ? monthlyIncome * 3 : 0");
+        Rule purpose = rule(9L, "Purpose", "SCRIPT", null, "loanPurpose == 'HOME'");
+
+        assertEquals(Map.of("Score", Set.of(), "Limit", Set.of("Score"), "Purpose", Set.of()),
+            analyzer.inferDependencies(List.of(score, limit, purpose)));
+    }
+
+    private static Rule rule(Long id, String name, String type, String ruleClass, String script) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setName(name);
+        rule.setRuleType(type);
+        rule.setRuleClass(ruleClass);
+        rule.setRuleScript(script);
+        return rule;
+    }
+}
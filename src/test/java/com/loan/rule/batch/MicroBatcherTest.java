@@ -0,0 +1,221 @@
+package com.loan.rule.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MicroBatcherTest {
+
+    private static final String BLACKLIST = "{\"batch\": {\"sql\": \"SELECT customer_id, COUNT(*) FROM blacklist "
+        + "WHERE customer_id IN (:keys) AND status = 'ACTIVE' GROUP BY customer_id\", \"key\": \"customerId\", "
+        + "\"missing\": 0}}";
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void lookupsWithinTheWindowShareOneBulkCall() throws Exception {
+        MicroBatcher<String, Integer> batcher = batcher(Duration.ofMillis(50), 10, keys -> {
+            calls.add(keys);
+            return keys.stream().filter(key -> !key.equals("unknown"))
+                .collect(Collectors.toMap(key -> key, String::length));
+        });
+
+        CompletableFuture<Integer> first = batcher.submit("C1");
+        CompletableFuture<Integer> second = batcher.submit("C22");
+        CompletableFuture<Integer> duplicate = batcher.submit("C1");
+        CompletableFuture<Integer> unknown = batcher.submit("unknown");
+
+        assertEquals(2, first.get(1, TimeUnit.SECONDS));
+        assertEquals(3, second.get(1, TimeUnit.SECONDS));
+        assertSame(first, duplicate);
+        assertNull(unknown.get(1, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("C1", "C22", "unknown")), calls);
+        assertEquals(1, batcher.getDeduplicated());
+
+        // A batch that fills up is sent right away by the caller that filled it
+        MicroBatcher<String, Integer> small = batcher(Duration.ofHours(1), 2, keys -> {
+            calls.add(keys);
+            return Map.of();
+        });
+        small.submit("A");
+        assertTrue(small.submit("B").isDone());
+        assertEquals(List.of("A", "B"), calls.get(1));
+    }
+
+    @Test
+    void failedBulkCallIsRetriedKeyByKey() throws Exception {
+        MicroBatcher<String, Integer> batcher = batcher(Duration.ofHours(1), 3, keys -> {
+            calls.add(keys);
+            if (keys.contains("bad")) {
+                throw new IllegalStateException("bad key");
+            }
+            return Map.of(keys.get(0), 1);
+        });
+
+        CompletableFuture<Integer> good = batcher.submit("good");
+        CompletableFuture<Integer> bad = batcher.submit("bad");
+        batcher.submit("other");
+
+        assertEquals(1, good.get());
+        ExecutionException failure = assertThrows(ExecutionException.class, bad::get);
+        assertEquals("bad key", failure.getCause().getMessage());
+        assertEquals(4, calls.size());
+        assertEquals(1, batcher.getFailedBatches());
+    }
+
+    @Test
+    void rejectedFlushFailsTheBatchInsteadOfRunningOnTheTimer() {
+        MicroBatcher<String, Integer> batcher = new MicroBatcher<>("test",
+            new MicroBatcher.Config(Duration.ofMillis(10).toNanos(), 10), keys -> {
+                calls.add(keys);
+                return Map.of();
+            }, timer, command -> {
+                throw new RejectedExecutionException("I/O pool is full");
+            });
+
+        CompletableFuture<Integer> lookup = batcher.submit("C1");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> lookup.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        assertTrue(calls.isEmpty());
+        assertEquals(1, batcher.getFailedBatches());
+    }
+
+    @Test
+    void failedBulkCallRetriesKeysInParallelOnTheFlushExecutor() throws Exception {
+        List<Runnable> retries = new CopyOnWriteArrayList<>();
+        MicroBatcher<String, Integer> batcher = new MicroBatcher<>("test",
+            new MicroBatcher.Config(Duration.ofHours(1).toNanos(), 2), keys -> {
+                calls.add(keys);
+                if (keys.size() > 1) {
+                    throw new IllegalStateException("bulk call failed");
+                }
+                return Map.of(keys.get(0), keys.get(0).length());
+            }, timer, retries::add);
+
+        CompletableFuture<Integer> first = batcher.submit("A");
+        CompletableFuture<Integer> second = batcher.submit("BB");
+
+        // The filling caller only handed the retries over
+        assertEquals(2, retries.size());
+        assertFalse(first.isDone());
+        retries.forEach(Runnable::run);
+        assertEquals(1, first.get());
+        assertEquals(2, second.get());
+    }
+
+    @Test
+    void databaseLookupsOfOneRuleAreSentAsOneInQuery() throws Exception {
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        List<SqlParameterSource> bound = new CopyOnWriteArrayList<>();
+        answerRows(jdbcTemplate, bound, new Object[]{"C1", 1L});
+        KeyedQuery blacklist = KeyedQuery.parse(BLACKLIST);
+        MicroBatcher<KeyedQuery.Lookup, Object> batcher = databaseBatcher(jdbcTemplate, 3);
+
+        CompletableFuture<Object> listed = batcher.submit(lookup(blacklist, "C1"));
+        CompletableFuture<Object> duplicate = batcher.submit(lookup(blacklist, "C1"));
+        CompletableFuture<Object> clean = batcher.submit(lookup(blacklist, "C2"));
+        batcher.submit(lookup(blacklist, "C3"));
+
+        assertEquals(1L, listed.get());
+        assertSame(listed, duplicate);
+        // No row for the customer: the declared missing value, as COUNT(*) gives alone
+        assertEquals(0, clean.get());
+        verify(jdbcTemplate, times(1)).query(eq(blacklist.sql()), any(SqlParameterSource.class),
+            any(RowCallbackHandler.class));
+        assertEquals(List.of("C1", "C2", "C3"), bound.get(0).getValue(KeyedQuery.KEYS));
+    }
+
+    @Test
+    void databaseKeysWithoutOneRowFailAsTheSingleQueryWould() throws Exception {
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        answerRows(jdbcTemplate, new CopyOnWriteArrayList<>(), new Object[]{1L, 700}, new Object[]{2L, 610},
+            new Object[]{2L, 640});
+        KeyedQuery scores = KeyedQuery.parse("{\"batch\": {\"sql\": \"SELECT customer_id, score FROM credit_scores "
+            + "WHERE customer_id IN (:keys) AND bureau = :bureau\", \"key\": \"customerId\"}}");
+        assertEquals(Set.of("bureau"), scores.parameters());
+        MicroBatcher<KeyedQuery.Lookup, Object> batcher = databaseBatcher(jdbcTemplate, 3);
+
+        // Keys come back as numbers of another type than bound and are matched by their text
+        CompletableFuture<Object> one = batcher.submit(new KeyedQuery.Lookup(scores, Map.of("bureau", "CIC"), "1"));
+        CompletableFuture<Object> several = batcher.submit(new KeyedQuery.Lookup(scores, Map.of("bureau", "CIC"), "2"));
+        CompletableFuture<Object> none = batcher.submit(new KeyedQuery.Lookup(scores, Map.of("bureau", "CIC"), "3"));
+
+        assertEquals(700, one.get());
+        assertInstanceOf(IncorrectResultSizeDataAccessException.class,
+            assertThrows(ExecutionException.class, several::get).getCause());
+        assertInstanceOf(EmptyResultDataAccessException.class,
+            assertThrows(ExecutionException.class, none::get).getCause());
+        verify(jdbcTemplate, times(1)).query(anyString(), any(SqlParameterSource.class),
+            any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void onlyRulesDeclaringAKeyedFormAreBatched() {
+        assertNull(KeyedQuery.parse(null));
+        assertNull(KeyedQuery.parse("not json"));
+        assertNull(KeyedQuery.parse("{\"threshold\": 3}"));
+        assertThrows(IllegalArgumentException.class, () -> KeyedQuery.parse(
+            "{\"batch\": {\"sql\": \"SELECT customer_id, 1 FROM blacklist WHERE customer_id = :customerId\", "
+                + "\"key\": \"customerId\"}}"));
+    }
+
+    private MicroBatcher<KeyedQuery.Lookup, Object> databaseBatcher(NamedParameterJdbcTemplate jdbcTemplate,
+                                                                    int maxBatchSize) {
+        return new MicroBatcher<>("database", new MicroBatcher.Config(Duration.ofHours(1).toNanos(), maxBatchSize),
+            new DatabaseBulkLoader(jdbcTemplate, null), timer, Runnable::run);
+    }
+
+    private static KeyedQuery.Lookup lookup(KeyedQuery query, String customerId) {
+        return new KeyedQuery.Lookup(query, Map.of(), customerId);
+    }
+
+    private static void answerRows(NamedParameterJdbcTemplate jdbcTemplate, List<SqlParameterSource> bound,
+                                   Object[]... rows) {
+        doAnswer(invocation -> {
+            bound.add(invocation.getArgument(1));
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getObject(1)).thenReturn(row[0]);
+                when(rs.getObject(2)).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    private MicroBatcher<String, Integer> batcher(Duration window, int maxBatchSize,
+                                                  MicroBatcher.BulkLoader<String, Integer> loader) {
+        return new MicroBatcher<>("test", new MicroBatcher.Config(window.toNanos(), maxBatchSize), loader, timer,
+            Runnable::run);
+    }
+}
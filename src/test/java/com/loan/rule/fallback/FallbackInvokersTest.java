@@ -0,0 +1,79 @@
+package com.loan.rule.fallback;
+
+import com.loan.domain.Rule;
+import com.loan.model.RuleResult;
+import com.loan.rule.CreditCardLimitRule;
+import com.loan.rule.DocumentValidationRule;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.annotation.RuleExecution;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FallbackInvokersTest {
+
+    @Test
+    void fallbacksAreBoundOnceAndTimedSeparately() {
+        FallbackInvokers invokers = new FallbackInvokers(List.of(new CreditCardLimitRule(), new DocumentValidationRule()));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invokers.bindTo(registry);
+
+        Rule rule = Rule.builder().id(7L).name("Card Limit").build();
+        FallbackInvoker invoker = invokers.get(new CreditCardLimitRule());
+        assertSame(invoker, invokers.get(new CreditCardLimitRule()));
+        RuleResult result = invoker.invoke(rule, Map.of("customerId", "C1"));
+        assertEquals("Card Limit", result.getRuleName());
+        assertEquals(true, ((Map<?, ?>) result.getResult()).get("isFallback"));
+
+        FunctionTimer timer = registry.get("rule.fallback.duration").tag("ruleClass", "CreditCardLimitRule").functionTimer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void contextOnlyFallbacksAreAdapted() {
+        FallbackInvokers invokers = new FallbackInvokers(List.of(new ContextOnlyRule()));
+        RuleResult result = invokers.get(new ContextOnlyRule()).invoke(null, Map.of("customerId", "C2"));
+        assertEquals("C2", result.getResult());
+        assertNull(invokers.get(new NoFallbackRule()));
+    }
+
+    @Test
+    void invalidFallbackFailsAtStartup() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> new FallbackInvokers(List.of(new MisnamedFallbackRule())));
+        assertTrue(e.getMessage().contains("MisnamedFallbackRule has no public method missing"));
+    }
+
+    @RuleExecution(fallbackEnabled = true, fallbackMethod = "fallback")
+    public static class ContextOnlyRule extends NoFallbackRule {
+        public RuleResult fallback(Map<String, Object> context) {
+            return RuleResult.builder().result(context.get("customerId")).build();
+        }
+    }
+
+    @RuleExecution(fallbackEnabled = true, fallbackMethod = "missing")
+    public static class MisnamedFallbackRule extends NoFallbackRule {
+    }
+
+    public static class NoFallbackRule implements StatelessRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            return null;
+        }
+
+        @Override
+        public boolean validateInput(Rule rule, Map<String, Object> context) {
+            return true;
+        }
+
+        @Override
+        public String getRuleType() {
+            return "TEST";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.loan.rule.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    private static final RoundingMode[] ROUNDING_MODES = {RoundingMode.HALF_UP, RoundingMode.HALF_EVEN, RoundingMode.DOWN};
+
+    private final Random random = new Random(7);
+
+    @Test
+    void matchesBigDecimalExactly() {
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal a = randomDecimal();
+            BigDecimal b = randomDecimal();
+            long integral = random.nextInt(2_000_001) - 1_000_000;
+            assertEquals(Integer.signum(a.compareTo(BigDecimal.valueOf(integral))),
+                Integer.signum(FixedPoint.compare(a, integral)));
+
+            // equals, not compareTo: the scale must match as well
+            if (b.signum() != 0) {
+                int scale = random.nextInt(6);
+                RoundingMode mode = ROUNDING_MODES[random.nextInt(ROUNDING_MODES.length)];
+                assertEquals(a.divide(b, scale, mode), FixedPoint.divide(a, b, scale, mode),
+                    a + " / " + b + " scale " + scale + " " + mode);
+            }
+        }
+    }
+
+    @Test
+    void fallsBackOutsideTheLongRange() {
+        BigDecimal huge = new BigDecimal("92233720368547758.07");
+        assertEquals(huge.divide(new BigDecimal("0.003"), 4, RoundingMode.HALF_UP),
+            FixedPoint.divide(huge, new BigDecimal("0.003"), 4, RoundingMode.HALF_UP));
+        BigDecimal fineScale = new BigDecimal("1.0000000000000000000001");
+        assertEquals(1, FixedPoint.compare(fineScale, 1));
+        BigDecimal negativeScale = new BigDecimal(BigInteger.valueOf(5), -3);
+        assertEquals(0, FixedPoint.compare(negativeScale, 5000));
+    }
+
+    @Test
+    void divisionByZeroFailsLikeBigDecimal() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divide(BigDecimal.ONE, BigDecimal.ZERO, 2,
+            RoundingMode.HALF_UP));
+    }
+
+    private BigDecimal randomDecimal() {
+        long unscaled = switch (random.nextInt(3)) {
+            case 0 -> random.nextInt(2001) - 1000;
+            case 1 -> random.nextLong() % 10_000_000_000L;
+            default -> random.nextLong();
+        };
+        return BigDecimal.valueOf(unscaled, random.nextInt(5));
+    }
+}
@@ -0,0 +1,68 @@
+package com.loan.rule.plan;
+
+import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanCacheTest {
+
+    private final AtomicInteger planned = new AtomicInteger();
+
+    @Test
+    void stepKeepsItsPlanUntilItsRulesChange() {
+        PlanCache<Integer> cache = new PlanCache<>();
+        List<Rule> rules = List.of(rule("age >= 18"));
+
+        Integer plan = cache.get(step(1L), rules, this::plan);
+        assertSame(plan, cache.get(step(1L), rules, this::plan));
+        // The same definition loaded again is still the same rule set
+        assertSame(plan, cache.get(step(1L), List.of(rule("age >= 18")), this::plan));
+        assertEquals(1, planned.get());
+
+        assertNotEquals(plan, cache.get(step(1L), List.of(rule("age >= 21")), this::plan));
+        assertEquals(2, planned.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlyUsedPlan() throws Exception {
+        PlanCache<Integer> cache = new PlanCache<>(2);
+        List<Rule> rules = List.of(rule("age >= 18"));
+        cache.get(step(1L), rules, this::plan);
+        Thread.sleep(1);
+        cache.get(step(2L), rules, this::plan);
+        Thread.sleep(1);
+        cache.get(step(1L), rules, this::plan);
+
+        cache.get(step(3L), rules, this::plan);
+        assertEquals(2, cache.size());
+        assertEquals(3, planned.get());
+        cache.get(step(1L), rules, this::plan);
+        assertEquals(3, planned.get());
+    }
+
+    @Test
+    void cacheWithoutRoomStillPlans() {
+        PlanCache<Integer> cache = new PlanCache<>(0);
+
+        assertNotNull(cache.get(step(1L), List.of(rule("age >= 18")), this::plan));
+        assertEquals(1, cache.size());
+    }
+
+    private Integer plan(List<Rule> rules) {
+        return planned.incrementAndGet();
+    }
+
+    private static WorkflowStep step(Long id) {
+        return WorkflowStep.builder().id(id).stepCode("SCORING").build();
+    }
+
+    private static Rule rule(String script) {
+        return Rule.builder().id(1L).name("Adult").ruleType("SCRIPT").ruleScript(script).build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.loan.rule.plan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.table.DecisionTableCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RuleOrderOptimizerTest {
+
+    private final RuleEngineProperties properties = new RuleEngineProperties();
+    private final DecisionTableCache decisionTableCache = new DecisionTableCache(new ObjectMapper(), properties);
+    private final RuleOrderOptimizer optimizer =
+        new RuleOrderOptimizer(new RuleVariableAnalyzer(decisionTableCache, new ObjectMapper()), properties);
+
+    @Test
+    void cheapSelectiveRulesRunFirstWithinDependencies() {
+        Rule slow = rule(1L, "Slow", "monthlyIncome > 1000");
+        Rule adult = rule(2L, "Adult", "age >= 18");
+        // Reads the result of Slow, so it has to stay behind it
+        Rule dependent = rule(3L, "Dependent", "Slow == true");
+        Rule selective = rule(4L, "Selective", "creditScore >= 600");
+        List<Rule> rules = List.of(slow, adult, dependent, selective);
+
+        // Without statistics every rule costs the same and the configured order is kept
+        assertEquals(rules, optimizer.order(step(), rules));
+
+        for (int i = 0; i < 100; i++) {
+            optimizer.record(slow, Duration.ofMillis(20).toNanos(), false);
+            optimizer.record(adult, Duration.ofMillis(1).toNanos(), false);
+            optimizer.record(dependent, Duration.ofMillis(1).toNanos(), false);
+            optimizer.record(selective, Duration.ofMillis(1).toNanos(), i % 2 == 0);
+        }
+
+        assertEquals(List.of(selective, adult, slow, dependent), optimizer.order(step(), rules));
+        assertEquals(List.of("Selective", "Adult", "Slow", "Dependent"),
+            optimizer.getLastOrders().get("ELIGIBILITY"));
+        assertEquals(0.5, optimizer.getStatistics().get("Selective").rejectionRate());
+    }
+
+    @Test
+    void rulesWithUnknownReadsKeepTheirPosition() {
+        Rule adult = rule(1L, "Adult", "age >= 18");
+        Rule opaque = Rule.builder().id(2L).name("Opaque").ruleType("JAVA").ruleClass("com.example.Missing").build();
+        Rule selective = rule(3L, "Selective", "creditScore >= 600");
+        List<Rule> rules = List.of(adult, opaque, selective);
+
+        for (int i = 0; i < 10; i++) {
+            optimizer.record(selective, 1, true);
+        }
+        assertEquals(rules, optimizer.order(step(), rules));
+
+        properties.getRuleOrder().setEnabled(false);
+        assertSame(rules, optimizer.order(step(), rules));
+    }
+
+    @Test
+    void dependenciesAreAnalyzedOncePerRuleSet() {
+        RuleVariableAnalyzer analyzer = spy(new RuleVariableAnalyzer(decisionTableCache, new ObjectMapper()));
+        RuleOrderOptimizer cachingOptimizer = new RuleOrderOptimizer(analyzer, properties);
+        List<Rule> rules = List.of(rule(1L, "Adult", "age >= 18"), rule(2L, "Selective", "creditScore >= 600"));
+
+        cachingOptimizer.order(step(), rules);
+        cachingOptimizer.record(rules.get(1), 1, true);
+        assertEquals(List.of(rules.get(1), rules.get(0)), cachingOptimizer.order(step(), rules));
+        verify(analyzer, times(1)).inferDependencies(any());
+
+        cachingOptimizer.order(step(), List.of(rules.get(0), rule(2L, "Selective", "creditScore >= 650")));
+        verify(analyzer, times(2)).inferDependencies(any());
+    }
+
+    private static WorkflowStep step() {
+        WorkflowStep step = new WorkflowStep();
+        step.setId(1L);
+        step.setStepCode("ELIGIBILITY");
+        return step;
+    }
+
+    private static Rule rule(Long id, String name, String script) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setName(name);
+        rule.setRuleType("SCRIPT");
+        rule.setRuleScript(script);
+        return rule;
+    }
+}
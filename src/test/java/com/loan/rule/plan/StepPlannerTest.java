@@ -0,0 +1,106 @@
+package com.loan.rule.plan;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
+import com.loan.rule.script.ScriptExpression;
+import com.loan.rule.script.ScriptExpressionCache;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepPlannerTest {
+
+    private final StepPlanner planner = new StepPlanner();
+
+    @Test
+    void sharedSubExpressionIsComputedOncePerRequest() {
+        Rule affordable = rule(1L, "Affordable", "loanAmount / loanTermMonths <= monthlyIncome * 0.3");
+        Rule lowRatio = rule(2L, "LowRatio", "(loanAmount / loanTermMonths + monthlyDebtPayments) / monthlyIncome <= 0.43");
+        Rule unrelated = rule(3L, "Adult", "age >= 18");
+        // Read the result of another rule of the step, so they must not share it
+        Rule dependent = rule(4L, "Dependent", "Affordable == true");
+        Rule alsoDependent = rule(5L, "AlsoDependent", "Affordable == true");
+        List<Rule> rules = List.of(affordable, lowRatio, unrelated, dependent, alsoDependent);
+
+        StepPlan plan = planner.planFor(step(), rules);
+        assertEquals(1, plan.getSharedSubExpressionCount());
+        assertNull(plan.getPlannedScript(unrelated));
+        assertNull(plan.getPlannedScript(dependent));
+
+        ScriptExpressionCache cache = new ScriptExpressionCache(new RuleEngineProperties());
+        Map<String, Object> context = new HashMap<>(Map.of(
+            "loanAmount", new BigDecimal("120000000"), "loanTermMonths", 12,
+            "monthlyIncome", new BigDecimal("40000000"), "monthlyDebtPayments", new BigDecimal("2000000"),
+            "age", 30));
+
+        try (RequestScope scope = planner.open(step(), rules, context)) {
+            for (Rule rule : List.of(affordable, lowRatio)) {
+                ScriptExpression expression = cache.get(rule);
+                assertEquals(expression.getValue(new HashMap<>(Map.of(
+                    "loanAmount", context.get("loanAmount"), "loanTermMonths", 12,
+                    "monthlyIncome", context.get("monthlyIncome"),
+                    "monthlyDebtPayments", context.get("monthlyDebtPayments")))),
+                    scope.evaluate(rule, expression, context));
+            }
+            assertEquals(1, scope.getSubExpressionsComputed());
+            assertEquals(1, scope.getSubExpressionsReused());
+        }
+        assertNull(RequestScope.from(context));
+    }
+
+    @Test
+    void derivedValuesAreSharedWithinScopeOnly() {
+        Map<String, Object> context = new HashMap<>(Map.of(
+            "loanAmount", new BigDecimal("100000"), "loanTermMonths", 12,
+            "monthlyIncome", new BigDecimal("20000")));
+        BigDecimal expected = new BigDecimal("0.4167");
+        assertEquals(expected, DerivedValue.DEBT_TO_INCOME_RATIO.get(context));
+
+        try (RequestScope scope = planner.open(step(), List.of(), context)) {
+            assertEquals(expected, DerivedValue.DEBT_TO_INCOME_RATIO.get(context));
+            assertEquals(new BigDecimal("8333.33"), DerivedValue.MONTHLY_LOAN_PAYMENT.get(context));
+            assertEquals(3, scope.getDerivedValuesComputed());
+            assertEquals(1, scope.getDerivedValuesReused());
+        }
+    }
+
+    @Test
+    void scriptsOfTheRequestMapShareOneEvaluationContext() {
+        Map<String, Object> context = new HashMap<>(Map.of("age", 30));
+        try (RequestScope scope = planner.open(step(), List.of(), context)) {
+            assertSame(scope.evaluationContextFor(context), scope.evaluationContextFor(context));
+            assertSame(context, scope.evaluationContextFor(context).getVariables());
+
+            // A parallel rule's own input map is not the request map, so it gets its own context
+            Map<String, Object> ruleInput = new HashMap<>(context);
+            assertNotSame(scope.evaluationContextFor(context), scope.evaluationContextFor(ruleInput));
+            assertSame(ruleInput, scope.evaluationContextFor(ruleInput).getVariables());
+
+            Rule adult = rule(1L, "Adult", "age >= 18");
+            ScriptExpressionCache cache = new ScriptExpressionCache(new RuleEngineProperties());
+            assertEquals(true, scope.evaluate(adult, cache.get(adult), context));
+        }
+    }
+
+    private static WorkflowStep step() {
+        WorkflowStep step = new WorkflowStep();
+        step.setId(1L);
+        step.setStepCode("INCOME_CHECK");
+        return step;
+    }
+
+    private static Rule rule(Long id, String name, String script) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setName(name);
+        rule.setRuleType("SCRIPT");
+        rule.setRuleScript(script);
+        return rule;
+    }
+}
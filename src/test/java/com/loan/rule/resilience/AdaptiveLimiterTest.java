@@ -0,0 +1,89 @@
+package com.loan.rule.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter("api:bureau",
+        new AdaptiveLimiter.Config(10, 2, 100, 2.0, 0.2, 0.5, 1000));
+
+    @Test
+    void rejectsBeyondTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        limiter.onIgnored();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(1, limiter.snapshot().rejected());
+    }
+
+    @Test
+    void callsOverTheLimitWaitForAPermitUntilTheirTimeout() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.acquire(20 * MS));
+        assertEquals(1, limiter.snapshot().rejected());
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(TimeUnit.SECONDS.toNanos(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+        limiter.onSuccess(10 * MS);
+        assertTrue(waiter.get(1, TimeUnit.SECONDS));
+        assertEquals(10, limiter.getInFlight());
+        assertEquals(1, limiter.snapshot().rejected());
+    }
+
+    @Test
+    void growsWhileLatencyStaysLowAndShrinksWhenItRises() {
+        for (int i = 0; i < 50; i++) {
+            fillAndComplete(10 * MS);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        for (int i = 0; i < 50; i++) {
+            fillAndComplete(100 * MS);
+        }
+        assertTrue(limiter.getLimit() < grown, limiter.snapshot().toString());
+        assertEquals(0.5, limiter.snapshot().gradient());
+    }
+
+    @Test
+    void idleDependencyKeepsItsLimitAndDropsBackOff() {
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(10 * MS);
+        }
+        assertEquals(10, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private void fillAndComplete(long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.loan.rule.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<CircuitBreakerEvent> events = new ArrayList<>();
+
+    @Test
+    void opensOnFailureRateAndClosesAfterSuccessfulProbes() {
+        CircuitBreaker breaker = breaker(new CircuitBreaker.Config(10, 4, 50, 100, 1000 * MS, 500 * MS, 2));
+        record(breaker, true, 10 * MS);
+        record(breaker, false, 10 * MS);
+        record(breaker, true, 10 * MS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        record(breaker, false, 10 * MS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+
+        clock.addAndGet(500 * MS);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only the configured number of probes get through
+        assertFalse(breaker.tryAcquirePermission());
+        breaker.record(true, 10 * MS);
+        breaker.record(true, 10 * MS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+            events.stream().map(CircuitBreakerEvent::to).toList());
+        assertEquals(2, breaker.getRejectedCalls());
+    }
+
+    @Test
+    void opensOnSlowCallsAndReopensOnAFailedProbe() {
+        CircuitBreaker breaker = breaker(new CircuitBreaker.Config(4, 4, 100, 75, 100 * MS, 500 * MS, 1));
+        record(breaker, true, 150 * MS);
+        record(breaker, true, 10 * MS);
+        record(breaker, true, 150 * MS);
+        record(breaker, true, 150 * MS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(75f, breaker.getSlowCallRate());
+
+        clock.addAndGet(500 * MS);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.record(true, 150 * MS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void windowOnlyKeepsTheMostRecentCalls() {
+        CircuitBreaker breaker = breaker(new CircuitBreaker.Config(4, 4, 50, 100, 1000 * MS, 500 * MS, 1));
+        record(breaker, false, MS);
+        for (int i = 0; i < 4; i++) {
+            record(breaker, true, MS);
+        }
+        record(breaker, false, MS);
+        assertEquals(25f, breaker.getFailureRate());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void concurrentRecordingKeepsTheWindowConsistent() throws Exception {
+        CircuitBreaker breaker = breaker(new CircuitBreaker.Config(64, 64, 101, 101, 1000 * MS, 500 * MS, 1));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                boolean success = t % 2 == 0;
+                pool.execute(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        breaker.record(success, MS);
+                    }
+                    done.countDown();
+                });
+            }
+            // Rates are never read above 100%, so a threshold of 101% never opens the breaker
+            while (done.getCount() > 0) {
+                assertTrue(breaker.getFailureRate() <= 100f);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        float failures = breaker.getFailureRate() * 64 / 100;
+        assertEquals(Math.round(failures), failures, 0.001);
+        // Once every slot is overwritten by a success the running counters must be back to zero
+        for (int i = 0; i < 64; i++) {
+            breaker.record(true, MS);
+        }
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    private CircuitBreaker breaker(CircuitBreaker.Config config) {
+        return new CircuitBreaker("rule", config, clock::get, events::add);
+    }
+
+    private static void record(CircuitBreaker breaker, boolean success, long durationNanos) {
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.record(success, durationNanos);
+    }
+}
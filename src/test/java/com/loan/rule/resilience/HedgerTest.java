@@ -0,0 +1,84 @@
+package com.loan.rule.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgerTest {
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void slowCallIsHedgedAndTheLoserCancelled() throws Exception {
+        Hedger hedger = hedger(1, 1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        Callable<String> call = () -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "primary";
+            }
+            return "hedge";
+        };
+
+        long start = System.nanoTime();
+        assertEquals("hedge", hedger.call(call));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        assertEquals(1, hedger.getHedges());
+        assertEquals(1, hedger.getHedgeWins());
+    }
+
+    @Test
+    void fastCallsAreNotHedgedAndTheBudgetCapsHedges() throws Exception {
+        Hedger hedger = hedger(0, 1);
+        assertEquals("fast", hedger.call(() -> "fast"));
+        assertEquals(0, hedger.getHedges());
+
+        Callable<String> slow = () -> {
+            Thread.sleep(150);
+            return "slow";
+        };
+        assertEquals("slow", hedger.call(slow));
+        assertEquals("slow", hedger.call(slow));
+        assertEquals(1, hedger.getHedges());
+        assertEquals(1, hedger.getBudgetExhausted());
+    }
+
+    @Test
+    void failureOfOneAttemptLetsTheOtherWin() throws Exception {
+        Hedger hedger = hedger(1, 1);
+        AtomicInteger attempts = new AtomicInteger();
+        assertEquals("hedge", hedger.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(200);
+                throw new IllegalStateException("primary failed");
+            }
+            Thread.sleep(400);
+            return "hedge";
+        }));
+    }
+
+    private Hedger hedger(double budgetRatio, int maxBurst) {
+        return new Hedger("api:bureau", new Hedger.Config(TimeUnit.MILLISECONDS.toNanos(50), budgetRatio, 100,
+            maxBurst), pool);
+    }
+}
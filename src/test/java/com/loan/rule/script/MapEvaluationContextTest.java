@@ -0,0 +1,46 @@
+package com.loan.rule.script;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapEvaluationContextTest {
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    @Test
+    void resolvesNamesAgainstTheLiveMapWithoutCopying() {
+        Map<String, Object> request = new HashMap<>(Map.of("age", 17));
+        MapEvaluationContext context = new MapEvaluationContext(request);
+        Expression property = parser.parseExpression("age >= 18");
+        Expression variable = parser.parseExpression("#age >= 18");
+
+        assertSame(request, context.getVariables());
+        assertSame(request, context.getRootObject().getValue());
+        assertEquals(false, property.getValue(context));
+
+        // Entries added after the context was created are visible through it
+        request.put("age", 30);
+        assertEquals(true, property.getValue(context));
+        assertEquals(true, variable.getValue(context));
+        assertNull(context.lookupVariable("missing"));
+    }
+
+    @Test
+    void scriptsCannotWriteToTheRequest() {
+        Map<String, Object> request = new HashMap<>(Map.of("age", 30));
+        MapEvaluationContext context = new MapEvaluationContext(request);
+
+        assertThrows(UnsupportedOperationException.class, () -> context.setVariable("age", 10));
+        assertThrows(SpelEvaluationException.class, () -> parser.parseExpression("age = 10").getValue(context));
+        assertThrows(UnsupportedOperationException.class,
+            () -> parser.parseExpression("#approved = true").getValue(context));
+        assertEquals(Map.of("age", 30), request);
+    }
+}
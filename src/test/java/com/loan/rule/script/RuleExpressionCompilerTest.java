@@ -0,0 +1,152 @@
+package com.loan.rule.script;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential test: whenever the native compiler answers, it must return exactly what SpEL returns.
+ */
+class RuleExpressionCompilerTest {
+
+    private static final List<String> SCRIPTS = List.of(
+        "age >= 18 && monthlyIncome >= 5000000",
+        "#age >= 18 and #creditScore gt 650 or not #blacklisted",
+        "age < 18 || age > 65",
+        "age == 35",
+        "age != 35L",
+        "creditScore <= 650.0",
+        "monthlyIncome * 12 - existingDebt * 12 > loanAmount / 3",
+        "(monthlyIncome - existingDebt) * 12 > loanAmount / 3 ? 'APPROVE' : 'REVIEW'",
+        "annualIncome * 0.3 >= requestedLimit",
+        "annualIncome / 7 + requestedLimit % 3",
+        "annualIncome / 7.0",
+        "ratio * 2 + 1.5f",
+        "score div 3 + score mod 3",
+        "-age + +creditScore",
+        "productCode == 'CREDIT_CARD'",
+        "productCode + '_V2'",
+        "productCode < \"DEBIT\"",
+        "#missing == null",
+        "#missing != null ? #missing : 0",
+        "blacklisted ? 0 : 1",
+        "!blacklisted",
+        "1 + 2 * 3 >= 7 && true",
+        "10 / 4 + 10.0 / 4 + 7 % 3",
+        "age / 0",
+        "zero > 1",
+        "ratio > 0.5",
+        "annualIncome == 300000000",
+        "annualIncome > 18",
+        "productCode == 1",
+        "age + productCode"
+    );
+
+    private final SpelExpressionParser spelParser = new SpelExpressionParser();
+
+    @Test
+    void nativeResultsMatchSpel() {
+        for (Map<String, Object> context : contexts()) {
+            for (String script : SCRIPTS) {
+                CompiledRuleExpression compiled = RuleExpressionCompiler.compile(script);
+                Object expected;
+                try {
+                    expected = spelParser.parseExpression(script).getValue(new MapEvaluationContext(context));
+                } catch (RuntimeException e) {
+                    // SpEL fails, so native must hand the call back and let SpEL fail the same way
+                    assertThrows(FallbackException.class, () -> compiled.evaluate(context), script);
+                    continue;
+                }
+                Object actual;
+                try {
+                    actual = compiled.evaluate(context);
+                } catch (FallbackException e) {
+                    continue;
+                }
+                assertEquals(expected, actual, script + " with " + context);
+                if (expected != null) {
+                    assertEquals(expected.getClass(), actual.getClass(), script + " with " + context);
+                }
+            }
+        }
+    }
+
+    @Test
+    void commonPredicatesDoNotFallBack() {
+        Map<String, Object> context = contexts().get(0);
+        assertEquals(true, RuleExpressionCompiler.compile("age >= 18 && monthlyIncome >= 5000000").evaluate(context));
+        assertEquals(true, RuleExpressionCompiler.compile("annualIncome * 0.3 >= requestedLimit").evaluate(context));
+        assertEquals(false, RuleExpressionCompiler.compile("productCode == 'MORTGAGE'").evaluate(context));
+    }
+
+    @Test
+    void missingPropertyFallsBack() {
+        CompiledRuleExpression compiled = RuleExpressionCompiler.compile("unknownField > 1");
+        assertThrows(FallbackException.class, () -> compiled.evaluate(new HashMap<>()));
+    }
+
+    @Test
+    void constantsAreFoldedAndVariablesGetSlots() {
+        CompiledRuleExpression compiled = RuleExpressionCompiler.compile("age >= 10 + 8 && (false || #age < 60 * 2)");
+        assertEquals("((age >= 18) && (false || (#age < 120)))", compiled.getAst().toString());
+        assertEquals(List.of("age"), compiled.getVariableNames());
+    }
+
+    @Test
+    void unsupportedSyntaxIsRejected() {
+        for (String script : List.of(
+            "productCode.length() > 3",
+            "T(java.lang.Math).max(age, 18)",
+            "{1, 2}.contains(age)",
+            "items[0] > 1",
+            "age ?: 18",
+            "age ^ 2",
+            "age = 3",
+            "age between {1, 2}",
+            "let x = 1; x > 0",
+            "@creditScoreService.score() > 1"
+        )) {
+            assertThrows(UnsupportedExpressionException.class, () -> RuleExpressionCompiler.compile(script), script);
+        }
+    }
+
+    private static List<Map<String, Object>> contexts() {
+        Map<String, Object> typical = new HashMap<>();
+        typical.put("age", 35);
+        typical.put("creditScore", 720);
+        typical.put("monthlyIncome", 25_000_000L);
+        typical.put("existingDebt", 4_000_000L);
+        typical.put("loanAmount", 300_000_000L);
+        typical.put("annualIncome", new BigDecimal("300000000"));
+        typical.put("requestedLimit", new BigDecimal("50000000.00"));
+        typical.put("ratio", 0.45d);
+        typical.put("score", 17);
+        typical.put("zero", 0);
+        typical.put("productCode", "CREDIT_CARD");
+        typical.put("blacklisted", false);
+
+        Map<String, Object> mixedTypes = new HashMap<>(typical);
+        mixedTypes.put("age", 17L);
+        mixedTypes.put("creditScore", 650.0f);
+        mixedTypes.put("monthlyIncome", new BigDecimal("4999999.99"));
+        mixedTypes.put("annualIncome", 300_000_000.5d);
+        mixedTypes.put("ratio", Double.NaN);
+        mixedTypes.put("score", (short) -17);
+        mixedTypes.put("missing", 42);
+        mixedTypes.put("blacklisted", true);
+
+        Map<String, Object> nulls = new HashMap<>(typical);
+        nulls.put("age", null);
+        nulls.put("productCode", null);
+        nulls.put("blacklisted", null);
+        nulls.put("requestedLimit", "50000000");
+
+        return List.of(typical, mixedTypes, nulls);
+    }
+}
@@ -0,0 +1,70 @@
+package com.loan.rule.script;
+
+import com.loan.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptExpressionCacheTest {
+
+    private final RuleEngineProperties properties = new RuleEngineProperties();
+
+    @Test
+    void repeatedLookupsHitTheParsedExpression() {
+        ScriptExpressionCache cache = new ScriptExpressionCache(properties);
+
+        ScriptExpression first = cache.get(1L, "age >= 18");
+        assertSame(first, cache.get(1L, "age >= 18"));
+        assertNotSame(first, cache.get(2L, "age >= 18"));
+
+        ScriptExpressionCache.CacheStats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void changedScriptMissesAndDropsTheOldVersion() {
+        ScriptExpressionCache cache = new ScriptExpressionCache(properties);
+
+        ScriptExpression original = cache.get(1L, "age >= 18");
+        ScriptExpression edited = cache.get(1L, "age >= 21");
+        assertNotSame(original, edited);
+        assertEquals("age >= 21", edited.getExpressionString());
+        assertEquals(1, cache.getStats().size());
+
+        // Going back to the old content parses again instead of reviving the dropped entry
+        assertNotSame(original, cache.get(1L, "age >= 18"));
+        assertEquals(3, cache.getStats().misses());
+    }
+
+    @Test
+    void invalidationForcesAReparse() {
+        ScriptExpressionCache cache = new ScriptExpressionCache(properties);
+        ScriptExpression adult = cache.get(1L, "age >= 18");
+        ScriptExpression income = cache.get(2L, "monthlyIncome > 0");
+
+        cache.invalidate(1L);
+        assertNotSame(adult, cache.get(1L, "age >= 18"));
+        assertSame(income, cache.get(2L, "monthlyIncome > 0"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getStats().size());
+        assertNotSame(income, cache.get(2L, "monthlyIncome > 0"));
+    }
+
+    @Test
+    void cacheStaysWithinItsMaximumSize() {
+        properties.getScriptCache().setMaxSize(2);
+        ScriptExpressionCache cache = new ScriptExpressionCache(properties);
+
+        for (long id = 1; id <= 5; id++) {
+            cache.get(id, "age >= " + id);
+        }
+
+        ScriptExpressionCache.CacheStats stats = cache.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(3, stats.evictions());
+        assertEquals(5, stats.misses());
+    }
+}
@@ -0,0 +1,107 @@
+package com.loan.rule.script;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.service.impl.RuleEngineServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptExpressionTest {
+
+    @Test
+    void immediateModeCompilesAfterOneTimedRunAndReportsIt() {
+        ScriptExpression expression = cache(SpelCompilerMode.IMMEDIATE).get(1L, "age >= 18 and income > 1000");
+        Map<String, Object> context = new HashMap<>(Map.of("age", 30, "income", 5000));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(true, expression.getValue(context));
+        }
+
+        ScriptCompilationReport report = expression.getReport();
+        assertEquals(ScriptExpression.CompilationState.COMPILED, report.state());
+        assertEquals(1L, report.ruleId());
+        // The cold run is not timed, the warm one is, and the rest run compiled
+        assertEquals(1, report.interpretedEvaluations());
+        assertEquals(3, report.compiledEvaluations());
+        assertNull(report.fallbackReason());
+        assertFalse(report.nativeCompiled());
+    }
+
+    @Test
+    void offModeNeverCompiles() {
+        ScriptExpression expression = cache(SpelCompilerMode.OFF).get(1L, "age >= 18");
+        for (int i = 0; i < 5; i++) {
+            expression.getValue(Map.of("age", 30));
+        }
+        assertEquals(ScriptExpression.CompilationState.INTERPRETED, expression.getReport().state());
+        assertEquals(0, expression.getReport().compiledEvaluations());
+    }
+
+    @Test
+    void expressionThatCannotCompileStaysInterpretedWithAReason() {
+        ScriptExpression expression = cache(SpelCompilerMode.IMMEDIATE).get(1L, "scores.?[#this > 600].size() > 0");
+        Map<String, Object> context = Map.of("scores", List.of(550, 720));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(true, expression.getValue(context));
+        }
+
+        ScriptCompilationReport report = expression.getReport();
+        assertEquals(ScriptExpression.CompilationState.NOT_COMPILABLE, report.state());
+        assertEquals("Expression is not compilable", report.fallbackReason());
+        assertEquals(4, report.interpretedEvaluations());
+    }
+
+    @Test
+    void compiledExpressionFailingAtRuntimeRevertsAndReEvaluates() {
+        ScriptExpression expression = cache(SpelCompilerMode.IMMEDIATE).get(1L, "name.length() > 3");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(true, expression.getValue(Map.of("name", "Nguyen")));
+        }
+        assertEquals(ScriptExpression.CompilationState.COMPILED, expression.getReport().state());
+
+        // Compiled code cast the value to String; a builder breaks that assumption
+        assertEquals(true, expression.getValue(Map.of("name", new StringBuilder("Tran Van"))));
+        ScriptCompilationReport report = expression.getReport();
+        assertNotEquals(ScriptExpression.CompilationState.COMPILED, report.state());
+        assertTrue(report.fallbackReason().startsWith("Compiled expression failed"), report.fallbackReason());
+
+        // Repeated failures give up on compilation for good
+        for (int i = 0; i < ScriptExpression.MAX_COMPILE_FAILURES * 3; i++) {
+            expression.getValue(Map.of("name", "Nguyen"));
+            expression.getValue(Map.of("name", new StringBuilder("Tran Van")));
+        }
+        assertEquals(ScriptExpression.CompilationState.NOT_COMPILABLE, expression.getReport().state());
+    }
+
+    @Test
+    void adHocScriptsOfTheServiceShareTheCompilingCache() {
+        ScriptExpressionCache cache = cache(SpelCompilerMode.IMMEDIATE);
+        RuleEngineServiceImpl service = new RuleEngineServiceImpl(null, null, null, cache, null);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(true, service.evaluateScript("loanAmount / 12 < income", Map.of(
+                "loanAmount", 120000, "income", 20000)));
+        }
+
+        ScriptCompilationReport report = service.getScriptCompilationReports().get(0);
+        assertNull(report.ruleId());
+        assertEquals("loanAmount / 12 < income", report.script());
+        assertEquals(ScriptExpression.CompilationState.COMPILED, report.state());
+        assertEquals(1, cache.getStats().misses());
+        assertEquals(2, cache.getStats().hits());
+    }
+
+    private static ScriptExpressionCache cache(SpelCompilerMode mode) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getScriptCompiler().setMode(mode);
+        // Exercise the SpEL path; the native compiler would answer these scripts itself
+        properties.getScriptCompiler().setNativeEnabled(false);
+        return new ScriptExpressionCache(properties);
+    }
+}
@@ -0,0 +1,157 @@
+package com.loan.rule.table;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.Rule;
+import com.loan.rule.table.DecisionTableDefinition.ColumnType;
+import com.loan.rule.table.DecisionTableDefinition.Input;
+import com.loan.rule.table.DecisionTableDefinition.Row;
+import com.loan.rule.table.NumericIntervalIndex.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionTableTest {
+
+    private static final String LIMIT_FACTOR_TABLE = """
+        {
+          "hitPolicy": "FIRST",
+          "inputs": [{"name": "creditScore", "type": "NUMBER"}, {"name": "employmentType", "type": "ENUM"}],
+          "outputs": ["limitFactor"],
+          "rows": [
+            {"when": {"creditScore": ">= 750", "employmentType": "PERMANENT"}, "then": {"limitFactor": 1.8}},
+            {"when": {"creditScore": ">= 750"}, "then": {"limitFactor": 1.5}},
+            {"when": {"creditScore": "[650..750)", "employmentType": ["FULL_TIME", "PERMANENT"]}, "then": {"limitFactor": 1.2}},
+            {"when": {"creditScore": "-"}, "then": {"limitFactor": 1.0}}
+          ]
+        }
+        """;
+
+    private static final String RISK_FLAG_TABLE = """
+        {
+          "hitPolicy": "COLLECT",
+          "inputs": [{"name": "monthlyIncome", "type": "NUMBER"}, {"name": "latePayments", "type": "NUMBER"}],
+          "outputs": ["flag", "severity"],
+          "rows": [
+            {"when": {"monthlyIncome": "< 8000000"}, "then": {"flag": "LOW_INCOME", "severity": "HIGH"}},
+            {"when": {"latePayments": "> 2"}, "then": {"flag": "REPEATED_LATE_PAYMENTS", "severity": "HIGH"}},
+            {"when": {"latePayments": "[1..2]"}, "then": {"flag": "LATE_PAYMENTS", "severity": "LOW"}}
+          ]
+        }
+        """;
+
+    private final DecisionTableCache cache = new DecisionTableCache(new ObjectMapper(), new RuleEngineProperties());
+
+    @Test
+    void firstHitReturnsFirstMatchingRow() {
+        Rule rule = rule(1L, LIMIT_FACTOR_TABLE);
+
+        assertEquals(new BigDecimal("1.8"), evaluate(rule, Map.of("creditScore", 780, "employmentType", "PERMANENT")));
+        assertEquals(new BigDecimal("1.5"), evaluate(rule, Map.of("creditScore", 750, "employmentType", "CONTRACT")));
+        assertEquals(new BigDecimal("1.2"), evaluate(rule, Map.of("creditScore", 650L, "employmentType", "FULL_TIME")));
+        assertEquals(new BigDecimal("1.0"), evaluate(rule, Map.of("creditScore", 749.99, "employmentType", "CONTRACT")));
+        assertEquals(new BigDecimal("1.0"), evaluate(rule, Map.of("employmentType", "PERMANENT")));
+    }
+
+    @Test
+    void collectReturnsEveryMatchingRowInOrder() {
+        Rule rule = rule(2L, RISK_FLAG_TABLE);
+
+        Object flags = evaluate(rule, Map.of("monthlyIncome", 5_000_000, "latePayments", 1));
+        assertEquals(List.of(
+            Map.of("flag", "LOW_INCOME", "severity", "HIGH"),
+            Map.of("flag", "LATE_PAYMENTS", "severity", "LOW")), flags);
+        assertEquals(List.of(), evaluate(rule, Map.of("monthlyIncome", new BigDecimal("8000000.00"), "latePayments", 0)));
+    }
+
+    @Test
+    void editedTableIsRecompiled() {
+        assertEquals(new BigDecimal("1.5"), evaluate(rule(3L, LIMIT_FACTOR_TABLE), Map.of("creditScore", 800)));
+        String edited = LIMIT_FACTOR_TABLE.replace("\"limitFactor\": 1.5", "\"limitFactor\": 1.6");
+        assertEquals(new BigDecimal("1.6"), evaluate(rule(3L, edited), Map.of("creditScore", 800)));
+    }
+
+    @Test
+    void invalidTablesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cache.get(rule(4L, "{\"outputs\": []}")));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(rule(5L,
+            LIMIT_FACTOR_TABLE.replace("[650..750)", "[750..650)"))));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(rule(6L,
+            LIMIT_FACTOR_TABLE.replace("\"creditScore\": \"-\"", "\"income\": \"-\""))));
+    }
+
+    @Test
+    void indexedLookupMatchesRowByRowScan() {
+        Random random = new Random(42);
+        String[] cellTemplates = {"< %d", "<= %d", "> %d", ">= %d", "%d", "[%d..%d]", "(%d..%d)", "[%d..%d)", "-"};
+        String[] types = {"A", "B", "C"};
+
+        DecisionTableDefinition definition = new DecisionTableDefinition();
+        definition.setHitPolicy(HitPolicy.COLLECT);
+        definition.setInputs(List.of(input("score", ColumnType.NUMBER), input("type", ColumnType.ENUM)));
+        definition.setOutputs(List.of("row"));
+        for (int i = 0; i < 200; i++) {
+            int low = random.nextInt(100);
+            String template = cellTemplates[random.nextInt(cellTemplates.length)];
+            Row row = new Row();
+            row.getWhen().put("score", String.format(template, low, low + 1 + random.nextInt(20)));
+            if (random.nextBoolean()) {
+                row.getWhen().put("type", types[random.nextInt(types.length)]);
+            }
+            row.getThen().put("row", i);
+            definition.getRows().add(row);
+        }
+        DecisionTable table = DecisionTable.compile(definition);
+
+        for (int probe = -5; probe <= 125; probe++) {
+            for (String type : new String[] {"A", "B", "D", null}) {
+                Map<String, Object> context = new HashMap<>();
+                context.put("score", random.nextBoolean() ? probe : new BigDecimal(probe + ".0"));
+                context.put("type", type);
+                assertEquals(scan(definition, probe, type), table.matchingRows(context), "score=" + probe + " type=" + type);
+            }
+        }
+    }
+
+    private static BitSet scan(DecisionTableDefinition definition, int score, String type) {
+        BitSet matches = new BitSet();
+        List<Row> rows = definition.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            Object scoreCell = rows.get(i).getWhen().get("score");
+            Object typeCell = rows.get(i).getWhen().get("type");
+            boolean scoreOk = "-".equals(scoreCell) || Interval.parse("score", scoreCell).contains(BigDecimal.valueOf(score));
+            boolean typeOk = typeCell == null || typeCell.equals(type);
+            if (scoreOk && typeOk) {
+                matches.set(i);
+            }
+        }
+        return matches;
+    }
+
+    private Object evaluate(Rule rule, Map<String, Object> context) {
+        return cache.get(rule).evaluate(new HashMap<>(context));
+    }
+
+    private static Input input(String name, ColumnType type) {
+        Input input = new Input();
+        input.setName(name);
+        input.setType(type);
+        return input;
+    }
+
+    private static Rule rule(Long id, String table) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setName("Decision table " + id);
+        rule.setRuleType("DECISION_TABLE");
+        rule.setRuleScript(table);
+        return rule;
+    }
+}
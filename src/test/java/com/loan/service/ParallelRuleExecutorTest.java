@@ -0,0 +1,380 @@
+package com.loan.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.config.RuleEngineProperties;
+import com.loan.domain.ExecutionStatus;
+import com.loan.domain.Rule;
+import com.loan.domain.WorkflowStep;
+import com.loan.model.RuleResult;
+import com.loan.rule.Deadline;
+import com.loan.rule.StatelessRule;
+import com.loan.rule.analysis.RuleVariableAnalyzer;
+import com.loan.rule.annotation.RuleClass;
+import com.loan.rule.fallback.FallbackInvokers;
+import com.loan.rule.plan.PlanCache;
+import com.loan.rule.resilience.BulkheadRegistry;
+import com.loan.rule.resilience.CircuitBreakerRegistry;
+import com.loan.rule.table.DecisionTableCache;
+import com.loan.service.executor.RuleExecutorStrategies;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelRuleExecutorTest {
+
+    private static final int REQUESTS = 400;
+    private static final int RULES = 4;
+
+    @Test
+    void concurrentRequestsAreIsolated() throws Exception {
+        ParallelRuleExecutor executor = executor();
+        List<Rule> rules = IntStream.range(0, RULES)
+            .mapToObj(i -> Rule.builder().id((long) i).name("Echo" + i).ruleType("JAVA").ruleClass("echo").build())
+            .toList();
+
+        ExecutorService callers = Executors.newFixedThreadPool(32);
+        try {
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                String requestId = "REQ-" + i;
+                requests.add(CompletableFuture.runAsync(() -> {
+                    Map<String, RuleResult> results = executor.executeRules(rules, Map.of("requestId", requestId));
+                    assertEquals(RULES, results.size(), requestId);
+                    results.values().forEach(result -> {
+                        assertEquals(ExecutionStatus.SUCCESS, result.getStatus(), requestId);
+                        assertEquals(requestId, result.getResult());
+                    });
+                }, callers));
+            }
+            CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void dependentsStartWhenTheirDependenciesCompleteAndReceiveTheirOutputs() {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ParallelRuleExecutor executor = executor(pool);
+            List<Rule> rules = List.of(rule("A", "slow"), rule("B", "slow"), rule("C", "slow"), rule("Join", "join"));
+            AtomicReference<ExecutionTrace> trace = new AtomicReference<>();
+
+            Map<String, RuleResult> results = executor.executeRules(null, rules, Map.of(), trace::set);
+            assertEquals("A+B", results.get("Join").getResult());
+
+            ExecutionTrace timeline = trace.get();
+            long dependenciesDone = Math.max(timeline.spans().get("A").endNanos(), timeline.spans().get("B").endNanos());
+            assertTrue(timeline.spans().get("Join").startNanos() >= dependenciesDone);
+            assertEquals("Join", timeline.criticalPath().get(1));
+            assertEquals(2, timeline.criticalPath().size());
+            // Independent branches overlapped: the step took about two rule times, not four
+            assertTrue(timeline.wallNanos() < timeline.totalRuleNanos() - TimeUnit.MILLISECONDS.toNanos(100), timeline.toString());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rulesReadingEachOtherRunInsteadOfFailingAsCircular() {
+        ParallelRuleExecutor executor = executor();
+        // Each script reads the other's result, which inference alone cannot order
+        Rule a = Rule.builder().name("A").ruleType("SCRIPT").ruleClass("echo").ruleScript("B != null").build();
+        Rule b = Rule.builder().name("B").ruleType("SCRIPT").ruleClass("echo").ruleScript("A != null").build();
+
+        Map<String, RuleResult> results = executor.executeRules(List.of(a, b), Map.of("requestId", "R1"));
+
+        assertEquals(ExecutionStatus.SUCCESS, results.get("A").getStatus());
+        assertEquals(ExecutionStatus.SUCCESS, results.get("B").getStatus());
+    }
+
+    @Test
+    void plansAreCachedPerRuleSetVersion() {
+        ParallelRuleExecutor executor = executor();
+        List<Rule> rules = List.of(rule("A", "echo"), rule("B", "echo"));
+        executor.executeRules(rules, Map.of("requestId", "R1"));
+        executor.executeRules(List.of(rule("A", "echo"), rule("B", "echo")), Map.of("requestId", "R2"));
+        PlanCache<?> plans = (PlanCache<?>) ReflectionTestUtils.getField(executor, "plans");
+        assertEquals(1, plans.size());
+
+        Rule changed = rule("A", "echo");
+        changed.setInputType("{\"requestId\": \"String\"}");
+        executor.executeRules(List.of(changed, rule("B", "echo")), Map.of("requestId", "R3"));
+        assertEquals(2, plans.size());
+    }
+
+    @Test
+    void retriesWaitWithoutHoldingAWorkerAndRespectTheRequestBudget() {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            RuleEngineProperties properties = new RuleEngineProperties();
+            properties.getRetry().setBudgetPerRequest(1);
+            // Every rule's outcome is checked, so failures must not end the step early
+            properties.getVeto().setShortCircuit(false);
+            ParallelRuleExecutor executor = executor(pool, properties);
+            // Each flaky rule fails once before succeeding; the budget covers only one retry
+            List<Rule> rules = List.of(flaky("First"), flaky("Second"), rule("A", "slow"));
+            AtomicReference<ExecutionTrace> trace = new AtomicReference<>();
+
+            Map<String, RuleResult> results = executor.executeRules(null, rules, Map.of(), trace::set);
+            long succeeded = results.entrySet().stream()
+                .filter(e -> !e.getKey().equals("A") && e.getValue().getStatus() == ExecutionStatus.SUCCESS)
+                .count();
+            assertEquals(1, succeeded, results.toString());
+            // The only worker ran the slow rule while the flaky ones were backing off
+            assertEquals(ExecutionStatus.SUCCESS, results.get("A").getStatus());
+            long flakyEnd = Math.max(trace.get().spans().get("First").endNanos(), trace.get().spans().get("Second").endNanos());
+            assertTrue(trace.get().spans().get("A").startNanos() < flakyEnd);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void retriesAndDependentsRunOnTheRuleExecutor() {
+        ExecutorService pool = Executors.newFixedThreadPool(2, new CustomizableThreadFactory("rule-test-"));
+        try {
+            ParallelRuleExecutor executor = executor(pool);
+            List<Rule> rules = List.of(rule("A", "slow"), rule("B", "slow"), rule("Thread", "thread"), flaky("F"));
+
+            Map<String, RuleResult> results = executor.executeRules(rules, Map.of());
+            assertTrue(((String) results.get("Thread").getResult()).startsWith("rule-test-"), results.toString());
+            assertTrue(((String) results.get("F").getResult()).startsWith("rule-test-"), results.toString());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void bulkheadsQueueThenRejectOnlyTheLimitedRules() {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            RuleEngineProperties properties = new RuleEngineProperties();
+            RuleEngineProperties.Bulkhead.Limits limits = new RuleEngineProperties.Bulkhead.Limits();
+            limits.setMaxConcurrent(1);
+            limits.setMaxQueue(1);
+            properties.getBulkhead().getRuleClasses().put("Slow", limits);
+            properties.getVeto().setShortCircuit(false);
+            ParallelRuleExecutor executor = executor(pool, properties);
+            List<Rule> rules = List.of(rule("A", "slow"), rule("B", "slow"), rule("C", "slow"), rule("E", "echo"));
+
+            Map<String, RuleResult> results = executor.executeRules(rules, Map.of("requestId", "R1"));
+            List<RuleResult> slow = List.of(results.get("A"), results.get("B"), results.get("C"));
+            assertEquals(2, slow.stream().filter(r -> r.getStatus() == ExecutionStatus.SUCCESS).count(), results.toString());
+            assertTrue(slow.stream().anyMatch(r -> r.getStatus() == ExecutionStatus.ERROR
+                && r.getErrorMessage().contains("Bulkhead rule-class:Slow is full")));
+            assertEquals(ExecutionStatus.SUCCESS, results.get("E").getStatus());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rulesTheExecutorRejectsFailInsteadOfRunningOnTheCaller() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        try {
+            RuleEngineProperties properties = new RuleEngineProperties();
+            properties.getVeto().setShortCircuit(false);
+            ParallelRuleExecutor executor = executor(pool, properties);
+            List<Rule> rules = List.of(rule("A", "slow"), rule("B", "slow"), rule("C", "slow"));
+
+            Map<String, RuleResult> results = executor.executeRules(rules, Map.of());
+            assertEquals(2, results.values().stream().filter(r -> r.getStatus() == ExecutionStatus.SUCCESS).count(),
+                results.toString());
+            assertTrue(results.values().stream().anyMatch(r -> r.getStatus() == ExecutionStatus.ERROR
+                && r.getErrorMessage().contains("rejected")), results.toString());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void deadlineInterruptsTheRuleAndReclaimsItsThread() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ParallelRuleExecutor executor = executor(pool);
+            Map<String, Object> context = new HashMap<>();
+            context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(30)));
+
+            long start = System.nanoTime();
+            Map<String, RuleResult> results = executor.executeRules(List.of(rule("A", "slow")), context);
+            assertEquals(ExecutionStatus.ERROR, results.get("A").getStatus());
+            // The interrupted rule gave the only worker back well before its 100 ms sleep ended
+            long reclaimed = CompletableFuture.supplyAsync(System::nanoTime, pool).get(1, TimeUnit.SECONDS);
+            assertTrue(reclaimed - start < TimeUnit.MILLISECONDS.toNanos(90), (reclaimed - start) / 1_000_000 + " ms");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void vetoEndsTheStepAndDropsUnfinishedRules() {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            ParallelRuleExecutor executor = executor(pool);
+            List<Rule> rules = List.of(rule("Veto", "failing"), rule("A", "slow"), rule("B", "slow"));
+
+            long start = System.nanoTime();
+            Map<String, RuleResult> results = executor.executeRules(rules, Map.of());
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(90));
+            assertEquals(Set.of("Veto"), results.keySet());
+            assertEquals(ExecutionStatus.ERROR, results.get("Veto").getStatus());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void advisoryFailuresDoNotEndTheStep() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        RuleEngineProperties.Veto.Step policy = new RuleEngineProperties.Veto.Step();
+        policy.getAdvisoryRules().add("Veto");
+        properties.getVeto().getSteps().put("SCREENING", policy);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            ParallelRuleExecutor executor = executor(pool, properties);
+            WorkflowStep step = new WorkflowStep();
+            step.setId(7L);
+            step.setStepCode("SCREENING");
+            List<Rule> rules = List.of(rule("Veto", "failing"), rule("A", "slow"), rule("B", "slow"));
+
+            Map<String, RuleResult> results = executor.executeRules(step, rules, Map.of());
+            assertEquals(Set.of("Veto", "A", "B"), results.keySet());
+            assertEquals(ExecutionStatus.SUCCESS, results.get("B").getStatus());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ParallelRuleExecutor executor() {
+        return executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+    }
+
+    private static ParallelRuleExecutor executor(ExecutorService pool) {
+        return executor(pool, new RuleEngineProperties());
+    }
+
+    private static ParallelRuleExecutor executor(ExecutorService pool, RuleEngineProperties properties) {
+        ParallelRuleExecutor executor = new ParallelRuleExecutor(RuleExecutorStrategies.single(pool), properties);
+        List<StatelessRule> beans = List.of(new EchoRule(), new SlowRule(), new JoinRule(), new FlakyRule(),
+            new FailingRule(), new ThreadRule());
+        ReflectionTestUtils.setField(executor, "ruleBeans", Map.of("echo", beans.get(0), "slow", beans.get(1),
+            "join", beans.get(2), "flaky", beans.get(3), "failing", beans.get(4), "thread", beans.get(5)));
+        ReflectionTestUtils.setField(executor, "variableAnalyzer", new RuleVariableAnalyzer(
+            new DecisionTableCache(new ObjectMapper(), new RuleEngineProperties()), new ObjectMapper()));
+        ReflectionTestUtils.setField(executor, "fallbackInvokers", new FallbackInvokers(beans));
+        ReflectionTestUtils.setField(executor, "circuitBreakerRegistry", new CircuitBreakerRegistry(event -> { }));
+        ReflectionTestUtils.setField(executor, "bulkheadRegistry", new BulkheadRegistry(properties));
+        return executor;
+    }
+
+    private static Rule rule(String name, String ruleClass) {
+        return Rule.builder().name(name).ruleType("JAVA").ruleClass(ruleClass).build();
+    }
+
+    private static Rule flaky(String name) {
+        return Rule.builder().name(name).ruleType("JAVA").ruleClass("flaky").retryCount(3).retryDelayMs(100L).build();
+    }
+
+    @RuleClass(name = "Flaky")
+    static class FlakyRule extends EchoRule {
+        private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            if (failures.computeIfAbsent(rule.getName(), name -> new AtomicInteger()).incrementAndGet() == 1) {
+                throw new IllegalStateException("Service unavailable");
+            }
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS)
+                .result(Thread.currentThread().getName()).build();
+        }
+    }
+
+    @RuleClass(name = "Failing")
+    static class FailingRule extends EchoRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.ERROR)
+                .errorMessage("Rejected").build();
+        }
+    }
+
+    @RuleClass(name = "Slow")
+    static class SlowRule extends EchoRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            sleep(100);
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS)
+                .result(rule.getName()).build();
+        }
+    }
+
+    @RuleClass(name = "Join", dependsOn = {"A", "B"})
+    static class JoinRule extends EchoRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            sleep(100);
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS)
+                .result(context.get("A") + "+" + context.get("B")).build();
+        }
+    }
+
+    @RuleClass(name = "Thread", dependsOn = {"A", "B"})
+    static class ThreadRule extends EchoRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS)
+                .result(Thread.currentThread().getName()).build();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @RuleClass(name = "Echo", inputs = {"requestId"})
+    static class EchoRule implements StatelessRule {
+        @Override
+        public RuleResult execute(Rule rule, Map<String, Object> context) {
+            // Let requests overlap
+            sleep(ThreadLocalRandom.current().nextInt(3));
+            return RuleResult.builder().ruleName(rule.getName()).status(ExecutionStatus.SUCCESS)
+                .result(context.get("requestId")).build();
+        }
+
+        @Override
+        public boolean validateInput(Rule rule, Map<String, Object> context) {
+            return true;
+        }
+
+        @Override
+        public String getRuleType() {
+            return "ECHO";
+        }
+    }
+}
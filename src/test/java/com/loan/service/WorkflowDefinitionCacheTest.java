@@ -0,0 +1,158 @@
+package com.loan.service;
+
+import com.loan.domain.Rule;
+import com.loan.domain.Workflow;
+import com.loan.domain.WorkflowStep;
+import com.loan.repository.WorkflowRepository;
+import com.loan.repository.WorkflowRevision;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WorkflowDefinitionCacheTest {
+
+    private final WorkflowRepository workflowRepository = mock(WorkflowRepository.class);
+    private final WorkflowDefinitionCache cache = new WorkflowDefinitionCache(workflowRepository);
+
+    @Test
+    void stepsAreServedFromTheSnapshotUntilTheDefinitionChanges() {
+        Workflow loaded = workflow("age >= 18");
+        when(workflowRepository.findActiveWorkflowRevisions()).thenReturn(List.of(revision("PERSONAL_LOAN", 1)));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN")).thenReturn(Optional.of(loaded));
+
+        // Before the first load the repository is still used
+        assertEquals("SCORING", cache.getStep("PERSONAL_LOAN", "SCORING").getStepCode());
+        verify(workflowRepository).findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN");
+
+        cache.refresh();
+        assertEquals(1, cache.getVersion());
+        clearInvocations(workflowRepository);
+
+        WorkflowStep step = cache.getStep("PERSONAL_LOAN", "SCORING");
+        assertSame(step, cache.getStep("PERSONAL_LOAN", "SCORING"));
+        assertSame(cache.getWorkflow("PERSONAL_LOAN").orElseThrow(), step.getWorkflow());
+        assertNull(cache.getStep("PERSONAL_LOAN", "MISSING"));
+        assertThrows(IllegalArgumentException.class, () -> cache.getStep("CREDIT_CARD", "SCORING"));
+        assertThrows(UnsupportedOperationException.class, () -> step.getRules().clear());
+        verifyNoInteractions(workflowRepository);
+
+        // An unchanged revision reloads nothing
+        when(workflowRepository.findActiveWorkflowRevisions()).thenReturn(List.of(revision("PERSONAL_LOAN", 1)));
+        cache.refresh();
+        verify(workflowRepository, never()).findActiveWorkflowWithStepsAndRules(any());
+        assertSame(step, cache.getStep("PERSONAL_LOAN", "SCORING"));
+
+        // A revision that moved without a change in content keeps the cached copies
+        when(workflowRepository.findActiveWorkflowRevisions()).thenReturn(List.of(revision("PERSONAL_LOAN", 2)));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN"))
+            .thenReturn(Optional.of(workflow("age >= 18")));
+        cache.refresh();
+        assertEquals(1, cache.getVersion());
+        assertSame(step, cache.getStep("PERSONAL_LOAN", "SCORING"));
+
+        when(workflowRepository.findActiveWorkflowRevisions()).thenReturn(List.of(revision("PERSONAL_LOAN", 3)));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN"))
+            .thenReturn(Optional.of(workflow("age >= 21")));
+        cache.refresh();
+        assertEquals(2, cache.getVersion());
+        assertEquals("age >= 21", cache.getStep("PERSONAL_LOAN", "SCORING").getRules().get(0).getRuleScript());
+
+        // A failed reload keeps the last snapshot
+        when(workflowRepository.findActiveWorkflowRevisions()).thenThrow(new IllegalStateException("database down"));
+        cache.refresh();
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getStep("PERSONAL_LOAN", "SCORING"));
+    }
+
+    @Test
+    void cachedCopiesCanBeHashedAndPrinted() {
+        when(workflowRepository.findActiveWorkflowRevisions()).thenReturn(List.of(revision("PERSONAL_LOAN", 1)));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN"))
+            .thenReturn(Optional.of(workflow("age >= 18")));
+        cache.refresh();
+
+        Workflow workflow = cache.getWorkflow("PERSONAL_LOAN").orElseThrow();
+        WorkflowStep step = cache.getStep("PERSONAL_LOAN", "SCORING");
+        assertSame(workflow, step.getWorkflow());
+        assertEquals(workflow("age >= 18").hashCode(), workflow.hashCode());
+        assertEquals(workflow("age >= 18").getSteps().get(0), step);
+        assertTrue(workflow.toString().contains("SCORING"));
+    }
+
+    @Test
+    void onlyWorkflowsWhoseRevisionMovedAreReloaded() {
+        when(workflowRepository.findActiveWorkflowRevisions())
+            .thenReturn(List.of(revision("PERSONAL_LOAN", 1), revision("CREDIT_CARD", 1)));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN"))
+            .thenReturn(Optional.of(workflow("age >= 18")));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("CREDIT_CARD"))
+            .thenReturn(Optional.of(workflow("CREDIT_CARD", "income > 0")));
+        cache.refresh();
+        assertEquals(2, cache.size());
+        clearInvocations(workflowRepository);
+
+        when(workflowRepository.findActiveWorkflowRevisions()).thenReturn(List.of(revision("PERSONAL_LOAN", 2)));
+        when(workflowRepository.findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN"))
+            .thenReturn(Optional.of(workflow("age >= 21")));
+        cache.refresh();
+
+        verify(workflowRepository).findActiveWorkflowWithStepsAndRules("PERSONAL_LOAN");
+        verify(workflowRepository, never()).findActiveWorkflowWithStepsAndRules("CREDIT_CARD");
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getVersion());
+        assertTrue(cache.getWorkflow("CREDIT_CARD").isEmpty());
+    }
+
+    private static WorkflowRevision revision(String productCode, int edit) {
+        return new WorkflowRevision() {
+            public String getProductCode() {
+                return productCode;
+            }
+
+            public LocalDateTime getWorkflowUpdatedAt() {
+                return LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(edit);
+            }
+
+            public LocalDateTime getStepsUpdatedAt() {
+                return null;
+            }
+
+            public Long getSteps() {
+                return 1L;
+            }
+
+            public LocalDateTime getRulesUpdatedAt() {
+                return null;
+            }
+
+            public Long getRuleLinks() {
+                return 1L;
+            }
+
+            public Long getRuleIds() {
+                return 1L;
+            }
+        };
+    }
+
+    private static Workflow workflow(String script) {
+        return workflow("PERSONAL_LOAN", script);
+    }
+
+    private static Workflow workflow(String productCode, String script) {
+        Workflow workflow = Workflow.builder().id(1L).productCode(productCode).name("Personal loan")
+            .isActive(true).build();
+        Rule rule = Rule.builder().id(1L).name("Adult").ruleType("SCRIPT").ruleScript(script).active(true).build();
+        WorkflowStep step = WorkflowStep.builder().id(1L).workflow(workflow).stepCode("SCORING").stepName("Scoring")
+            .stepOrder(1).isAutomated(true).rules(new ArrayList<>(List.of(rule))).build();
+        workflow.setSteps(new ArrayList<>(List.of(step)));
+        return workflow;
+    }
+}
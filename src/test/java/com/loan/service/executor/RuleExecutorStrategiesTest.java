@@ -0,0 +1,37 @@
+package com.loan.service.executor;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.rule.CreditCardLimitRule;
+import com.loan.rule.CreditScoreCheckRule;
+import com.loan.rule.IncomeVerificationRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleExecutorStrategiesTest {
+
+    @Test
+    void annotationWinsOverRuleTypeOverDefault() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getExecutor().getRuleTypes().put("INCOME_VERIFICATION", VirtualThreadExecutorStrategy.NAME);
+        CpuExecutorStrategy cpu = new CpuExecutorStrategy();
+        IoExecutorStrategy io = new IoExecutorStrategy(properties);
+        VirtualThreadExecutorStrategy virtual = new VirtualThreadExecutorStrategy(io);
+        try {
+            RuleExecutorStrategies strategies = new RuleExecutorStrategies(List.of(cpu, io, virtual), properties);
+            assertSame(io, strategies.select(new CreditScoreCheckRule(null)));
+            assertSame(virtual, strategies.select(new IncomeVerificationRule()));
+            assertSame(cpu, strategies.select(new CreditCardLimitRule()));
+
+            properties.getExecutor().setDefaultStrategy("gpu");
+            assertThrows(IllegalArgumentException.class,
+                () -> new RuleExecutorStrategies(List.of(cpu, io, virtual), properties));
+        } finally {
+            cpu.shutdown();
+            io.shutdown();
+            virtual.shutdown();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.loan.service.impl;
+
+import com.loan.config.RuleEngineProperties;
+import com.loan.rule.Deadline;
+import com.loan.rule.batch.MicroBatcherRegistry;
+import com.loan.rule.resilience.OutboundDependency;
+import com.loan.service.executor.IoExecutorStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditScoreServiceImplTest {
+
+    private final RuleEngineProperties properties = new RuleEngineProperties();
+    private final IoExecutorStrategy ioExecutor = new IoExecutorStrategy(properties);
+    private MicroBatcherRegistry batchers;
+
+    @AfterEach
+    void shutdown() {
+        batchers.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    @Test
+    void batchedLookupWaitsNoLongerThanTheDeadline() {
+        CreditScoreServiceImpl service = service(Duration.ofHours(1));
+
+        long start = System.nanoTime();
+        TimeoutException timeout = assertThrows(TimeoutException.class,
+            () -> service.getCreditScore("C1", Deadline.after(Duration.ofMillis(30))));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(timeout.getMessage().contains("Deadline exceeded"));
+    }
+
+    @Test
+    void interruptedLookupKeepsTheInterrupt() {
+        CreditScoreServiceImpl service = service(Duration.ofHours(1));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedException.class, () -> service.getCreditScore("C1", null));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void batchedLookupReturnsTheScore() throws Exception {
+        CreditScoreServiceImpl service = service(Duration.ofMillis(5));
+
+        assertNotNull(service.getCreditScore("C1", Deadline.after(Duration.ofSeconds(5))));
+        assertEquals(service.getCreditScore("C1"), service.getCreditScore("C1", null));
+    }
+
+    private CreditScoreServiceImpl service(Duration window) {
+        properties.getMicroBatch().setEnabled(true);
+        properties.getMicroBatch().getDependencies().put(OutboundDependency.CREDIT_SCORE, window);
+        batchers = new MicroBatcherRegistry(properties, null, null, ioExecutor);
+        return new CreditScoreServiceImpl(batchers, properties);
+    }
+}